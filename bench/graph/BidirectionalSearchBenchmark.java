@@ -0,0 +1,61 @@
+package graph;
+
+import java.util.Random;
+
+import model.GameModel;
+import model.MazeGraph;
+import model.MazeGraph.MazeEdge;
+import model.MazeGraph.MazeVertex;
+import util.Randomness;
+
+/**
+ * Compares the number of vertices settled by one-directional Dijkstra searches in `Pathfinding`
+ * with the number of states settled by `BidirectionalSearch`, for random queries on mazes of
+ * increasing size.  Note that a maze has roughly twice as many states (directed edges) as
+ * vertices, so equal counts mean the bidirectional search covers about half as much of the maze.
+ * Also reports the mean time per query.  Run with optional arguments `[numQueries] [seed]`.
+ */
+public class BidirectionalSearchBenchmark {
+
+    public static void main(String[] args) {
+        int numQueries = (args.length > 0) ? Integer.parseInt(args[0]) : 200;
+        long seed = (args.length > 1) ? Long.parseLong(args[1]) : 2110;
+
+        System.out.printf("%9s  %8s  %12s  %12s  %12s  %10s  %10s\n", "Maze", "Vertices",
+                "Full search", "Dijkstra", "Bidir.", "Dijk. [us]", "Bidir. [us]");
+        for (int size : new int[]{10, 50, 100, 200}) {
+            MazeGraph graph = GameModel.newGame(size, size, false, new Randomness(seed)).graph();
+            SearchContext<MazeEdge> context = new SearchContext<>(graph.vertexCount());
+            EdgePath<MazeEdge> path = new EdgePath<>();
+            BidirectionalSearch bidirectional = new BidirectionalSearch(graph.compact());
+
+            Random rng = new Random(seed);
+            long dijkstraSettled = 0;
+            long bidirectionalSettled = 0;
+            long dijkstraNanos = 0;
+            long bidirectionalNanos = 0;
+            for (int q = 0; q < numQueries; q++) {
+                MazeEdge previous = graph.edge(rng.nextInt(graph.compact().edgeCount()));
+                MazeVertex src = previous.dst();
+                MazeVertex dst = graph.vertex(rng.nextInt(graph.vertexCount()));
+
+                long start = System.nanoTime();
+                Pathfinding.shortestNonBacktrackingPath(src, dst, previous, graph, (v, w) -> 0,
+                        context, path);
+                dijkstraNanos += System.nanoTime() - start;
+                dijkstraSettled += context.settledCount();
+
+                start = System.nanoTime();
+                bidirectional.search(src.id(), graph.edgeId(previous), dst.id());
+                bidirectionalNanos += System.nanoTime() - start;
+                bidirectionalSettled += bidirectional.settledCount();
+            }
+            // The original `pathInfo` search settles every reachable vertex for every query
+            System.out.printf("%4dx%-4d  %8d  %12d  %12.1f  %12.1f  %10.1f  %10.1f\n", size, size,
+                    graph.vertexCount(), graph.vertexCount(),
+                    (double) dijkstraSettled / numQueries,
+                    (double) bidirectionalSettled / numQueries,
+                    dijkstraNanos / 1e3 / numQueries, bidirectionalNanos / 1e3 / numQueries);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package graph;
+
+import java.util.List;
+import java.util.Random;
+
+import model.GameModel;
+import model.JunctionGraph;
+import model.MazeGraph;
+import model.MazeGraph.MazeEdge;
+import model.MazeGraph.MazeVertex;
+import util.Randomness;
+
+/**
+ * Reports the time taken to build a contraction hierarchy over the corridors of mazes of
+ * increasing size, and compares the mean time per query of the hierarchy with that of plain
+ * Dijkstra searches in `Pathfinding` and of A* searches with `JunctionGraph.Router`.  Run with
+ * optional arguments `[numQueries] [seed]`.
+ */
+public class ContractionHierarchyBenchmark {
+
+    public static void main(String[] args) {
+        int numQueries = (args.length > 0) ? Integer.parseInt(args[0]) : 200;
+        long seed = (args.length > 1) ? Long.parseLong(args[1]) : 2110;
+
+        System.out.printf("%9s  %8s  %9s  %9s  %12s  %10s  %10s  %10s\n", "Maze", "Vertices",
+                "Corridors", "Arcs", "Build [ms]", "Dijk. [us]", "A* [us]", "CH [us]");
+        for (int size : new int[]{50, 100, 200, 400}) {
+            GameModel model = GameModel.newGame(size, size, false, new Randomness(seed));
+            // Let the game's own background preprocessing finish, then time a fresh build alone
+            model.graph().landmarks().join();
+            model.graph().junctionGraph().hierarchy().join();
+            MazeGraph graph = new MazeGraph(model.map());
+            graph.landmarks().join();
+            JunctionGraph junctions = graph.junctionGraph();
+            long start = System.nanoTime();
+            ContractionHierarchy hierarchy = junctions.hierarchy().join();
+            long buildNanos = System.nanoTime() - start;
+
+            SearchContext<MazeEdge> context = new SearchContext<>(graph.vertexCount());
+            EdgePath<MazeEdge> path = new EdgePath<>();
+            JunctionGraph.Router router = junctions.new Router();
+            JunctionGraph.HierarchyRouter hierarchyRouter = junctions.new HierarchyRouter(hierarchy);
+
+            Random rng = new Random(seed);
+            long dijkstraNanos = 0;
+            long routerNanos = 0;
+            long hierarchyNanos = 0;
+            for (int q = 0; q < numQueries; q++) {
+                MazeEdge previous = graph.edge(rng.nextInt(graph.compact().edgeCount()));
+                MazeVertex src = previous.dst();
+                MazeVertex dst = graph.vertex(rng.nextInt(graph.vertexCount()));
+
+                start = System.nanoTime();
+                Pathfinding.shortestNonBacktrackingPath(src, dst, previous, graph, (v, w) -> 0,
+                        context, path);
+                dijkstraNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                router.route(src, previous, dst);
+                routerNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                List<MazeEdge> route = hierarchyRouter.shortestNonBacktrackingPath(src, dst,
+                        previous);
+                hierarchyNanos += System.nanoTime() - start;
+                assert route != null && Math.abs(length(route) - length(router.path())) < 1e-9;
+            }
+            System.out.printf("%4dx%-4d  %8d  %9d  %9d  %12.1f  %10.1f  %10.1f  %10.1f\n", size,
+                    size, graph.vertexCount(), junctions.corridorCount(),
+                    hierarchy.arcCount(), buildNanos / 1e6, dijkstraNanos / 1e3 / numQueries, routerNanos / 1e3 / numQueries,
+                    hierarchyNanos / 1e3 / numQueries);
+        }
+    }
+
+    /**
+     * Return the total weight of the edges of `path`.
+     */
+    private static double length(List<MazeEdge> path) {
+        return path.stream().mapToDouble(MazeEdge::weight).sum();
+    }
+}
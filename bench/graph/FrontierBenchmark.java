@@ -0,0 +1,123 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import model.GameModel;
+import model.MazeGraph;
+import model.MazeGraph.MazeEdge;
+import model.MazeGraph.MazeVertex;
+import util.Randomness;
+
+/**
+ * Compares frontier implementations on searches over mazes of increasing size.  The first table
+ * gives the mean time per query of Dijkstra and A* searches in `Pathfinding` when their frontier
+ * is a binary heap (`IntMinPQueue`) and when it is a bucket queue (`MonotonePriorityQueue`); the
+ * heap is forced by hiding the maze's `BoundedWeights` behind a plain `VertexIndex`.  The second
+ * gives the mean time of a full `pathInfo` search with each `Frontier` implementation.  Run
+ * without assertions enabled (the heaps check their invariants after every operation), with
+ * optional arguments `[numQueries] [seed]`.
+ */
+public class FrontierBenchmark {
+
+    public static void main(String[] args) {
+        int numQueries = (args.length > 0) ? Integer.parseInt(args[0]) : 200;
+        long seed = (args.length > 1) ? Long.parseLong(args[1]) : 2110;
+        compareIntFrontiers(numQueries, seed);
+        System.out.println();
+        compareFrontiers(numQueries, seed);
+    }
+
+    /**
+     * Print the first table: point-to-point searches with each `IntFrontier`.
+     */
+    private static void compareIntFrontiers(int numQueries, long seed) {
+        System.out.printf("%9s  %8s  %12s  %12s  %12s  %12s\n", "Maze", "Vertices",
+                "Dijk. heap", "Dijk. bucket", "A* heap", "A* bucket");
+        for (int size : new int[]{10, 50, 100, 200}) {
+            MazeGraph graph = GameModel.newGame(size, size, false, new Randomness(seed)).graph();
+            VertexIndex<MazeVertex> unbounded = new VertexIndex<>() {
+                @Override
+                public int vertexCount() {
+                    return graph.vertexCount();
+                }
+
+                @Override
+                public int indexOf(MazeVertex v) {
+                    return graph.indexOf(v);
+                }
+            };
+            SearchContext<MazeEdge> context = new SearchContext<>(graph.vertexCount());
+            EdgePath<MazeEdge> path = new EdgePath<>();
+
+            // Warm up every combination once before timing
+            long[] nanos = new long[4];
+            for (int round = 0; round < 2; round++) {
+                Arrays.fill(nanos, 0);
+                Random rng = new Random(seed);
+                for (int q = 0; q < numQueries; q++) {
+                    MazeEdge previous = graph.edge(rng.nextInt(graph.compact().edgeCount()));
+                    MazeVertex src = previous.dst();
+                    MazeVertex dst = graph.vertex(rng.nextInt(graph.vertexCount()));
+                    int i = 0;
+                    for (Heuristic<MazeVertex> heuristic : List.<Heuristic<MazeVertex>>of(
+                            (v, w) -> 0, graph.manhattanHeuristic())) {
+                        for (VertexIndex<MazeVertex> index : List.of(unbounded, graph)) {
+                            long start = System.nanoTime();
+                            Pathfinding.shortestNonBacktrackingPath(src, dst, previous, index,
+                                    heuristic, context, path);
+                            nanos[i++] += System.nanoTime() - start;
+                        }
+                    }
+                }
+            }
+            System.out.printf("%4dx%-4d  %8d  %12.1f  %12.1f  %12.1f  %12.1f\n", size, size,
+                    graph.vertexCount(), nanos[0] / 1e3 / numQueries,
+                    nanos[1] / 1e3 / numQueries, nanos[2] / 1e3 / numQueries,
+                    nanos[3] / 1e3 / numQueries);
+        }
+    }
+
+    /**
+     * Print the second table: full `pathInfo` searches with each `Frontier`.  Since each search
+     * settles the whole maze, fewer queries are run on larger mazes.
+     */
+    private static void compareFrontiers(int numQueries, long seed) {
+        List<String> names = List.of("MinPQueue", "4-ary", "8-ary", "Pairing", "Lazy");
+        System.out.printf("%9s  %8s", "Maze", "Vertices");
+        for (String name : names) {
+            System.out.printf("  %14s", name + " [us]");
+        }
+        System.out.println();
+        for (int size : new int[]{10, 50, 100, 200}) {
+            MazeGraph graph = GameModel.newGame(size, size, false, new Randomness(seed)).graph();
+            int queries = Math.max(1, numQueries * 100 / (size * size));
+            long[] nanos = new long[names.size()];
+            for (int round = 0; round < 2; round++) {
+                Arrays.fill(nanos, 0);
+                Random rng = new Random(seed);
+                for (int q = 0; q < queries; q++) {
+                    MazeEdge previous = graph.edge(rng.nextInt(graph.compact().edgeCount()));
+                    for (int i = 0; i < names.size(); i++) {
+                        Frontier<MazeVertex> frontier = switch (i) {
+                            case 0 -> new MinPQueue<>();
+                            case 1 -> new DaryMinPQueue<>(4);
+                            case 2 -> new DaryMinPQueue<>(8);
+                            case 3 -> new PairingMinPQueue<>();
+                            default -> new LazyMinPQueue<>();
+                        };
+                        long start = System.nanoTime();
+                        Pathfinding.pathInfo(previous.dst(), previous, frontier);
+                        nanos[i] += System.nanoTime() - start;
+                    }
+                }
+            }
+            System.out.printf("%4dx%-4d  %8d", size, size, graph.vertexCount());
+            for (long n : nanos) {
+                System.out.printf("  %14.1f", n / 1e3 / queries);
+            }
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package graph;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks (`MinPQueueJmhBenchmark` and `PathfindingJmhBenchmark`) and writes
+ * their results as JSON, so that runs from different releases can be compared for regressions.
+ * Run with optional arguments `[resultFile] [includeRegex]`; by default, every benchmark is run
+ * and results are written to "jmh-result.json".  Requires the JMH library and its annotation
+ * processor on the classpath at compile time, so that the benchmarks' harness classes are
+ * generated.
+ */
+public class JmhRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String resultFile = (args.length > 0) ? args[0] : "jmh-result.json";
+        String include = (args.length > 1) ? args[1] : "graph\\..*JmhBenchmark";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+        new Runner(options).run();
+    }
+}
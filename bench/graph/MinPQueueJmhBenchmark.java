@@ -0,0 +1,137 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of `MinPQueue` (and the other `Frontier` implementations) under two workloads
+ * of `size` elements.  In the "random" workload, elements with random priorities are added or
+ * updated, with every third operation removing the minimum, and the queue is then drained.  In
+ * the "decreaseKey" workload, which mimics Dijkstra's algorithm, every element is added with a
+ * large priority, and each removal of the minimum is followed by several attempts to decrease the
+ * priorities of random elements to just above the removed one.  Each invocation runs a whole
+ * workload on a fresh queue.  Run with `JmhRunner`.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-da")
+@State(Scope.Thread)
+public class MinPQueueJmhBenchmark {
+
+    /**
+     * The number of distinct elements in a workload.
+     */
+    @Param({"1000", "100000"})
+    public int size;
+
+    /**
+     * The implementation under test (see `newFrontier()`).
+     */
+    @Param({"MinPQueue", "4-ary", "pairing", "lazy"})
+    public String frontier;
+
+    /**
+     * The elements and priorities of the "random" workload's additions and updates, in order.
+     */
+    private int[] keys;
+    private double[] priorities;
+
+    /**
+     * The random elements and priority increments of the "decreaseKey" workload, consumed
+     * cyclically, and the current priority of each element.
+     */
+    private int[] neighbors;
+    private double[] increments;
+    private double[] current;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random rng = new Random(2110);
+        keys = new int[3 * size];
+        priorities = new double[3 * size];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = rng.nextInt(size);
+            priorities[i] = rng.nextDouble();
+        }
+        neighbors = new int[4 * size];
+        increments = new double[4 * size];
+        for (int i = 0; i < neighbors.length; i++) {
+            neighbors[i] = rng.nextInt(size);
+            increments[i] = 0.25 + 1.5 * rng.nextDouble();
+        }
+        current = new double[size];
+    }
+
+    /**
+     * Return an empty frontier of the implementation named `name`.
+     */
+    static Frontier<Integer> newFrontier(String name) {
+        return switch (name) {
+            case "MinPQueue" -> new MinPQueue<>();
+            case "4-ary" -> new DaryMinPQueue<>(4);
+            case "pairing" -> new PairingMinPQueue<>();
+            case "lazy" -> new LazyMinPQueue<>();
+            default -> throw new IllegalArgumentException(name);
+        };
+    }
+
+    @Benchmark
+    public int random() {
+        Frontier<Integer> q = newFrontier(frontier);
+        int checksum = 0;
+        for (int i = 0; i < keys.length; i++) {
+            q.addOrUpdate(keys[i], priorities[i]);
+            if (i % 3 == 2) {
+                checksum += q.remove();
+            }
+        }
+        while (!q.isEmpty()) {
+            checksum += q.remove();
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public int decreaseKey() {
+        Frontier<Integer> q = newFrontier(frontier);
+        for (int k = 0; k < size; k++) {
+            current[k] = Double.MAX_VALUE;
+            q.addOrUpdate(k, current[k]);
+        }
+        q.addOrUpdate(0, 0);
+        current[0] = 0;
+        int checksum = 0;
+        int next = 0;
+        while (!q.isEmpty()) {
+            double min = q.minPriority();
+            int v = q.remove();
+            current[v] = Double.NEGATIVE_INFINITY;  // settled
+            checksum += v;
+            for (int j = 0; j < 4; j++) {
+                int w = neighbors[next];
+                double priority = min + increments[next];
+                next = (next + 1) % neighbors.length;
+                if (priority < current[w]) {
+                    current[w] = priority;
+                    q.addOrUpdate(w, priority);
+                }
+            }
+        }
+        return checksum;
+    }
+}
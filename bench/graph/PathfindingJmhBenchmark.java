@@ -0,0 +1,130 @@
+package graph;
+
+import graph.SimpleGraph.SimpleVertex;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import model.GameModel;
+import model.MazeGraph;
+import model.MazeGraph.MazeEdge;
+import model.MazeGraph.MazeVertex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.Randomness;
+
+/**
+ * JMH benchmarks of `Pathfinding.shortestNonBacktrackingPath()`, each invocation answering the
+ * next of a fixed cycle of random queries.  Maze queries run on the graph of a game created by
+ * `GameModel.newGame()`, with Dijkstra's algorithm or A* guided by the maze's Manhattan heuristic,
+ * reusing one `SearchContext`.  Random-graph queries run on a `SimpleGraph` from
+ * `PathfindingTest.randomGraph()`.  Run with `JmhRunner`.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-da")
+public class PathfindingJmhBenchmark {
+
+    /**
+     * The number of queries in each cycle.
+     */
+    static final int NUM_QUERIES = 256;
+
+    @State(Scope.Thread)
+    public static class Maze {
+
+        /**
+         * The width and height of the maze, in maze cells.
+         */
+        @Param({"10", "50", "200"})
+        public int mazeSize;
+
+        /**
+         * Whether queries are guided by the maze's Manhattan heuristic.
+         */
+        @Param({"false", "true"})
+        public boolean astar;
+
+        MazeGraph graph;
+        Heuristic<MazeVertex> heuristic;
+        SearchContext<MazeEdge> context;
+        EdgePath<MazeEdge> path;
+        MazeEdge[] previous;
+        MazeVertex[] dsts;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            GameModel model = GameModel.newGame(mazeSize, mazeSize, false, new Randomness(2110));
+            graph = model.graph();
+            // Let background preprocessing finish so it doesn't compete with the measurements
+            graph.landmarks().join();
+            graph.junctionGraph().hierarchy().join();
+            heuristic = astar ? graph.manhattanHeuristic() : (v, w) -> 0;
+            context = new SearchContext<>(graph.vertexCount());
+            path = new EdgePath<>();
+            Random rng = new Random(2110);
+            previous = new MazeEdge[NUM_QUERIES];
+            dsts = new MazeVertex[NUM_QUERIES];
+            for (int q = 0; q < NUM_QUERIES; q++) {
+                previous[q] = graph.edge(rng.nextInt(graph.compact().edgeCount()));
+                dsts[q] = graph.vertex(rng.nextInt(graph.vertexCount()));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RandomGraph {
+
+        /**
+         * The number of vertices of the graph; it has three times as many edges.
+         */
+        @Param({"100", "10000"})
+        public int vertices;
+
+        SimpleGraph graph;
+        SimpleVertex[] srcs;
+        SimpleVertex[] dsts;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random rng = new Random(2110);
+            graph = PathfindingTest.randomGraph(vertices, 3 * vertices, rng);
+            srcs = new SimpleVertex[NUM_QUERIES];
+            dsts = new SimpleVertex[NUM_QUERIES];
+            for (int q = 0; q < NUM_QUERIES; q++) {
+                srcs[q] = graph.getVertex("v" + rng.nextInt(vertices));
+                dsts[q] = graph.getVertex("v" + rng.nextInt(vertices));
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean maze(Maze state) {
+        int q = state.next;
+        state.next = (q + 1) % NUM_QUERIES;
+        return Pathfinding.shortestNonBacktrackingPath(state.previous[q].dst(), state.dsts[q],
+                state.previous[q], state.graph, state.heuristic, state.context, state.path);
+    }
+
+    @Benchmark
+    public Object randomGraph(RandomGraph state) {
+        int q = state.next;
+        state.next = (q + 1) % NUM_QUERIES;
+        return Pathfinding.shortestNonBacktrackingPath(state.srcs[q], state.dsts[q],
+                null, state.graph);
+    }
+}
@@ -0,0 +1,142 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.MazeGraph.MazeEdge;
+import model.MazeGraph.MazeVertex;
+import util.Randomness;
+
+/**
+ * Compares the cost of checking actors for collisions after each simulation step as the number of
+ * actors grows.  Actors wander a 50x50 maze at random, stepping from event to event as
+ * `GameModel.updateActors()` does; after each step, collisions are checked both among the
+ * candidate pairs collected by `EventScheduler` (whose `ActorIndex` only pairs up actors on the
+ * same or adjacent undirected edges) and, as before, among all pairs.  The table gives the mean
+ * number of pairs compared and the mean time per step of each approach, where the indexed time
+ * includes predicting the next step's events.  Run without assertions enabled, with optional
+ * arguments `[numSteps] [seed]`.
+ */
+public class CollisionBenchmark {
+
+    public static void main(String[] args) {
+        int numSteps = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+        long seed = (args.length > 1) ? Long.parseLong(args[1]) : 2110;
+        GameModel model = GameModel.newGame(50, 50, false, new Randomness(seed));
+
+        System.out.printf("%6s  %12s  %12s  %14s  %14s\n", "Actors", "Pairs index",
+                "Pairs all", "Index [us]", "All pairs [us]");
+        for (int numActors : new int[]{5, 10, 50, 100, 500, 1000}) {
+            // Run each size twice, reporting the second run, so that both paths are compiled
+            long[] result = null;
+            for (int round = 0; round < 2; round++) {
+                result = simulate(model, numActors, numSteps, new Random(seed));
+            }
+            System.out.printf("%6d  %12.1f  %12.1f  %14.2f  %14.2f\n", numActors,
+                    (double) result[0] / numSteps, (double) result[1] / numSteps,
+                    result[2] / 1e3 / numSteps, result[3] / 1e3 / numSteps);
+        }
+    }
+
+    /**
+     * Simulate `numActors` wanderers in `model`'s maze for `numSteps` steps, and return the total
+     * number of pairs compared with and without the index, followed by the total nanoseconds spent
+     * on each approach.
+     */
+    private static long[] simulate(GameModel model, int numActors, int numSteps, Random rng) {
+        List<Actor> actors = new ArrayList<>();
+        for (int i = 0; i < numActors; i++) {
+            actors.add(new Wanderer(model, rng));
+        }
+        EventScheduler scheduler = new EventScheduler(actors, model.graph());
+        long[] result = new long[4];
+        double time = 0;
+        for (int step = 0; step < numSteps; step++) {
+            long start = System.nanoTime();
+            double dt = Math.max(scheduler.nextDt(time, 16), 1e-7);
+            result[2] += System.nanoTime() - start;
+
+            for (Actor a : actors) {
+                a.propagate(dt);
+            }
+            time += dt;
+
+            start = System.nanoTime();
+            scheduler.advance(time);
+            int count = scheduler.collisionCandidates();
+            for (int k = 0; k < count; k++) {
+                scheduler.first(k).location().collidesWith(scheduler.second(k).location());
+            }
+            result[0] += count;
+            result[2] += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < numActors; i++) {
+                Actor a = actors.get(i);
+                for (int j = i + 1; j < numActors; j++) {
+                    a.location().collidesWith(actors.get(j).location());
+                }
+            }
+            result[1] += (long) numActors * (numActors - 1) / 2;
+            result[3] += System.nanoTime() - start;
+
+            for (int i = 0; i < numActors; i++) {
+                Actor a = actors.get(i);
+                if (a.location().atVertex()) {
+                    a.traverseEdge(a.nextEdge());
+                    scheduler.invalidate(i);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * An actor that starts at a random point of the maze and takes a random edge out of each
+     * vertex it reaches, avoiding turning back where it can.
+     */
+    private static class Wanderer extends Actor {
+
+        private final Random rng;
+
+        Wanderer(GameModel model, Random rng) {
+            super(model);
+            this.rng = rng;
+            reset();
+        }
+
+        @Override
+        public void visitVertex(MazeVertex v) {
+        }
+
+        @Override
+        public MazeEdge nextEdge() {
+            List<MazeEdge> choices = new ArrayList<>();
+            for (MazeEdge e : location().nearestVertex().outgoingEdges()) {
+                if (!e.dst().equals(location().edge().src())) {
+                    choices.add(e);
+                }
+            }
+            return choices.isEmpty() ? location().edge().reverse()
+                    : choices.get(rng.nextInt(choices.size()));
+        }
+
+        @Override
+        public List<MazeEdge> guidancePath() {
+            return List.of();
+        }
+
+        @Override
+        public void reset() {
+            MazeGraph graph = model.graph();
+            MazeEdge e = graph.edge(rng.nextInt(graph.compact().edgeCount()));
+            location = new Location(e, rng.nextDouble());
+        }
+
+        @Override
+        public double baseSpeed() {
+            return 1.0 / 200.0;
+        }
+    }
+}
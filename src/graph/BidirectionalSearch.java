@@ -0,0 +1,283 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Finds shortest non-backtracking paths in a `CompactGraph` by searching forward from the source
+ * and backward from the destination at the same time, stopping once the two searches have provably
+ * met along a shortest path.  On large graphs, each search only needs to cover a region of roughly
+ * half the path's length, so far fewer states are settled than by a one-directional search.
+ * <p>
+ * Both searches run over the same states as `DistanceField`: state `k` stands at `graph.target(k)`
+ * having just traversed edge `k`.  The forward search moves from a state to the edges leaving its
+ * vertex; the backward search moves from a state to the states that could precede it, using the
+ * graph's in-edge lists (so no reversed edge objects are needed).  Because a forward and a backward
+ * label meet at the same state, their concatenation automatically satisfies the non-backtracking
+ * rule at the junction.
+ * <p>
+ * An instance owns scratch arrays for one graph and may be reused for any number of searches (but
+ * only one at a time).
+ */
+public class BidirectionalSearch {
+
+    /**
+     * The graph being searched.
+     */
+    private final CompactGraph graph;
+
+    /**
+     * The best known distance from the source to each forward state, valid where
+     * `forwardStamps[k] == epoch`.
+     */
+    private final double[] forwardDistances;
+
+    /**
+     * The state preceding each forward state on its best known path, or -1 for a first edge.
+     */
+    private final int[] forwardParents;
+
+    /**
+     * The epoch in which each forward entry was last written.
+     */
+    private final int[] forwardStamps;
+
+    /**
+     * The best known distance from each backward state to the destination, valid where
+     * `backwardStamps[k] == epoch`.
+     */
+    private final double[] backwardDistances;
+
+    /**
+     * The state following each backward state on its best known path, or -1 for a state standing
+     * on the destination.
+     */
+    private final int[] backwardChildren;
+
+    /**
+     * The epoch in which each backward entry was last written.
+     */
+    private final int[] backwardStamps;
+
+    /**
+     * The frontiers of the two searches.
+     */
+    private final IntMinPQueue forwardFrontier;
+    private final IntMinPQueue backwardFrontier;
+
+    /**
+     * The epoch of the current search.
+     */
+    private int epoch;
+
+    /**
+     * The edges of the path found by the most recent search, in `[0..pathLength)`.
+     */
+    private int[] path;
+
+    /**
+     * The number of edges in `path`, or -1 if the most recent search found no path.
+     */
+    private int pathLength;
+
+    /**
+     * The length of the path found by the most recent search.
+     */
+    private double distance;
+
+    /**
+     * The number of states settled (by either direction) during the most recent search.
+     */
+    private int settledCount;
+
+    /**
+     * Create a search over `graph`.
+     */
+    public BidirectionalSearch(CompactGraph graph) {
+        this.graph = graph;
+        int m = graph.edgeCount();
+        forwardDistances = new double[m];
+        forwardParents = new int[m];
+        forwardStamps = new int[m];
+        backwardDistances = new double[m];
+        backwardChildren = new int[m];
+        backwardStamps = new int[m];
+        forwardFrontier = new IntMinPQueue(m);
+        backwardFrontier = new IntMinPQueue(m);
+        path = new int[16];
+        pathLength = -1;
+    }
+
+    /**
+     * Return the best known forward distance of state `k` in the current search.
+     */
+    private double forward(int k) {
+        return (forwardStamps[k] == epoch) ? forwardDistances[k] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Return the best known backward distance of state `k` in the current search.
+     */
+    private double backward(int k) {
+        return (backwardStamps[k] == epoch) ? backwardDistances[k] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Search for a shortest non-backtracking path from vertex `src` to vertex `dst`, where
+     * `incoming` is the id of the edge just traversed to reach `src` (or -1 if there is none, in
+     * which case any edge may be taken first).  Returns whether a path was found; if so, it may be
+     * read with `pathLength()`, `pathEdge()`, and `distance()`.  Requires `incoming < 0` or
+     * `graph.target(incoming) == src`.
+     */
+    public boolean search(int src, int incoming, int dst) {
+        assert incoming < 0 || graph.target(incoming) == src;
+        epoch += 1;
+        if (epoch == 0) {
+            Arrays.fill(forwardStamps, 0);
+            Arrays.fill(backwardStamps, 0);
+            epoch = 1;
+        }
+        forwardFrontier.clear();
+        backwardFrontier.clear();
+        settledCount = 0;
+        pathLength = -1;
+        distance = Double.POSITIVE_INFINITY;
+
+        if (src == dst) {
+            pathLength = 0;
+            distance = 0;
+            return true;
+        }
+
+        // The best meeting state found so far and the length of the path through it
+        int meet = -1;
+        double best = Double.POSITIVE_INFINITY;
+
+        int back = (incoming < 0) ? -1 : graph.source(incoming);
+        for (int b = graph.firstEdge(src); b < graph.endEdge(src); b++) {
+            if (graph.target(b) != back && graph.weight(b) < forward(b)) {
+                forwardStamps[b] = epoch;
+                forwardDistances[b] = graph.weight(b);
+                forwardParents[b] = -1;
+                forwardFrontier.addOrUpdate(b, graph.weight(b));
+            }
+        }
+        for (int i = graph.firstInEdge(dst); i < graph.endInEdge(dst); i++) {
+            int k = graph.inEdge(i);
+            backwardStamps[k] = epoch;
+            backwardDistances[k] = 0;
+            backwardChildren[k] = -1;
+            backwardFrontier.addOrUpdate(k, 0);
+            if (forward(k) < best) {
+                best = forward(k);
+                meet = k;
+            }
+        }
+
+        // Alternate between directions, always advancing the one with the smaller frontier.  Stop
+        // once no unsettled state could lie on a path shorter than the best meeting found.
+        while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()
+                && forwardFrontier.minPriority() + backwardFrontier.minPriority() < best) {
+            settledCount += 1;
+            if (forwardFrontier.size() <= backwardFrontier.size()) {
+                int a = forwardFrontier.remove();
+                int v = graph.target(a);
+                if (v == dst) {
+                    continue;  // paths end upon reaching `dst`
+                }
+                double d = forwardDistances[a];
+                for (int b = graph.firstEdge(v); b < graph.endEdge(v); b++) {
+                    double newDist = d + graph.weight(b);
+                    if (graph.target(b) != graph.source(a) && newDist < forward(b)) {
+                        forwardStamps[b] = epoch;
+                        forwardDistances[b] = newDist;
+                        forwardParents[b] = a;
+                        forwardFrontier.addOrUpdate(b, newDist);
+                        if (newDist + backward(b) < best) {
+                            best = newDist + backward(b);
+                            meet = b;
+                        }
+                    }
+                }
+            } else {
+                int b = backwardFrontier.remove();
+                int x = graph.source(b);
+                int y = graph.target(b);
+                double d = graph.weight(b) + backwardDistances[b];
+                for (int i = graph.firstInEdge(x); i < graph.endInEdge(x); i++) {
+                    int a = graph.inEdge(i);
+                    if (graph.source(a) != y && graph.target(a) != dst && d < backward(a)) {
+                        backwardStamps[a] = epoch;
+                        backwardDistances[a] = d;
+                        backwardChildren[a] = b;
+                        backwardFrontier.addOrUpdate(a, d);
+                        if (forward(a) + d < best) {
+                            best = forward(a) + d;
+                            meet = a;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (meet < 0) {
+            return false;
+        }
+        distance = best;
+
+        // Collect the forward half (walking back from `meet`), then append the backward half
+        int forwardLength = 0;
+        for (int k = meet; k >= 0; k = forwardParents[k]) {
+            forwardLength += 1;
+        }
+        int length = forwardLength;
+        for (int k = backwardChildren[meet]; k >= 0; k = backwardChildren[k]) {
+            length += 1;
+        }
+        if (path.length < length) {
+            path = new int[Math.max(length, 2 * path.length)];
+        }
+        int i = forwardLength;
+        for (int k = meet; k >= 0; k = forwardParents[k]) {
+            path[--i] = k;
+        }
+        i = forwardLength;
+        for (int k = backwardChildren[meet]; k >= 0; k = backwardChildren[k]) {
+            path[i++] = k;
+        }
+        pathLength = length;
+        return true;
+    }
+
+    /**
+     * Return the number of edges in the path found by the most recent search.  Requires that
+     * search found a path.
+     */
+    public int pathLength() {
+        assert pathLength >= 0;
+        return pathLength;
+    }
+
+    /**
+     * Return the id of the `i`th edge of the path found by the most recent search.  Requires that
+     * search found a path and `0 <= i < pathLength()`.
+     */
+    public int pathEdge(int i) {
+        assert 0 <= i && i < pathLength;
+        return path[i];
+    }
+
+    /**
+     * Return the total weight of the path found by the most recent search, or POSITIVE_INFINITY if
+     * no path was found.
+     */
+    public double distance() {
+        return distance;
+    }
+
+    /**
+     * Return the number of states settled (in either direction) by the most recent search.
+     */
+    public int settledCount() {
+        return settledCount;
+    }
+}
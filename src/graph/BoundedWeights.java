@@ -0,0 +1,18 @@
+package graph;
+
+/**
+ * A graph whose edge weights are all known to lie within fixed bounds.  Searches over such a graph
+ * may choose data structures that rely on those bounds (see `SearchContext`).
+ */
+public interface BoundedWeights {
+
+    /**
+     * Return a lower bound on the weight of every edge in the graph.
+     */
+    double minEdgeWeight();
+
+    /**
+     * Return an upper bound on the weight of every edge in the graph.
+     */
+    double maxEdgeWeight();
+}
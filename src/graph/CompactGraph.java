@@ -0,0 +1,177 @@
+package graph;
+
+/**
+ * An immutable, weighted, directed graph over vertices with dense int ids in `[0..vertexCount())`,
+ * stored in compressed sparse row (CSR) form.  Edges are likewise identified by dense int ids in
+ * `[0..edgeCount())`; the edges leaving vertex `v` are exactly those with ids in
+ * `[firstEdge(v)..endEdge(v))`.  Each edge also carries a small integer `label` (such as a
+ * direction) that is meaningful to the graph's creator.  Searches over this representation run
+ * tight loops over primitive arrays instead of chasing pointers and hashing vertex objects.
+ */
+public final class CompactGraph {
+
+    /**
+     * The edges leaving vertex `v` have ids in `[offsets[v]..offsets[v+1])`.  Has length
+     * `vertexCount() + 1`, with `offsets[0] == 0` and non-decreasing entries.
+     */
+    private final int[] offsets;
+
+    /**
+     * The destination vertex of each edge.
+     */
+    private final int[] targets;
+
+    /**
+     * The source vertex of each edge (derived from `offsets`).
+     */
+    private final int[] sources;
+
+    /**
+     * The weight of each edge.
+     */
+    private final double[] weights;
+
+    /**
+     * The label of each edge.
+     */
+    private final byte[] labels;
+
+    /**
+     * The edges entering vertex `v` are `inEdges[i]` for `i` in `[inOffsets[v]..inOffsets[v+1])`
+     * (derived from `targets`).
+     */
+    private final int[] inOffsets;
+
+    /**
+     * The ids of the edges entering each vertex, grouped by target as described by `inOffsets`.
+     */
+    private final int[] inEdges;
+
+    /**
+     * Construct a graph from CSR arrays as documented on the fields of this class.  This graph takes
+     * ownership of the arrays, so the caller must not modify them afterward.  Requires
+     * `targets`, `weights`, and `labels` have length `offsets[offsets.length - 1]`, and that every
+     * target is a valid vertex id.
+     */
+    public CompactGraph(int[] offsets, int[] targets, double[] weights, byte[] labels) {
+        assert offsets.length > 0 && offsets[0] == 0;
+        int m = offsets[offsets.length - 1];
+        assert targets.length == m && weights.length == m && labels.length == m;
+
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.labels = labels;
+
+        sources = new int[m];
+        for (int v = 0; v + 1 < offsets.length; v++) {
+            assert offsets[v] <= offsets[v + 1];
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                assert 0 <= targets[k] && targets[k] < offsets.length - 1;
+                sources[k] = v;
+            }
+        }
+
+        // Group edge ids by target with a counting sort
+        int n = offsets.length - 1;
+        inOffsets = new int[n + 1];
+        for (int k = 0; k < m; k++) {
+            inOffsets[targets[k] + 1] += 1;
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        inEdges = new int[m];
+        int[] next = new int[n];
+        for (int k = 0; k < m; k++) {
+            int v = targets[k];
+            inEdges[inOffsets[v] + next[v]] = k;
+            next[v] += 1;
+        }
+    }
+
+    /**
+     * Return the number of vertices in this graph.
+     */
+    public int vertexCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Return the number of (directed) edges in this graph.
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Return the id of the first edge leaving vertex `v`.
+     */
+    public int firstEdge(int v) {
+        return offsets[v];
+    }
+
+    /**
+     * Return one more than the id of the last edge leaving vertex `v`.
+     */
+    public int endEdge(int v) {
+        return offsets[v + 1];
+    }
+
+    /**
+     * Return the position in `inEdge()` of the first edge entering vertex `v`.
+     */
+    public int firstInEdge(int v) {
+        return inOffsets[v];
+    }
+
+    /**
+     * Return one more than the position in `inEdge()` of the last edge entering vertex `v`.
+     */
+    public int endInEdge(int v) {
+        return inOffsets[v + 1];
+    }
+
+    /**
+     * Return the id of the edge at position `i` in the grouping of edges by the vertex they enter.
+     * The edges entering vertex `v` are `inEdge(i)` for `i` in `[firstInEdge(v)..endInEdge(v))`.
+     */
+    public int inEdge(int i) {
+        return inEdges[i];
+    }
+
+    /**
+     * Return the number of edges leaving vertex `v`.
+     */
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * Return the vertex that edge `k` leaves from.
+     */
+    public int source(int k) {
+        return sources[k];
+    }
+
+    /**
+     * Return the vertex that edge `k` leads to.
+     */
+    public int target(int k) {
+        return targets[k];
+    }
+
+    /**
+     * Return the weight of edge `k`.
+     */
+    public double weight(int k) {
+        return weights[k];
+    }
+
+    /**
+     * Return the label of edge `k`.
+     */
+    public byte label(int k) {
+        return labels[k];
+    }
+}
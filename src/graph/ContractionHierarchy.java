@@ -0,0 +1,793 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * A contraction hierarchy over the states of a `CompactGraph`, answering shortest non-backtracking
+ * path queries by searches that only ever move "upward" in a precomputed node ordering.
+ * <p>
+ * The hierarchy is built over the graph's turn graph: its nodes are the states of
+ * `DistanceField` (state `k` stands at `graph.target(k)` having traversed edge `k`), and an arc
+ * from state `a` to state `b` (costing `graph.weight(b)`) exists whenever `b` leaves the vertex
+ * that `a` stands on and is not forbidden after `a`.  Because the non-backtracking rule is part of
+ * the turn graph itself, ordinary node contraction preserves it.  Nodes are contracted one at a
+ * time in order of increasing importance (estimated by how many shortcuts contracting them would
+ * add, less the arcs it would remove, plus how many of their neighbors are already contracted and
+ * how deep in the hierarchy they would sit).  Contracting a node adds a shortcut arc between each
+ * pair of its remaining neighbors whose shortest connection ran through it, unless a local
+ * "witness" search finds an alternative.
+ * <p>
+ * Grid-like graphs such as mazes have no small separators, so the last nodes to be contracted
+ * would gain shortcuts to nearly all of one another.  Contraction therefore stops once the next
+ * node has too many arcs, leaving the rest as an uncontracted "core" ranked above all others.  A
+ * query first exhausts the upward search from its targets (which is small, and stops at the core),
+ * then runs an upward search from its sources that continues through the core as an A* search
+ * guided by a caller-supplied lower bound, meeting the target search's states.
+ * <p>
+ * Each shortcut records the two arcs it replaces, so a query's path is unpacked recursively into
+ * the states (edges) that it covers.  A hierarchy is immutable once built; searches are run by
+ * `Query` objects, which own the scratch space.
+ */
+public class ContractionHierarchy {
+
+    /**
+     * The maximum number of nodes settled by one witness search.  Stopping early only costs
+     * redundant shortcuts, never correctness.
+     */
+    private static final int WITNESS_SETTLE_LIMIT = 64;
+
+    /**
+     * The default core degree (see the constructor): contracting nodes of higher degree adds more
+     * shortcuts than it saves search effort on mazes.
+     */
+    public static final int DEFAULT_CORE_DEGREE = 32;
+
+    /**
+     * The graph whose states this hierarchy covers.
+     */
+    private final CompactGraph graph;
+
+    /**
+     * For each state, the one edge that may not be taken next, or null to forbid edges leading
+     * back to the state's previous vertex (the rule used by `DistanceField`).
+     */
+    private final int[] uTurns;
+
+    /**
+     * The position of each state in the contraction order.
+     */
+    private final int[] rank;
+
+    /**
+     * The rank of the lowest state left uncontracted, or the number of states if every state was
+     * contracted.  The states ranked at or above it form the "core".
+     */
+    private final int coreStart;
+
+    /**
+     * The tail and head state, weight, and replaced arcs (or -1 for an arc of the turn graph) of
+     * every arc in the hierarchy, indexed by arc id.
+     */
+    private final int[] arcTails;
+    private final int[] arcHeads;
+    private final double[] arcWeights;
+    private final int[] arcFirsts;
+    private final int[] arcSeconds;
+
+    /**
+     * The arcs leaving state `u` toward higher-ranked states are `upArcs[i]` for `i` in
+     * `[upOffsets[u]..upOffsets[u+1])`.
+     */
+    private final int[] upOffsets;
+    private final int[] upArcs;
+
+    /**
+     * The arcs entering state `u` from higher-ranked states are `downArcs[i]` for `i` in
+     * `[downOffsets[u]..downOffsets[u+1])`.
+     */
+    private final int[] downOffsets;
+    private final int[] downArcs;
+
+    /**
+     * Build a hierarchy over the states of `graph`, where state `a` may be followed by any edge
+     * `b` leaving its vertex except `uTurns[a]` (or, if `uTurns` is null, except edges leading back
+     * to `graph.source(a)`), with the default core degree.
+     */
+    public ContractionHierarchy(CompactGraph graph, int[] uTurns) {
+        this(graph, uTurns, DEFAULT_CORE_DEGREE);
+    }
+
+    /**
+     * Build a hierarchy as above, but stop contracting (leaving all remaining states in the core)
+     * once the next state to contract has more than `coreDegree` arcs.  Requires
+     * `coreDegree >= 0`.
+     */
+    public ContractionHierarchy(CompactGraph graph, int[] uTurns, int coreDegree) {
+        assert uTurns == null || uTurns.length == graph.edgeCount();
+        assert coreDegree >= 0;
+        this.graph = graph;
+        this.uTurns = uTurns;
+        int n = graph.edgeCount();
+
+        Contractor contractor = new Contractor(n, coreDegree);
+        for (int a = 0; a < n; a++) {
+            int v = graph.target(a);
+            for (int b = graph.firstEdge(v); b < graph.endEdge(v); b++) {
+                if (allowed(a, b)) {
+                    contractor.addArc(a, b, graph.weight(b), -1, -1);
+                }
+            }
+        }
+        rank = contractor.contractAll();
+
+        coreStart = contractor.coreStart;
+        int m = contractor.arcCount;
+        arcTails = Arrays.copyOf(contractor.tails, m);
+        arcHeads = Arrays.copyOf(contractor.heads, m);
+        arcWeights = Arrays.copyOf(contractor.weights, m);
+        arcFirsts = Arrays.copyOf(contractor.firsts, m);
+        arcSeconds = Arrays.copyOf(contractor.seconds, m);
+
+        // Group arcs into upward (by tail) and downward (by head) adjacency with counting sorts
+        upOffsets = new int[n + 1];
+        downOffsets = new int[n + 1];
+        for (int k = 0; k < m; k++) {
+            if (upward(k)) {
+                upOffsets[arcTails[k] + 1] += 1;
+            } else {
+                downOffsets[arcHeads[k] + 1] += 1;
+            }
+        }
+        for (int u = 0; u < n; u++) {
+            upOffsets[u + 1] += upOffsets[u];
+            downOffsets[u + 1] += downOffsets[u];
+        }
+        upArcs = new int[upOffsets[n]];
+        downArcs = new int[downOffsets[n]];
+        int[] upNext = Arrays.copyOf(upOffsets, n);
+        int[] downNext = Arrays.copyOf(downOffsets, n);
+        for (int k = 0; k < m; k++) {
+            if (upward(k)) {
+                upArcs[upNext[arcTails[k]]++] = k;
+            } else {
+                downArcs[downNext[arcHeads[k]]++] = k;
+            }
+        }
+    }
+
+    /**
+     * Return whether arc `k` is searched forward from its tail (it leads to a higher-ranked state,
+     * or joins two core states) rather than backward from its head.
+     */
+    private boolean upward(int k) {
+        int tailRank = rank[arcTails[k]];
+        int headRank = rank[arcHeads[k]];
+        return headRank > tailRank || headRank >= coreStart;
+    }
+
+    /**
+     * Return whether edge `b` may be taken from state `a`.  Requires `b` leaves
+     * `graph.target(a)`.
+     */
+    private boolean allowed(int a, int b) {
+        return (uTurns == null) ? graph.target(b) != graph.source(a) : b != uTurns[a];
+    }
+
+    /**
+     * Return the graph whose states this hierarchy covers.
+     */
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Return the number of arcs in this hierarchy (turn-graph arcs plus shortcuts).
+     */
+    public int arcCount() {
+        return arcHeads.length;
+    }
+
+    /**
+     * Scratch space for, and the result of, queries against this hierarchy.  Any number of queries
+     * may share one hierarchy (even concurrently), but each query object may be used by only one
+     * search at a time.
+     */
+    public class Query {
+
+        /**
+         * The best known distance of each state from the sources (forward) or to the targets
+         * (backward), and the arc by which it was reached (or -1 for a source or target), valid
+         * where the corresponding stamp equals `epoch`.
+         */
+        private final double[] forwardDistances;
+        private final int[] forwardArcs;
+        private final int[] forwardStamps;
+        private final double[] backwardDistances;
+        private final int[] backwardArcs;
+        private final int[] backwardStamps;
+        private final IntMinPQueue forwardFrontier;
+        private final IntMinPQueue backwardFrontier;
+        private int epoch;
+
+        /**
+         * Scratch space for collecting the forward half of a path and for unpacking shortcuts.
+         */
+        private int[] forwardChain;
+        private int[] unpackStack;
+
+        /**
+         * The states of the path found by the most recent query, in `[0..pathLength)`.
+         */
+        private int[] path;
+
+        /**
+         * The number of states in `path`, or -1 if the most recent query found no path.
+         */
+        private int pathLength;
+
+        /**
+         * The length of the path found by the most recent query.
+         */
+        private double distance;
+
+        /**
+         * The number of states settled (in either direction) during the most recent query.
+         */
+        private int settledCount;
+
+        /**
+         * Create a query object for this hierarchy.
+         */
+        public Query() {
+            int n = graph.edgeCount();
+            forwardDistances = new double[n];
+            forwardArcs = new int[n];
+            forwardStamps = new int[n];
+            backwardDistances = new double[n];
+            backwardArcs = new int[n];
+            backwardStamps = new int[n];
+            forwardFrontier = new IntMinPQueue(n);
+            backwardFrontier = new IntMinPQueue(n);
+            forwardChain = new int[16];
+            unpackStack = new int[16];
+            path = new int[16];
+            pathLength = -1;
+        }
+
+        /**
+         * Search for a shortest non-backtracking path from vertex `src` to vertex `dst`, where
+         * `incoming` is the id of the edge just traversed to reach `src` (or -1 if there is none,
+         * in which case any edge may be taken first).  Returns whether a path was found; if so, its
+         * edges are the states reported by `pathLength()` and `pathState()`.  Requires
+         * `incoming < 0` or `graph.target(incoming) == src`.
+         */
+        public boolean search(int src, int incoming, int dst) {
+            assert incoming < 0 || graph.target(incoming) == src;
+            if (src == dst) {
+                pathLength = 0;
+                distance = 0;
+                settledCount = 0;
+                return true;
+            }
+            int[] sources = new int[graph.degree(src)];
+            double[] sourceDistances = new double[sources.length];
+            int sourceCount = 0;
+            for (int b = graph.firstEdge(src); b < graph.endEdge(src); b++) {
+                if (incoming < 0 || allowed(incoming, b)) {
+                    sources[sourceCount] = b;
+                    sourceDistances[sourceCount] = graph.weight(b);
+                    sourceCount += 1;
+                }
+            }
+            int[] targets = new int[graph.endInEdge(dst) - graph.firstInEdge(dst)];
+            for (int i = 0; i < targets.length; i++) {
+                targets[i] = graph.inEdge(graph.firstInEdge(dst) + i);
+            }
+            return search(sources, sourceDistances, sourceCount, targets,
+                    new double[targets.length], targets.length, u -> 0);
+        }
+
+        /**
+         * Search for a shortest path that starts at one of the first `sourceCount` states of
+         * `sources`, having already covered the corresponding distance in `sourceDistances`, and
+         * ends at one of the first `targetCount` states of `targets`, plus the corresponding
+         * distance in `targetDistances`.  Returns whether a path was found; if so, it may be read
+         * with `pathLength()`, `pathState()`, and `distance()`, and its first and last states
+         * identify the source and target it uses.  `potential` gives a lower bound on the distance
+         * still to cover after reaching each state (0 is always valid), which must be consistent:
+         * no greater across any turn-graph arc than that arc's weight plus its bound at the head.
+         * Requires all distances are non-negative.
+         */
+        public boolean search(int[] sources, double[] sourceDistances, int sourceCount,
+                int[] targets, double[] targetDistances, int targetCount,
+                IntToDoubleFunction potential) {
+            epoch += 1;
+            if (epoch == 0) {
+                Arrays.fill(forwardStamps, 0);
+                Arrays.fill(backwardStamps, 0);
+                epoch = 1;
+            }
+            forwardFrontier.clear();
+            backwardFrontier.clear();
+            settledCount = 0;
+            pathLength = -1;
+            distance = Double.POSITIVE_INFINITY;
+
+            int meet = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < sourceCount; i++) {
+                int s = sources[i];
+                if (sourceDistances[i] < forward(s)) {
+                    forwardStamps[s] = epoch;
+                    forwardDistances[s] = sourceDistances[i];
+                    forwardArcs[s] = -1;
+                    forwardFrontier.addOrUpdate(s,
+                            sourceDistances[i] + potential.applyAsDouble(s));
+                }
+            }
+            for (int i = 0; i < targetCount; i++) {
+                int t = targets[i];
+                if (targetDistances[i] < backward(t)) {
+                    backwardStamps[t] = epoch;
+                    backwardDistances[t] = targetDistances[i];
+                    backwardArcs[t] = -1;
+                    backwardFrontier.addOrUpdate(t, targetDistances[i]);
+                }
+            }
+            // The downward half of every path is found by exhausting the upward search from the
+            // targets, which never enters the core
+            while (!backwardFrontier.isEmpty()) {
+                int x = backwardFrontier.remove();
+                settledCount += 1;
+                double d = backwardDistances[x];
+                for (int i = downOffsets[x]; i < downOffsets[x + 1]; i++) {
+                    int k = downArcs[i];
+                    int u = arcTails[k];
+                    double newDist = d + arcWeights[k];
+                    if (newDist < backward(u)) {
+                        backwardStamps[u] = epoch;
+                        backwardDistances[u] = newDist;
+                        backwardArcs[u] = k;
+                        backwardFrontier.addOrUpdate(u, newDist);
+                    }
+                }
+            }
+            for (int i = 0; i < sourceCount; i++) {
+                int s = sources[i];
+                if (forward(s) + backward(s) < best) {
+                    best = forward(s) + backward(s);
+                    meet = s;
+                }
+            }
+
+            // The forward search climbs, then crosses the core guided by `potential`, and may stop
+            // once no state left can lead to a meeting better than the best found
+            while (!forwardFrontier.isEmpty() && forwardFrontier.minPriority() < best) {
+                int u = forwardFrontier.remove();
+                settledCount += 1;
+                double d = forwardDistances[u];
+                for (int i = upOffsets[u]; i < upOffsets[u + 1]; i++) {
+                    int k = upArcs[i];
+                    int x = arcHeads[k];
+                    double newDist = d + arcWeights[k];
+                    if (newDist < forward(x)) {
+                        forwardStamps[x] = epoch;
+                        forwardDistances[x] = newDist;
+                        forwardArcs[x] = k;
+                        forwardFrontier.addOrUpdate(x, newDist + potential.applyAsDouble(x));
+                        if (newDist + backward(x) < best) {
+                            best = newDist + backward(x);
+                            meet = x;
+                        }
+                    }
+                }
+            }
+
+            if (meet < 0) {
+                return false;
+            }
+            distance = best;
+
+            // Walk back to the source, then unpack the forward arcs (in order) and backward arcs
+            int source = meet;
+            int forwardArcCount = 0;
+            while (forwardArcs[source] >= 0) {
+                source = arcTails[forwardArcs[source]];
+                forwardArcCount += 1;
+            }
+            if (forwardChain.length < forwardArcCount) {
+                forwardChain = new int[Math.max(forwardArcCount, 2 * forwardChain.length)];
+            }
+            for (int u = meet, i = forwardArcCount; i > 0; u = arcTails[forwardArcs[u]]) {
+                forwardChain[--i] = forwardArcs[u];
+            }
+            pathLength = 0;
+            append(source);
+            for (int i = 0; i < forwardArcCount; i++) {
+                unpack(forwardChain[i]);
+            }
+            for (int u = meet; backwardArcs[u] >= 0; u = arcHeads[backwardArcs[u]]) {
+                unpack(backwardArcs[u]);
+            }
+            return true;
+        }
+
+        /**
+         * Return the best known forward distance of state `u` in the current query.
+         */
+        private double forward(int u) {
+            return (forwardStamps[u] == epoch) ? forwardDistances[u] : Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Return the best known backward distance of state `u` in the current query.
+         */
+        private double backward(int u) {
+            return (backwardStamps[u] == epoch) ? backwardDistances[u] : Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Append state `u` to `path`.
+         */
+        private void append(int u) {
+            if (pathLength == path.length) {
+                path = Arrays.copyOf(path, 2 * pathLength);
+            }
+            path[pathLength++] = u;
+        }
+
+        /**
+         * Append the states reached by the turn-graph arcs that arc `k` stands for, in order.
+         */
+        private void unpack(int k) {
+            int top = 0;
+            unpackStack[top++] = k;
+            while (top > 0) {
+                int a = unpackStack[--top];
+                if (arcFirsts[a] < 0) {
+                    append(arcHeads[a]);
+                } else {
+                    if (top + 2 > unpackStack.length) {
+                        unpackStack = Arrays.copyOf(unpackStack, 2 * unpackStack.length);
+                    }
+                    unpackStack[top++] = arcSeconds[a];
+                    unpackStack[top++] = arcFirsts[a];
+                }
+            }
+        }
+
+        /**
+         * Return the number of states in the path found by the most recent query (for a query
+         * between vertices, the number of edges).  Requires that query found a path.
+         */
+        public int pathLength() {
+            assert pathLength >= 0;
+            return pathLength;
+        }
+
+        /**
+         * Return the `i`th state of the path found by the most recent query.  Requires that query
+         * found a path and `0 <= i < pathLength()`.
+         */
+        public int pathState(int i) {
+            assert 0 <= i && i < pathLength;
+            return path[i];
+        }
+
+        /**
+         * Return the total length of the path found by the most recent query, or POSITIVE_INFINITY
+         * if no path was found.
+         */
+        public double distance() {
+            return distance;
+        }
+
+        /**
+         * Return the number of states settled (in either direction) by the most recent query.
+         */
+        public int settledCount() {
+            return settledCount;
+        }
+    }
+
+    /**
+     * The mutable graph used while contracting nodes: a growable pool of arcs, each node's lists
+     * of incident arcs, and scratch space for witness searches.
+     */
+    private static class Contractor {
+
+        /**
+         * The number of nodes.
+         */
+        private final int n;
+
+        /**
+         * The largest number of arcs a node may have and still be contracted.
+         */
+        private final int coreDegree;
+
+        /**
+         * The tail, head, weight, and replaced arcs of each arc, in `[0..arcCount)`.
+         */
+        int[] tails = new int[16];
+        int[] heads = new int[16];
+        double[] weights = new double[16];
+        int[] firsts = new int[16];
+        int[] seconds = new int[16];
+        int arcCount;
+
+        /**
+         * The rank of the lowest node left uncontracted in the core (or `n` if none is).
+         */
+        int coreStart;
+
+        /**
+         * The ids of the arcs leaving and entering each node, in `[0..outCounts[u])` and
+         * `[0..inCounts[u])`.
+         */
+        private final int[][] outs;
+        private final int[] outCounts;
+        private final int[][] ins;
+        private final int[] inCounts;
+
+        /**
+         * Whether each node has been contracted, how many of its neighbors have been, and one more
+         * than the greatest level of those neighbors (so that contracted nodes form levels).
+         */
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+        private final int[] levels;
+
+        /**
+         * Witness-search scratch space: distances valid where `stamps[u] == epoch`.
+         */
+        private final double[] distances;
+        private final int[] stamps;
+        private int epoch;
+        private final IntMinPQueue frontier;
+
+        Contractor(int n, int coreDegree) {
+            this.n = n;
+            this.coreDegree = coreDegree;
+            outs = new int[n][];
+            ins = new int[n][];
+            outCounts = new int[n];
+            inCounts = new int[n];
+            contracted = new boolean[n];
+            contractedNeighbors = new int[n];
+            levels = new int[n];
+            distances = new double[n];
+            stamps = new int[n];
+            frontier = new IntMinPQueue(n);
+            coreStart = n;
+        }
+
+        /**
+         * Add an arc from `u` to `x` of weight `w` replacing arcs `first` and `second` (or -1).
+         */
+        void addArc(int u, int x, double w, int first, int second) {
+            if (arcCount == heads.length) {
+                int capacity = 2 * arcCount;
+                tails = Arrays.copyOf(tails, capacity);
+                heads = Arrays.copyOf(heads, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                firsts = Arrays.copyOf(firsts, capacity);
+                seconds = Arrays.copyOf(seconds, capacity);
+            }
+            int k = arcCount++;
+            tails[k] = u;
+            heads[k] = x;
+            weights[k] = w;
+            firsts[k] = first;
+            seconds[k] = second;
+            outs[u] = push(outs[u], outCounts[u]++, k);
+            ins[x] = push(ins[x], inCounts[x]++, k);
+        }
+
+        /**
+         * Return `list` (growing it if necessary) after storing `k` at index `i`.
+         */
+        private static int[] push(int[] list, int i, int k) {
+            if (list == null) {
+                list = new int[4];
+            } else if (i == list.length) {
+                list = Arrays.copyOf(list, 2 * i);
+            }
+            list[i] = k;
+            return list;
+        }
+
+        /**
+         * Add a shortcut from `u` to `x` of weight `w` through arcs `first` and `second`, or lower
+         * the weight of an existing arc from `u` to `x` if it is heavier.
+         */
+        private void addShortcut(int u, int x, double w, int first, int second) {
+            for (int i = 0; i < outCounts[u]; i++) {
+                int k = outs[u][i];
+                if (heads[k] == x) {
+                    if (w < weights[k]) {
+                        weights[k] = w;
+                        firsts[k] = first;
+                        seconds[k] = second;
+                    }
+                    return;
+                }
+            }
+            addArc(u, x, w, first, second);
+        }
+
+        /**
+         * Contract node `v`, adding any necessary shortcuts between its uncontracted neighbors, or
+         * (if `simulate`) only count them.  Returns the number of shortcuts needed.
+         */
+        private int contract(int v, boolean simulate) {
+            int shortcuts = 0;
+            for (int i = 0; i < inCounts[v]; i++) {
+                int in = ins[v][i];
+                int u = tails[in];
+                if (contracted[u] || u == v) {
+                    continue;
+                }
+                double maxOut = 0;
+                for (int j = 0; j < outCounts[v]; j++) {
+                    int x = heads[outs[v][j]];
+                    if (!contracted[x] && x != u && x != v) {
+                        maxOut = Math.max(maxOut, weights[outs[v][j]]);
+                    }
+                }
+                if (maxOut == 0) {
+                    continue;
+                }
+                witnessSearch(u, v, weights[in] + maxOut);
+                for (int j = 0; j < outCounts[v]; j++) {
+                    int out = outs[v][j];
+                    int x = heads[out];
+                    if (contracted[x] || x == u || x == v) {
+                        continue;
+                    }
+                    double via = weights[in] + weights[out];
+                    if (stamps[x] == epoch && distances[x] <= via) {
+                        continue;  // a witness path avoids `v`
+                    }
+                    shortcuts += 1;
+                    if (!simulate) {
+                        addShortcut(u, x, via, in, out);
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        /**
+         * Compute distances from `u` to nearby uncontracted nodes without passing through `v`,
+         * settling nodes no farther than `limit` and at most `WITNESS_SETTLE_LIMIT` of them.
+         */
+        private void witnessSearch(int u, int v, double limit) {
+            epoch += 1;
+            if (epoch == 0) {
+                Arrays.fill(stamps, 0);
+                epoch = 1;
+            }
+            frontier.clear();
+            stamps[u] = epoch;
+            distances[u] = 0;
+            frontier.addOrUpdate(u, 0);
+            int settled = 0;
+            while (!frontier.isEmpty() && frontier.minPriority() <= limit
+                    && settled < WITNESS_SETTLE_LIMIT) {
+                int y = frontier.remove();
+                settled += 1;
+                double d = distances[y];
+                for (int i = 0; i < outCounts[y]; i++) {
+                    int k = outs[y][i];
+                    int z = heads[k];
+                    if (contracted[z] || z == v) {
+                        continue;
+                    }
+                    double newDist = d + weights[k];
+                    if (stamps[z] != epoch || newDist < distances[z]) {
+                        stamps[z] = epoch;
+                        distances[z] = newDist;
+                        frontier.addOrUpdate(z, newDist);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Return the contraction priority of node `v`: lower values are contracted first.
+         */
+        private double priority(int v) {
+            int removed = 0;
+            for (int i = 0; i < inCounts[v]; i++) {
+                removed += contracted[tails[ins[v][i]]] ? 0 : 1;
+            }
+            for (int i = 0; i < outCounts[v]; i++) {
+                removed += contracted[heads[outs[v][i]]] ? 0 : 1;
+            }
+            return 2 * (contract(v, true) - removed) + contractedNeighbors[v] + levels[v];
+        }
+
+        /**
+         * Contract every node, lazily re-evaluating priorities, and return each node's position
+         * in the contraction order.
+         */
+        int[] contractAll() {
+            int[] rank = new int[n];
+            IntMinPQueue order = new IntMinPQueue(n);
+            for (int v = 0; v < n; v++) {
+                order.addOrUpdate(v, priority(v));
+            }
+            int next = 0;
+            while (!order.isEmpty()) {
+                int v = order.remove();
+                if (inCounts[v] + outCounts[v] > coreDegree) {
+                    // Every remaining node joins the core, uncontracted, above all others
+                    coreStart = next;
+                    rank[v] = next++;
+                    while (!order.isEmpty()) {
+                        rank[order.remove()] = next++;
+                    }
+                    break;
+                }
+                double p = priority(v);
+                if (!order.isEmpty() && p > order.minPriority()) {
+                    order.addOrUpdate(v, p);
+                    continue;
+                }
+                contract(v, false);
+                contracted[v] = true;
+                rank[v] = next++;
+                detach(v);
+                for (int i = 0; i < outCounts[v]; i++) {
+                    neighborContracted(v, heads[outs[v][i]]);
+                }
+                for (int i = 0; i < inCounts[v]; i++) {
+                    neighborContracted(v, tails[ins[v][i]]);
+                }
+            }
+            return rank;
+        }
+
+        /**
+         * Remove the arcs between contracted node `v` and its neighbors from the neighbors' lists
+         * (they remain in `v`'s own lists and in the arc pool).
+         */
+        private void detach(int v) {
+            for (int i = 0; i < outCounts[v]; i++) {
+                int x = heads[outs[v][i]];
+                inCounts[x] = removeTail(ins[x], inCounts[x], v, tails);
+            }
+            for (int i = 0; i < inCounts[v]; i++) {
+                int u = tails[ins[v][i]];
+                outCounts[u] = removeTail(outs[u], outCounts[u], v, heads);
+            }
+        }
+
+        /**
+         * Remove from the first `count` arcs of `list` those whose endpoint in `ends` is `v`, and
+         * return the number remaining.
+         */
+        private static int removeTail(int[] list, int count, int v, int[] ends) {
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (ends[list[i]] != v) {
+                    list[kept++] = list[i];
+                }
+            }
+            return kept;
+        }
+
+        /**
+         * Record that node `v`, a neighbor of node `w`, was contracted.  `w`'s priority is only
+         * re-evaluated when it reaches the front of the contraction order.
+         */
+        private void neighborContracted(int v, int w) {
+            if (!contracted[w]) {
+                contractedNeighbors[w] += 1;
+                levels[w] = Math.max(levels[w], levels[v] + 1);
+            }
+        }
+    }
+}
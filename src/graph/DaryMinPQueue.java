@@ -0,0 +1,210 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A min priority queue of distinct elements of type `KeyType` associated with (extrinsic) double
+ * priorities, implemented using a d-ary heap paired with a hash table.  Compared with the binary
+ * heap of `MinPQueue`, a wider heap is shallower, so adding an element or decreasing its priority
+ * (the common operations of a search) does fewer swaps, while removing the minimum compares more
+ * children per level.  Entries are stored in parallel arrays rather than as objects.
+ */
+public class DaryMinPQueue<KeyType> implements Frontier<KeyType> {
+
+    /**
+     * The arity used by the default constructor.
+     */
+    public static final int DEFAULT_ARITY = 4;
+
+    /**
+     * The number of children of each node of the heap.
+     */
+    private final int arity;
+
+    /**
+     * The elements and priorities of a d-ary min-heap; only indices in `[0..size)` are
+     * meaningful.  Satisfies `priorities[i] >= priorities[(i-1)/arity]` for all `i` in
+     * `[1..size)`.  The elements of `keys` have type `KeyType`.
+     */
+    private Object[] keys;
+    private double[] priorities;
+
+    /**
+     * The number of elements in this queue.
+     */
+    private int size;
+
+    /**
+     * Associates each element in the queue with its index in the heap.  Satisfies
+     * `keys[index.get(e)].equals(e)` if `e` is an element in the queue.  Only maps elements that
+     * are in the queue (`index.size() == size`).
+     */
+    private final Map<KeyType, Integer> index;
+
+    /**
+     * Return whether the class invariants hold.  Intended to be called as `assert inv()`, since
+     * checking takes time linear in the size of this queue.
+     */
+    private boolean inv() {
+        assert index.size() == size;
+        for (int i = 0; i < size; i++) {
+            assert i < 1 || priorities[i] >= priorities[(i - 1) / arity];
+            assert index.get(keys[i]) == i;
+        }
+        return true;
+    }
+
+    /**
+     * Create an empty queue backed by a heap of arity `DEFAULT_ARITY`.
+     */
+    public DaryMinPQueue() {
+        this(DEFAULT_ARITY);
+    }
+
+    /**
+     * Create an empty queue backed by a heap in which each node has `arity` children.  Requires
+     * `arity >= 2`.
+     */
+    public DaryMinPQueue(int arity) {
+        assert arity >= 2;
+        this.arity = arity;
+        keys = new Object[16];
+        priorities = new double[16];
+        index = new HashMap<>();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public KeyType peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return key(0);
+    }
+
+    @Override
+    public double minPriority() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return priorities[0];
+    }
+
+    @Override
+    public void addOrUpdate(KeyType key, double priority) {
+        Integer i = index.get(key);
+        if (i == null) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * size);
+                priorities = Arrays.copyOf(priorities, 2 * size);
+            }
+            keys[size] = key;
+            priorities[size] = priority;
+            size += 1;
+            bubbleUp(size - 1);
+        } else if (priority < priorities[i]) {
+            priorities[i] = priority;
+            bubbleUp(i);
+        } else {
+            priorities[i] = priority;
+            bubbleDown(i);
+        }
+        assert inv();
+    }
+
+    @Override
+    public KeyType remove() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        KeyType returnValue = key(0);
+        index.remove(returnValue);
+        size -= 1;
+        if (size > 0) {
+            move(size, 0);
+            bubbleDown(0);
+        }
+        keys[size] = null;  // don't retain removed elements
+        assert inv();
+        return returnValue;
+    }
+
+    /**
+     * Return the element at index `i` of the heap.
+     */
+    @SuppressWarnings("unchecked")
+    private KeyType key(int i) {
+        return (KeyType) keys[i];
+    }
+
+    /**
+     * Copy the entry at index `from` of the heap to index `to`, updating `index` accordingly.
+     */
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        priorities[to] = priorities[from];
+        index.put(key(to), to);
+    }
+
+    /**
+     * Move the entry at index `k` up the heap until its parent's priority is no greater.  Rather
+     * than swapping at each level, parents are shifted down and the entry is written once.
+     */
+    private void bubbleUp(int k) {
+        Object key = keys[k];
+        double priority = priorities[k];
+        while (k > 0) {
+            int parent = (k - 1) / arity;
+            if (priorities[parent] <= priority) {
+                break;
+            }
+            move(parent, k);
+            k = parent;
+        }
+        keys[k] = key;
+        priorities[k] = priority;
+        index.put(key(k), k);
+    }
+
+    /**
+     * Move the entry at index `k` down the heap until none of its children has a smaller priority,
+     * shifting smaller children up in the same way as `bubbleUp()`.
+     */
+    private void bubbleDown(int k) {
+        Object key = keys[k];
+        double priority = priorities[k];
+        while (true) {
+            int first = arity * k + 1;
+            if (first >= size) {
+                break;
+            }
+            int cMin = first;  // Index of smallest child
+            int end = Math.min(first + arity, size);
+            for (int c = first + 1; c < end; c++) {
+                if (priorities[c] < priorities[cMin]) {
+                    cMin = c;
+                }
+            }
+            if (priority <= priorities[cMin]) {
+                break;
+            }
+            move(cMin, k);
+            k = cMin;
+        }
+        keys[k] = key;
+        priorities[k] = priority;
+        index.put(key(k), k);
+    }
+}
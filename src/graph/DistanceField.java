@@ -0,0 +1,168 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * The exact shortest non-backtracking distances from every state of a `CompactGraph` to a single
+ * target vertex.  A "state" pairs a vertex with the edge that was just traversed to reach it,
+ * which is exactly the information that the non-backtracking rule depends on, so states are
+ * identified by edge ids: state `k` stands at `graph.target(k)` having arrived from
+ * `graph.source(k)`.  A field is computed by one reverse Dijkstra search from the target over the
+ * state graph; afterward, the first edge of a shortest path from any state is found by inspecting
+ * the edges leaving its vertex ("gradient descent"), without further searching.  A field may be
+ * recomputed in place for a different target, reusing its storage.
+ */
+public class DistanceField {
+
+    /**
+     * The graph whose states this field covers.
+     */
+    private final CompactGraph graph;
+
+    /**
+     * The shortest non-backtracking distance from each state (edge id) to `target`, or
+     * POSITIVE_INFINITY if the target cannot be reached from that state.
+     */
+    private final double[] toTarget;
+
+    /**
+     * The frontier of the reverse search, reused across computations.
+     */
+    private final IntMinPQueue frontier;
+
+    /**
+     * The vertex that distances are measured to, or -1 if no field has been computed yet.
+     */
+    private int target;
+
+    /**
+     * Create a field over the states of `graph` with storage for its edges.  No distances are
+     * available until `compute()` is called.
+     */
+    public DistanceField(CompactGraph graph) {
+        this.graph = graph;
+        toTarget = new double[graph.edgeCount()];
+        frontier = new IntMinPQueue(graph.edgeCount());
+        target = -1;
+    }
+
+    /**
+     * Return the graph whose states this field covers.
+     */
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Return the vertex that this field's distances are measured to, or -1 if no field has been
+     * computed.
+     */
+    public int target() {
+        return target;
+    }
+
+    /**
+     * Compute the distance from every state to vertex `target`, replacing any previously computed
+     * field.  Takes time `O(E log E)` for a graph with `E` edges.
+     */
+    public void compute(int target) {
+        this.target = target;
+        Arrays.fill(toTarget, Double.POSITIVE_INFINITY);
+        frontier.clear();
+
+        // Every state standing on the target has arrived
+        for (int i = graph.firstInEdge(target); i < graph.endInEdge(target); i++) {
+            int k = graph.inEdge(i);
+            toTarget[k] = 0;
+            frontier.addOrUpdate(k, 0);
+        }
+
+        while (!frontier.isEmpty()) {
+            int b = frontier.remove();
+            // Transitioning into state `b` (traversing edge `x -> y`) costs the weight of `b` and
+            // is possible from any state standing on `x` that did not arrive from `y`.
+            int x = graph.source(b);
+            int y = graph.target(b);
+            double distance = graph.weight(b) + toTarget[b];
+            for (int i = graph.firstInEdge(x); i < graph.endInEdge(x); i++) {
+                int a = graph.inEdge(i);
+                if (graph.source(a) != y && graph.target(a) != target
+                        && distance < toTarget[a]) {
+                    toTarget[a] = distance;
+                    frontier.addOrUpdate(a, distance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the shortest non-backtracking distance from the state that arrived via edge `k` to
+     * this field's target, or POSITIVE_INFINITY if there is no such path.  Requires a field has
+     * been computed.
+     */
+    public double distanceFromState(int k) {
+        assert target >= 0;
+        return toTarget[k];
+    }
+
+    /**
+     * Return the id of the first edge on a shortest non-backtracking path from vertex `v` to this
+     * field's target, where `incoming` is the id of the edge just traversed to reach `v` (or -1 if
+     * there is no such edge, in which case any edge may be taken first).  Returns -1 if `v` is the
+     * target or if the target cannot be reached.  Ties are broken in favor of smaller edge ids.
+     * Requires a field has been computed and, if `incoming >= 0`, `graph.target(incoming) == v`.
+     */
+    public int nextEdge(int v, int incoming) {
+        assert target >= 0;
+        assert incoming < 0 || graph.target(incoming) == v;
+        if (v == target) {
+            return -1;
+        }
+        int back = (incoming < 0) ? -1 : graph.source(incoming);
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int b = graph.firstEdge(v); b < graph.endEdge(v); b++) {
+            double d = graph.weight(b) + toTarget[b];
+            if (graph.target(b) != back && d < bestDistance) {
+                best = b;
+                bestDistance = d;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Return how much longer the shortest non-backtracking path from vertex `v` to this field's
+     * target is when it may not begin with `nextEdge(v, incoming)`, where `incoming` is as
+     * documented for `nextEdge()`.  Returns POSITIVE_INFINITY if `nextEdge()` returns -1 or no
+     * other edge leads to the target.  A search that sums distances in a different order may begin
+     * with a different edge than `nextEdge()` when the margin is within rounding error.
+     */
+    public double margin(int v, int incoming) {
+        int best = nextEdge(v, incoming);
+        if (best < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int back = (incoming < 0) ? -1 : graph.source(incoming);
+        double runnerUp = Double.POSITIVE_INFINITY;
+        for (int b = graph.firstEdge(v); b < graph.endEdge(v); b++) {
+            if (b != best && graph.target(b) != back) {
+                runnerUp = Math.min(runnerUp, graph.weight(b) + toTarget[b]);
+            }
+        }
+        return runnerUp - (graph.weight(best) + toTarget[best]);
+    }
+
+    /**
+     * Return the shortest non-backtracking distance from vertex `v` to this field's target, where
+     * `incoming` is as documented for `nextEdge()`.  Returns POSITIVE_INFINITY if there is no such
+     * path.
+     */
+    public double distance(int v, int incoming) {
+        if (v == target) {
+            return 0;
+        }
+        int b = nextEdge(v, incoming);
+        return (b < 0) ? Double.POSITIVE_INFINITY : graph.weight(b) + toTarget[b];
+    }
+}
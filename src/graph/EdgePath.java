@@ -0,0 +1,78 @@
+package graph;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A reusable, array-backed list of edges of type `E` forming a path.  Searches overwrite a path's
+ * contents in place, so once its backing array has grown to fit the longest path seen, refilling
+ * it allocates nothing.  Clients may read a path through the `List` interface, but only the
+ * searches in this package modify it.
+ */
+public class EdgePath<E> extends AbstractList<E> implements RandomAccess {
+
+    /**
+     * The edges of this path in `[0..size)`, followed by unused capacity.
+     */
+    private Object[] edges;
+
+    /**
+     * The number of edges in this path.
+     */
+    private int size;
+
+    /**
+     * Create an empty path.
+     */
+    public EdgePath() {
+        edges = new Object[16];
+        size = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return (E) edges[i];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove all edges from this path, retaining its capacity.  (Clients cannot `clear()` a
+     * nonempty path, since only searches modify it.)
+     */
+    void reset() {
+        Arrays.fill(edges, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Append `edge` to the end of this path.
+     */
+    void append(E edge) {
+        if (size == edges.length) {
+            edges = Arrays.copyOf(edges, 2 * size);
+        }
+        edges[size] = edge;
+        size += 1;
+    }
+
+    /**
+     * Reverse the order of the edges in this path.  Searches reconstruct paths by following
+     * back-pointers from the destination, then reverse them.
+     */
+    void reverse() {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            Object tmp = edges[i];
+            edges[i] = edges[j];
+            edges[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package graph;
+
+/**
+ * The frontier of a search over vertices (or other elements) of type `KeyType`: a min priority
+ * queue of distinct elements associated with (extrinsic) double priorities.  Implementations
+ * trade off the costs of adding, updating, and removing elements differently (see `MinPQueue`,
+ * `DaryMinPQueue`, `PairingMinPQueue`, and `LazyMinPQueue`); `FrontierBenchmark` compares them on
+ * maze searches.  For searches over vertices with dense int ids, see `IntFrontier`.
+ */
+public interface Frontier<KeyType> {
+
+    /**
+     * Return whether this frontier contains no elements.
+     */
+    boolean isEmpty();
+
+    /**
+     * Return the number of elements contained in this frontier.
+     */
+    int size();
+
+    /**
+     * Return an element associated with the smallest priority in this frontier.  This is the same
+     * element that would be removed by a call to `remove()` (assuming no mutations in between).
+     * Throws NoSuchElementException if this frontier is empty.
+     */
+    KeyType peek();
+
+    /**
+     * Return the minimum priority associated with an element in this frontier.  Throws
+     * NoSuchElementException if this frontier is empty.
+     */
+    double minPriority();
+
+    /**
+     * If `key` is already contained in this frontier, change its associated priority to
+     * `priority`.  Otherwise, add it to this frontier with that priority.
+     */
+    void addOrUpdate(KeyType key, double priority);
+
+    /**
+     * Remove and return the element associated with the smallest priority in this frontier.  If
+     * multiple elements are tied for the smallest priority, an arbitrary one will be removed.
+     * Throws NoSuchElementException if this frontier is empty.
+     */
+    KeyType remove();
+}
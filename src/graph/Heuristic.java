@@ -0,0 +1,17 @@
+package graph;
+
+/**
+ * Estimates the distance from a vertex of type `VertexType` to a destination vertex, for use in
+ * goal-directed (A*) searches.
+ */
+@FunctionalInterface
+public interface Heuristic<VertexType> {
+
+    /**
+     * Return a lower bound on the distance of the shortest path from `v` to `dst`.  To guarantee
+     * that searches settle each vertex at most once, implementations must be consistent: for
+     * every edge `e` leaving `v`, `estimate(v, dst) <= e.weight() + estimate(e.dst(), dst)`, and
+     * `estimate(dst, dst) == 0`.
+     */
+    double estimate(VertexType v, VertexType dst);
+}
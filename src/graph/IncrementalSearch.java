@@ -0,0 +1,524 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Finds shortest non-backtracking paths in a `CompactGraph` between a moving start and a moving
+ * goal, repairing the previous search's results instead of starting over (the D* Lite algorithm of
+ * Koenig and Likhachev, which is LPA* searching backward from the goal).  Each call to `search()`
+ * only re-examines the states whose distance to the goal could have changed since the previous
+ * call, so a traveler that advances one edge at a time toward a goal that moves one vertex at a
+ * time pays for the change rather than for the size of the graph.
+ * <p>
+ * States are those of `DistanceField`: state `k` stands at `graph.target(k)` having traversed edge
+ * `k`.  Every state keeps an estimate `g` of its distance to the goal and a one-step lookahead
+ * `rhs` computed from its successors' estimates; states where these disagree are queued, ordered
+ * by their distance plus a heuristic estimate of their distance from the start.  The traveler's
+ * own situation is an extra "start" state (with id `graph.edgeCount()`) whose successors are the
+ * edges it is allowed to take next.  When the goal moves, the states standing on the old and new
+ * goals change their lookahead, just as if edge weights to a virtual goal had changed.  When it
+ * jumps further than one edge, the search simply starts over.
+ * <p>
+ * An instance owns scratch arrays for one graph and may be reused for any number of searches (but
+ * only one at a time).
+ */
+public class IncrementalSearch {
+
+    /**
+     * The graph being searched.
+     */
+    private final CompactGraph graph;
+
+    /**
+     * Estimates distances between vertices, for ordering the queue.
+     */
+    private final IntHeuristic heuristic;
+
+    /**
+     * The id of the start state.
+     */
+    private final int start;
+
+    /**
+     * The distance estimate and lookahead of each state, valid where `stamps[u] == epoch`.
+     */
+    private final double[] g;
+    private final double[] rhs;
+
+    /**
+     * The epoch in which each state's entries were last written.
+     */
+    private final int[] stamps;
+
+    /**
+     * The epoch of the current tree of estimates, which is discarded by starting a new epoch.
+     */
+    private int epoch;
+
+    /**
+     * The inconsistent states (those with `g != rhs`), keyed lexicographically.
+     */
+    private final KeyQueue queue;
+
+    /**
+     * The amount by which all queued keys are understated because the start has moved since they
+     * were computed (the "key modifier" of D* Lite).
+     */
+    private double km;
+
+    /**
+     * The vertex that the start state stands on, and the edge traversed to reach it (or -1).
+     */
+    private int startVertex;
+    private int startIncoming;
+
+    /**
+     * The goal vertex of the current tree, or -1 if there is no tree.
+     */
+    private int goal;
+
+    /**
+     * The edges of the path found by the most recent search, in `[0..pathLength)`.
+     */
+    private int[] path;
+
+    /**
+     * The number of edges in `path`, or -1 if the most recent search found no path.
+     */
+    private int pathLength;
+
+    /**
+     * The number of states expanded during the most recent search.
+     */
+    private int expandedCount;
+
+    /**
+     * Create a search over `graph`, using `heuristic` to focus repairs toward the start.
+     */
+    public IncrementalSearch(CompactGraph graph, IntHeuristic heuristic) {
+        this.graph = graph;
+        this.heuristic = heuristic;
+        start = graph.edgeCount();
+        g = new double[start + 1];
+        rhs = new double[start + 1];
+        stamps = new int[start + 1];
+        queue = new KeyQueue(start + 1);
+        path = new int[16];
+        pathLength = -1;
+        goal = -1;
+    }
+
+    /**
+     * Search for a shortest non-backtracking path from vertex `src` to vertex `dst`, where
+     * `incoming` is the id of the edge just traversed to reach `src` (or -1 if there is none, in
+     * which case any edge may be taken first).  Reuses the estimates of the previous search where
+     * they are still valid.  Returns whether a path was found; if so, it may be read with
+     * `pathLength()`, `pathEdge()`, and `distance()`.  Requires `incoming < 0` or
+     * `graph.target(incoming) == src`.
+     */
+    public boolean search(int src, int incoming, int dst) {
+        assert incoming < 0 || graph.target(incoming) == src;
+        expandedCount = 0;
+        if (goal < 0 || !adjacent(goal, dst)) {
+            restart(src, incoming, dst);
+        } else {
+            km += heuristic.estimate(startVertex, src);
+            startVertex = src;
+            startIncoming = incoming;
+            if (dst != goal) {
+                int oldGoal = goal;
+                goal = dst;
+                for (int i = graph.firstInEdge(oldGoal); i < graph.endInEdge(oldGoal); i++) {
+                    updateState(graph.inEdge(i));
+                }
+                for (int i = graph.firstInEdge(dst); i < graph.endInEdge(dst); i++) {
+                    updateState(graph.inEdge(i));
+                }
+            }
+            updateState(start);
+        }
+        computeShortestPath();
+        return tracePath();
+    }
+
+    /**
+     * Return whether vertices `v` and `w` are equal or joined by an edge from `v` to `w`.
+     */
+    private boolean adjacent(int v, int w) {
+        if (v == w) {
+            return true;
+        }
+        for (int k = graph.firstEdge(v); k < graph.endEdge(v); k++) {
+            if (graph.target(k) == w) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Discard all estimates and begin a new tree rooted at goal `dst`.
+     */
+    private void restart(int src, int incoming, int dst) {
+        epoch += 1;
+        if (epoch == 0) {
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+        queue.clear();
+        km = 0;
+        startVertex = src;
+        startIncoming = incoming;
+        goal = dst;
+        for (int i = graph.firstInEdge(dst); i < graph.endInEdge(dst); i++) {
+            updateState(graph.inEdge(i));
+        }
+        updateState(start);
+    }
+
+    /**
+     * Reset state `u`'s entries to "unknown" if they were written in an earlier epoch.
+     */
+    private void touch(int u) {
+        if (stamps[u] != epoch) {
+            stamps[u] = epoch;
+            g[u] = Double.POSITIVE_INFINITY;
+            rhs[u] = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Return the vertex that state `u` stands on.
+     */
+    private int vertexOf(int u) {
+        return (u == start) ? startVertex : graph.target(u);
+    }
+
+    /**
+     * Return the vertex that state `u` may not move to next, or -1 if it may move anywhere.
+     */
+    private int backOf(int u) {
+        int incoming = (u == start) ? startIncoming : u;
+        return (incoming < 0) ? -1 : graph.source(incoming);
+    }
+
+    /**
+     * Return the current distance estimate of state `u`.
+     */
+    private double g(int u) {
+        return (stamps[u] == epoch) ? g[u] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Return the lookahead of state `u`: 0 if it stands on the goal, and otherwise the smallest
+     * weight-plus-estimate among the edges it may take next.
+     */
+    private double lookahead(int u) {
+        int x = vertexOf(u);
+        if (x == goal) {
+            return 0;
+        }
+        int back = backOf(u);
+        double best = Double.POSITIVE_INFINITY;
+        for (int b = graph.firstEdge(x); b < graph.endEdge(x); b++) {
+            if (graph.target(b) != back) {
+                best = Math.min(best, graph.weight(b) + g(b));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Recompute the lookahead of state `u` and queue it if and only if it is inconsistent.
+     */
+    private void updateState(int u) {
+        touch(u);
+        rhs[u] = lookahead(u);
+        if (g[u] != rhs[u]) {
+            double m = Math.min(g[u], rhs[u]);
+            queue.addOrUpdate(u, m + heuristic.estimate(startVertex, vertexOf(u)) + km, m);
+        } else {
+            queue.remove(u);
+        }
+    }
+
+    /**
+     * Update the lookahead of every state that may move into state `b`, whose estimate changed.
+     */
+    private void updatePredecessors(int b) {
+        int x = graph.source(b);
+        int y = graph.target(b);
+        for (int i = graph.firstInEdge(x); i < graph.endInEdge(x); i++) {
+            int a = graph.inEdge(i);
+            if (graph.source(a) != y) {
+                updateState(a);
+            }
+        }
+        if (startVertex == x && backOf(start) != y) {
+            updateState(start);
+        }
+    }
+
+    /**
+     * Process inconsistent states in key order until the start state is consistent and no queued
+     * state could improve it.
+     */
+    private void computeShortestPath() {
+        touch(start);
+        while (!queue.isEmpty()) {
+            double m = Math.min(g[start], rhs[start]);
+            double startKey = m + km;
+            if (queue.compareTop(startKey, m) >= 0 && g[start] == rhs[start]) {
+                break;
+            }
+            int u = queue.peek();
+            double oldKey = queue.topKey();
+            double um = Math.min(g[u], rhs[u]);
+            double newKey = um + heuristic.estimate(startVertex, vertexOf(u)) + km;
+            expandedCount += 1;
+            if (oldKey < newKey) {
+                queue.addOrUpdate(u, newKey, um);
+            } else if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                queue.remove(u);
+                if (u != start) {
+                    updatePredecessors(u);
+                }
+            } else {
+                g[u] = Double.POSITIVE_INFINITY;
+                updateState(u);
+                if (u != start) {
+                    updatePredecessors(u);
+                }
+            }
+        }
+    }
+
+    /**
+     * Record the path from the start to the goal by repeatedly taking the allowed edge that
+     * minimizes weight plus estimate.  Returns whether the goal is reachable.
+     */
+    private boolean tracePath() {
+        pathLength = -1;
+        if (rhs[start] == Double.POSITIVE_INFINITY) {
+            return false;
+        }
+        int length = 0;
+        for (int u = start; vertexOf(u) != goal; ) {
+            int x = vertexOf(u);
+            int back = backOf(u);
+            int next = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int b = graph.firstEdge(x); b < graph.endEdge(x); b++) {
+                double d = graph.weight(b) + g(b);
+                if (graph.target(b) != back && d < best) {
+                    next = b;
+                    best = d;
+                }
+            }
+            assert next >= 0 && length < start;
+            if (length == path.length) {
+                path = Arrays.copyOf(path, 2 * length);
+            }
+            path[length++] = next;
+            u = next;
+        }
+        pathLength = length;
+        return true;
+    }
+
+    /**
+     * Return the number of edges in the path found by the most recent search.  Requires that
+     * search found a path.
+     */
+    public int pathLength() {
+        assert pathLength >= 0;
+        return pathLength;
+    }
+
+    /**
+     * Return the id of the `i`th edge of the path found by the most recent search.  Requires that
+     * search found a path and `0 <= i < pathLength()`.
+     */
+    public int pathEdge(int i) {
+        assert 0 <= i && i < pathLength;
+        return path[i];
+    }
+
+    /**
+     * Return the total weight of the path found by the most recent search, or POSITIVE_INFINITY if
+     * no path was found.
+     */
+    public double distance() {
+        return (pathLength < 0) ? Double.POSITIVE_INFINITY : rhs[start];
+    }
+
+    /**
+     * Return the number of states expanded by the most recent search (including any restart).
+     */
+    public int expandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * A min-queue of int elements in `[0..capacity)` keyed by pairs of doubles, compared
+     * lexicographically.
+     */
+    private static class KeyQueue {
+
+        /**
+         * The elements of this queue, arranged as a binary min-heap in `[0..size)`.
+         */
+        private final int[] heap;
+
+        /**
+         * The primary and secondary key of each element.
+         */
+        private final double[] keys1;
+        private final double[] keys2;
+
+        /**
+         * The position of each element in `heap`, or -1 if it is not in this queue.
+         */
+        private final int[] index;
+
+        /**
+         * The number of elements in this queue.
+         */
+        private int size;
+
+        /**
+         * Create an empty queue for elements in `[0..capacity)`.
+         */
+        KeyQueue(int capacity) {
+            heap = new int[capacity];
+            keys1 = new double[capacity];
+            keys2 = new double[capacity];
+            index = new int[capacity];
+            Arrays.fill(index, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Return the element with the smallest key.  Requires this queue is not empty.
+         */
+        int peek() {
+            return heap[0];
+        }
+
+        /**
+         * Return the primary key of `peek()`.  Requires this queue is not empty.
+         */
+        double topKey() {
+            return keys1[heap[0]];
+        }
+
+        /**
+         * Return a negative number, zero, or a positive number as the smallest key in this queue
+         * is less than, equal to, or greater than `(k1, k2)`.  Requires this queue is not empty.
+         */
+        int compareTop(double k1, double k2) {
+            int top = heap[0];
+            int c = Double.compare(keys1[top], k1);
+            return (c != 0) ? c : Double.compare(keys2[top], k2);
+        }
+
+        /**
+         * Remove all elements from this queue.
+         */
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                index[heap[i]] = -1;
+            }
+            size = 0;
+        }
+
+        /**
+         * Add element `u` with key `(k1, k2)`, or change its key if it is already present.
+         */
+        void addOrUpdate(int u, double k1, double k2) {
+            int i = index[u];
+            if (i < 0) {
+                i = size++;
+            }
+            keys1[u] = k1;
+            keys2[u] = k2;
+            place(u, i);
+            bubbleDown(bubbleUp(i));
+        }
+
+        /**
+         * Remove element `u` if it is present.
+         */
+        void remove(int u) {
+            int i = index[u];
+            if (i < 0) {
+                return;
+            }
+            index[u] = -1;
+            size -= 1;
+            if (i < size) {
+                place(heap[size], i);
+                bubbleDown(bubbleUp(i));
+            }
+        }
+
+        /**
+         * Return whether the element at position `i` has a smaller key than that at position `j`.
+         */
+        private boolean less(int i, int j) {
+            int a = heap[i];
+            int b = heap[j];
+            return keys1[a] < keys1[b] || (keys1[a] == keys1[b] && keys2[a] < keys2[b]);
+        }
+
+        /**
+         * Put element `u` at position `i` of `heap`.
+         */
+        private void place(int u, int i) {
+            heap[i] = u;
+            index[u] = i;
+        }
+
+        /**
+         * Swap the elements at positions `i` and `j` of `heap`.
+         */
+        private void swap(int i, int j) {
+            int a = heap[i];
+            place(heap[j], i);
+            place(a, j);
+        }
+
+        /**
+         * Move the element at position `i` up until its parent's key is no larger, and return its
+         * final position.
+         */
+        private int bubbleUp(int i) {
+            while (i > 0 && less(i, (i - 1) / 2)) {
+                swap(i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+            return i;
+        }
+
+        /**
+         * Move the element at position `i` down until neither child's key is smaller.
+         */
+        private void bubbleDown(int i) {
+            while (2 * i + 1 < size) {
+                int c = 2 * i + 1;
+                if (c + 1 < size && less(c + 1, c)) {
+                    c += 1;
+                }
+                if (!less(c, i)) {
+                    return;
+                }
+                swap(i, c);
+                i = c;
+            }
+        }
+    }
+}
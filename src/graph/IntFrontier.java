@@ -0,0 +1,44 @@
+package graph;
+
+/**
+ * The frontier of a search over vertices (or states) with dense int ids: a min priority queue of
+ * distinct int elements in `[0..capacity)` associated with double priorities.  Implementations
+ * may restrict how priorities evolve (see `MonotonePriorityQueue`), but every implementation
+ * removes elements in non-decreasing priority order when used by a Dijkstra or A* search with a
+ * consistent heuristic.
+ */
+public interface IntFrontier {
+
+    /**
+     * Return whether this frontier contains no elements.
+     */
+    boolean isEmpty();
+
+    /**
+     * Return the number of elements contained in this frontier.
+     */
+    int size();
+
+    /**
+     * Return the minimum priority associated with an element in this frontier.  Throws
+     * NoSuchElementException if this frontier is empty.
+     */
+    double minPriority();
+
+    /**
+     * Remove all elements from this frontier.
+     */
+    void clear();
+
+    /**
+     * If `key` is already contained in this frontier, change its associated priority to
+     * `priority`.  Otherwise, add it to this frontier with that priority.
+     */
+    void addOrUpdate(int key, double priority);
+
+    /**
+     * Remove and return an element associated with the smallest priority in this frontier.  Throws
+     * NoSuchElementException if this frontier is empty.
+     */
+    int remove();
+}
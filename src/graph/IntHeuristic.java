@@ -0,0 +1,18 @@
+package graph;
+
+/**
+ * Estimates the distance between two vertices of a `CompactGraph`, identified by their ids, for use
+ * in goal-directed searches over that graph.
+ */
+@FunctionalInterface
+public interface IntHeuristic {
+
+    /**
+     * Return a lower bound on the distance of the shortest path from vertex `v` to vertex `w`.
+     * Implementations must be consistent: for every edge `k` leaving `v`,
+     * `estimate(v, w) <= graph.weight(k) + estimate(graph.target(k), w)`, and likewise for every
+     * edge `k` entering `w`, `estimate(v, w) <= estimate(v, graph.source(k)) + graph.weight(k)`;
+     * and `estimate(v, v) == 0`.
+     */
+    double estimate(int v, int w);
+}
@@ -0,0 +1,233 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A min priority queue of distinct int elements in `[0..capacity())` associated with (extrinsic)
+ * double priorities, implemented using a binary heap stored in parallel primitive arrays paired
+ * with an array-based position index.  Unlike `MinPQueue`, no objects are allocated after
+ * construction, making this queue suitable for searches over vertices with dense ids.
+ */
+public class IntMinPQueue implements IntFrontier {
+
+    /**
+     * The elements of a binary min-heap; only indices in `[0..size)` are meaningful.  Satisfies
+     * `priorities[i] >= priorities[(i-1)/2]` for all `i` in `[1..size)`.
+     */
+    private final int[] heap;
+
+    /**
+     * The priority associated with the element at the same index in `heap`.
+     */
+    private final double[] priorities;
+
+    /**
+     * Associates each element with its index in `heap`, or -1 if the element is not in the queue.
+     * Satisfies `heap[index[e]] == e` if `e` is an element in the queue.
+     */
+    private final int[] index;
+
+    /**
+     * The number of elements in this queue.
+     */
+    private int size;
+
+    /**
+     * Return whether the class invariants hold.  Intended to be called as `assert inv()`, since
+     * checking takes time linear in the capacity of this queue.
+     */
+    private boolean inv() {
+        int count = 0;
+        for (int e = 0; e < index.length; e++) {
+            if (index[e] >= 0) {
+                count += 1;
+                assert index[e] < size && heap[index[e]] == e : "bad index for " + e;
+            }
+        }
+        assert count == size : "count = " + count + ", size = " + size;
+        for (int i = 1; i < size; i++) {
+            assert priorities[i] >= priorities[(i - 1) / 2] : "heap order violated at " + i;
+        }
+        return true;
+    }
+
+    /**
+     * Create an empty queue that may hold elements in `[0..capacity)`.
+     */
+    public IntMinPQueue(int capacity) {
+        heap = new int[capacity];
+        priorities = new double[capacity];
+        index = new int[capacity];
+        Arrays.fill(index, -1);
+        size = 0;
+    }
+
+    /**
+     * Return the exclusive upper bound on the elements this queue may hold.
+     */
+    public int capacity() {
+        return index.length;
+    }
+
+    /**
+     * Return whether this queue contains no elements.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Return the number of elements contained in this queue.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return whether `key` is contained in this queue.  Requires `0 <= key < capacity()`.
+     */
+    public boolean contains(int key) {
+        return index[key] >= 0;
+    }
+
+    /**
+     * Return an element associated with the smallest priority in this queue.  This is the same
+     * element that would be removed by a call to `remove()` (assuming no mutations in between).
+     * Throws NoSuchElementException if this queue is empty.
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return heap[0];
+    }
+
+    /**
+     * Return the minimum priority associated with an element in this queue.  Throws
+     * NoSuchElementException if this queue is empty.
+     */
+    public double minPriority() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return priorities[0];
+    }
+
+    /**
+     * Remove all elements from this queue.  Takes time proportional to the number of elements
+     * removed, not to the capacity, so a queue may be cheaply reused across searches.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            index[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Make this queue hold the same elements with the same priorities as `other`, arranged in the
+     * same way, so that from then on the two break ties among equal priorities identically.
+     * Requires `other` has the same capacity as this queue.
+     */
+    public void copyFrom(IntMinPQueue other) {
+        assert other.capacity() == capacity();
+        clear();
+        System.arraycopy(other.heap, 0, heap, 0, other.size);
+        System.arraycopy(other.priorities, 0, priorities, 0, other.size);
+        size = other.size;
+        for (int i = 0; i < size; i++) {
+            index[heap[i]] = i;
+        }
+        assert inv();
+    }
+
+    /**
+     * Place element `key` with priority `priority` at index `i` of the heap, updating `index`
+     * accordingly.
+     */
+    private void place(int i, int key, double priority) {
+        heap[i] = key;
+        priorities[i] = priority;
+        index[key] = i;
+    }
+
+    /**
+     * Move the element at index `k` up the heap until its parent's priority is no greater than its
+     * own.  Rather than swapping at each level, the moving element is held aside and written once.
+     */
+    private void bubbleUp(int k) {
+        int key = heap[k];
+        double priority = priorities[k];
+        while (k > 0) {
+            int parent = (k - 1) / 2;
+            if (priority >= priorities[parent]) {
+                break;
+            }
+            place(k, heap[parent], priorities[parent]);
+            k = parent;
+        }
+        place(k, key, priority);
+    }
+
+    /**
+     * Move the element at index `k` down the heap until neither of its children has a smaller
+     * priority.
+     */
+    private void bubbleDown(int k) {
+        int key = heap[k];
+        double priority = priorities[k];
+        int lc = 2 * k + 1;
+        while (lc < size) {  // while the left child exists
+            // Index of smallest child
+            int cMin = (lc + 1 < size && priorities[lc + 1] < priorities[lc]) ? lc + 1 : lc;
+            if (priority <= priorities[cMin]) {
+                break;
+            }
+            place(k, heap[cMin], priorities[cMin]);
+            k = cMin;
+            lc = 2 * k + 1;
+        }
+        place(k, key, priority);
+    }
+
+    /**
+     * If `key` is already contained in this queue, change its associated priority to `priority`.
+     * Otherwise, add it to this queue with that priority.  Requires `0 <= key < capacity()`.
+     */
+    public void addOrUpdate(int key, double priority) {
+        int i = index[key];
+        if (i < 0) {
+            place(size, key, priority);
+            size += 1;
+            bubbleUp(size - 1);
+        } else if (priority < priorities[i]) {
+            priorities[i] = priority;
+            bubbleUp(i);
+        } else {
+            priorities[i] = priority;
+            bubbleDown(i);
+        }
+        assert inv();
+    }
+
+    /**
+     * Remove and return the element associated with the smallest priority in this queue.  If
+     * multiple elements are tied for the smallest priority, an arbitrary one will be removed.
+     * Throws NoSuchElementException if this queue is empty.
+     */
+    public int remove() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int returnValue = heap[0];
+        index[returnValue] = -1;
+        size -= 1;
+        if (size > 0) {
+            place(0, heap[size], priorities[size]);
+            bubbleDown(0);
+        }
+        assert inv();
+        return returnValue;
+    }
+}
@@ -0,0 +1,172 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A distance heuristic for a `CompactGraph` based on "landmarks" (the ALT technique).  For a few
+ * landmark vertices `L`, the exact shortest distances from every vertex to `L` and from `L` to
+ * every vertex are precomputed.  By the triangle inequality, both `d(v, L) - d(w, L)` and
+ * `d(L, w) - d(L, v)` are then lower bounds on `d(v, w)`, and the largest such bound over all
+ * landmarks is a consistent heuristic.  Unlike a geometric estimate, these bounds account for edge
+ * weights, so they stay tight on graphs whose weights vary widely (such as hilly mazes).
+ * <p>
+ * Landmarks are chosen by farthest-point selection: each new landmark is the vertex farthest from
+ * all landmarks chosen so far, which spreads them around the periphery of the graph where they give
+ * the best bounds.  Distances ignore the non-backtracking rule, so they never exceed (and thus
+ * remain valid lower bounds for) non-backtracking distances.
+ */
+public class Landmarks implements IntHeuristic {
+
+    /**
+     * The graph whose distances are bounded.
+     */
+    private final CompactGraph graph;
+
+    /**
+     * The vertex id of each landmark.
+     */
+    private final int[] landmarks;
+
+    /**
+     * The distance from vertex `v` to landmark `i`, stored at index `v * landmarkCount() + i`
+     * (so that all of a vertex's distances are adjacent in memory).
+     */
+    private final double[] toLandmark;
+
+    /**
+     * The distance from landmark `i` to vertex `v`, stored at index `v * landmarkCount() + i`.
+     */
+    private final double[] fromLandmark;
+
+    /**
+     * Select `count` landmarks in `graph` and compute their distances.  Takes `2 * count + 1`
+     * Dijkstra searches, each in time `O(E log V)`.  Requires `count > 0` and the graph has at
+     * least one vertex.
+     */
+    public Landmarks(CompactGraph graph, int count) {
+        assert count > 0 && graph.vertexCount() > 0;
+        this.graph = graph;
+        int n = graph.vertexCount();
+        landmarks = new int[count];
+        toLandmark = new double[n * count];
+        fromLandmark = new double[n * count];
+
+        double[] distances = new double[n];
+        IntMinPQueue frontier = new IntMinPQueue(n);
+
+        // The distance from the nearest landmark chosen so far to each vertex
+        double[] nearest = new double[n];
+        dijkstra(0, true, distances, frontier);
+        System.arraycopy(distances, 0, nearest, 0, n);
+        for (int i = 0; i < count; i++) {
+            int farthest = 0;
+            for (int v = 1; v < n; v++) {
+                if (nearest[v] > nearest[farthest]) {
+                    farthest = v;
+                }
+            }
+            landmarks[i] = farthest;
+
+            dijkstra(farthest, true, distances, frontier);
+            for (int v = 0; v < n; v++) {
+                fromLandmark[v * count + i] = distances[v];
+                nearest[v] = (i == 0) ? distances[v] : Math.min(nearest[v], distances[v]);
+            }
+            nearest[farthest] = -1;  // never choose a landmark twice, even if others are unreachable
+
+            dijkstra(farthest, false, distances, frontier);
+            for (int v = 0; v < n; v++) {
+                toLandmark[v * count + i] = distances[v];
+            }
+        }
+    }
+
+    /**
+     * Replace `distances` with the shortest distances from `src` to every vertex (if `forward`) or
+     * from every vertex to `src` (otherwise), using `frontier` as scratch space.
+     */
+    private void dijkstra(int src, boolean forward, double[] distances, IntMinPQueue frontier) {
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        frontier.clear();
+        distances[src] = 0;
+        frontier.addOrUpdate(src, 0);
+        while (!frontier.isEmpty()) {
+            int v = frontier.remove();
+            double d = distances[v];
+            if (forward) {
+                for (int k = graph.firstEdge(v); k < graph.endEdge(v); k++) {
+                    relax(graph.target(k), d + graph.weight(k), distances, frontier);
+                }
+            } else {
+                for (int i = graph.firstInEdge(v); i < graph.endInEdge(v); i++) {
+                    int k = graph.inEdge(i);
+                    relax(graph.source(k), d + graph.weight(k), distances, frontier);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lower the distance of vertex `w` to `d` if that is an improvement.
+     */
+    private static void relax(int w, double d, double[] distances, IntMinPQueue frontier) {
+        if (d < distances[w]) {
+            distances[w] = d;
+            frontier.addOrUpdate(w, d);
+        }
+    }
+
+    /**
+     * Return the graph whose distances are bounded.
+     */
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Return the number of landmarks.
+     */
+    public int landmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * Return the vertex id of landmark `i`.  Requires `0 <= i < landmarkCount()`.
+     */
+    public int landmark(int i) {
+        return landmarks[i];
+    }
+
+    /**
+     * Return the largest triangle-inequality lower bound on the distance from vertex `v` to
+     * vertex `w` given by any landmark (or 0 if no landmark gives a positive bound).  Returns
+     * POSITIVE_INFINITY if some landmark proves that `w` cannot be reached from `v`.
+     */
+    @Override
+    public double estimate(int v, int w) {
+        int count = landmarks.length;
+        int vi = v * count;
+        int wi = w * count;
+        double best = 0;
+        for (int i = 0; i < count; i++) {
+            // Comparisons are false for NaN, which arises when neither vertex reaches a landmark
+            double viaTo = toLandmark[vi + i] - toLandmark[wi + i];
+            double viaFrom = fromLandmark[wi + i] - fromLandmark[vi + i];
+            if (viaTo > best) {
+                best = viaTo;
+            }
+            if (viaFrom > best) {
+                best = viaFrom;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Return this heuristic in the form used by `Pathfinding`, for a graph whose vertices are
+     * numbered by `index` consistently with the ids of `graph()`.
+     */
+    public <VertexType> Heuristic<VertexType> forVertices(VertexIndex<? super VertexType> index) {
+        return (v, dst) -> estimate(index.indexOf(v), index.indexOf(dst));
+    }
+}
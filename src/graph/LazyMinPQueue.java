@@ -0,0 +1,171 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A min priority queue of distinct elements of type `KeyType` associated with (extrinsic) double
+ * priorities, implemented using a binary heap of entries without a position index.  Changing an
+ * element's priority adds a new entry rather than moving the old one; entries that no longer match
+ * their element's current priority are discarded when they reach the top of the heap.  This keeps
+ * every heap operation a plain sift, at the cost of a heap holding up to one entry per
+ * `addOrUpdate()` call.  A hash table records each element's current priority.
+ */
+public class LazyMinPQueue<KeyType> implements Frontier<KeyType> {
+
+    /**
+     * The elements and priorities of a binary min-heap of entries; only indices in `[0..heapSize)`
+     * are meaningful.  Satisfies `priorities[i] >= priorities[(i-1)/2]` for all `i` in
+     * `[1..heapSize)`.  The elements of `keys` have type `KeyType`.  An entry is live if its
+     * element is in the queue with that priority, and stale otherwise.
+     */
+    private Object[] keys;
+    private double[] priorities;
+    private int heapSize;
+
+    /**
+     * The current priority of each element in the queue.  Every element in the queue has a live
+     * entry in the heap (and possibly stale ones).
+     */
+    private final Map<KeyType, Double> current;
+
+    /**
+     * Create an empty queue.
+     */
+    public LazyMinPQueue() {
+        keys = new Object[16];
+        priorities = new double[16];
+        current = new HashMap<>();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return current.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return current.size();
+    }
+
+    @Override
+    public KeyType peek() {
+        discardStale();
+        return key(0);
+    }
+
+    @Override
+    public double minPriority() {
+        discardStale();
+        return priorities[0];
+    }
+
+    @Override
+    public void addOrUpdate(KeyType key, double priority) {
+        Double old = current.put(key, priority);
+        if (old != null && old == priority) {
+            return;  // its live entry is still live
+        }
+        if (heapSize == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * heapSize);
+            priorities = Arrays.copyOf(priorities, 2 * heapSize);
+        }
+        keys[heapSize] = key;
+        priorities[heapSize] = priority;
+        heapSize += 1;
+        bubbleUp(heapSize - 1);
+    }
+
+    @Override
+    public KeyType remove() {
+        discardStale();
+        KeyType returnValue = key(0);
+        current.remove(returnValue);
+        removeTop();
+        return returnValue;
+    }
+
+    /**
+     * Remove stale entries from the top of the heap until its top entry is live.  Throws
+     * NoSuchElementException if this queue is empty.
+     */
+    private void discardStale() {
+        if (current.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        while (true) {
+            Double priority = current.get(key(0));
+            if (priority != null && priority == priorities[0]) {
+                return;
+            }
+            removeTop();
+        }
+    }
+
+    /**
+     * Return the element of the entry at index `i` of the heap.
+     */
+    @SuppressWarnings("unchecked")
+    private KeyType key(int i) {
+        return (KeyType) keys[i];
+    }
+
+    /**
+     * Remove the top entry of the heap.  Requires the heap is not empty.
+     */
+    private void removeTop() {
+        heapSize -= 1;
+        keys[0] = keys[heapSize];
+        priorities[0] = priorities[heapSize];
+        keys[heapSize] = null;  // don't retain removed elements
+        if (heapSize > 0) {
+            bubbleDown(0);
+        }
+    }
+
+    /**
+     * Move the entry at index `k` up the heap until its parent's priority is no greater.
+     */
+    private void bubbleUp(int k) {
+        Object key = keys[k];
+        double priority = priorities[k];
+        while (k > 0) {
+            int parent = (k - 1) / 2;
+            if (priorities[parent] <= priority) {
+                break;
+            }
+            keys[k] = keys[parent];
+            priorities[k] = priorities[parent];
+            k = parent;
+        }
+        keys[k] = key;
+        priorities[k] = priority;
+    }
+
+    /**
+     * Move the entry at index `k` down the heap until neither of its children has a smaller
+     * priority.
+     */
+    private void bubbleDown(int k) {
+        Object key = keys[k];
+        double priority = priorities[k];
+        int lc = 2 * k + 1;
+        while (lc < heapSize) {
+            int cMin = lc;  // Index of smallest child
+            if (lc + 1 < heapSize && priorities[lc + 1] < priorities[lc]) {
+                cMin = lc + 1;
+            }
+            if (priority <= priorities[cMin]) {
+                break;
+            }
+            keys[k] = keys[cMin];
+            priorities[k] = priorities[cMin];
+            k = cMin;
+            lc = 2 * k + 1;
+        }
+        keys[k] = key;
+        priorities[k] = priority;
+    }
+}
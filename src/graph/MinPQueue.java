@@ -9,7 +9,7 @@ import java.util.NoSuchElementException;
  * A min priority queue of distinct elements of type `KeyType` associated with (extrinsic) double
  * priorities, implemented using a binary heap paired with a hash table.
  */
-public class MinPQueue<KeyType> {
+public class MinPQueue<KeyType> implements Frontier<KeyType> {
 
     /**
      * Pairs an element `key` with its associated priority `priority`.
@@ -35,9 +35,10 @@ public class MinPQueue<KeyType> {
     private final Map<KeyType, Integer> index;
 
     /**
-     * Asserts the class invariants.
+     * Return whether the class invariants hold.  Intended to be called as `assert inv()`, since
+     * checking takes time linear in the size of this queue.
      */
-    private void assertInv() {
+    private boolean inv() {
         assert index.size() == heap.size() : "index.size() = " + index.size() + ", heap.size() = " + heap.size();
         for (int i = 0; i < heap.size(); i++) {
             Entry<KeyType> currentElement = heap.get(i);
@@ -49,6 +50,7 @@ public class MinPQueue<KeyType> {
             int mappedIdx = index.get(key);
             assert heap.get(mappedIdx).key().equals(key); //Check reverse mapping
         }
+        return true;
     }
 
     /**
@@ -62,6 +64,7 @@ public class MinPQueue<KeyType> {
     /**
      * Return whether this queue contains no elements.
      */
+    @Override
     public boolean isEmpty() {
         return heap.isEmpty();
     }
@@ -69,6 +72,7 @@ public class MinPQueue<KeyType> {
     /**
      * Return the number of elements contained in this queue.
      */
+    @Override
     public int size() {
         return heap.size();
     }
@@ -78,6 +82,7 @@ public class MinPQueue<KeyType> {
      * element that would be removed by a call to `remove()` (assuming no mutations in between).
      * Throws NoSuchElementException if this queue is empty.
      */
+    @Override
     public KeyType peek() {
         // Propagate exception from `List::getFirst()` if empty.
         return heap.getFirst().key();
@@ -87,6 +92,7 @@ public class MinPQueue<KeyType> {
      * Return the minimum priority associated with an element in this queue.  Throws
      * NoSuchElementException if this queue is empty.
      */
+    @Override
     public double minPriority() {
         return heap.getFirst().priority();
     }
@@ -147,7 +153,7 @@ public class MinPQueue<KeyType> {
         heap.add(new Entry<>(key, priority));
         bubbleUp(heap.size() - 1);
 
-        assertInv();
+        assert inv();
     }
 
     /**
@@ -168,13 +174,14 @@ public class MinPQueue<KeyType> {
         } else {
             bubbleDown(i);
         }
-        assertInv();
+        assert inv();
     }
 
     /**
      * If `key` is already contained in this queue, change its associated priority to `priority`.
      * Otherwise, add it to this queue with that priority.
      */
+    @Override
     public void addOrUpdate(KeyType key, double priority) {
         if (!index.containsKey(key)) {
             add(key, priority);
@@ -188,6 +195,7 @@ public class MinPQueue<KeyType> {
      * multiple elements are tied for the smallest priority, an arbitrary one will be removed.
      * Throws NoSuchElementException if this queue is empty.
      */
+    @Override
     public KeyType remove() {
         if (heap.isEmpty()) {
             throw new NoSuchElementException();
@@ -204,7 +212,7 @@ public class MinPQueue<KeyType> {
             bubbleDown(0);
         }
 
-        assertInv();
+        assert inv();
         return returnValue;
     }
 }
@@ -0,0 +1,271 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A min priority queue of distinct int elements in `[0..capacity())` for searches that never add
+ * a priority below the last one removed, such as Dijkstra's algorithm or A* with a consistent
+ * heuristic, implemented as a ring of buckets (Dial's algorithm).  Bucket `b` holds the elements
+ * whose priorities lie in `[b * width, (b + 1) * width)`.  When every edge weight lies in
+ * `[minWeight, maxWeight]` with `minWeight > 0`, buckets a fraction of `minWeight` wide hold few
+ * elements each, and a search only ever adds priorities within a bounded spread above the current
+ * minimum, so a ring of a few dozen buckets suffices (it grows if a priority falls outside it).
+ * <p>
+ * Adding or updating an element takes constant time, and removal scans only the lowest non-empty
+ * bucket for its smallest priority, so elements are removed in exactly the same order as from a
+ * binary heap (up to ties) without its logarithmic cost.  Like `IntMinPQueue`, no objects are
+ * allocated once the ring and buckets have grown to fit a search.
+ */
+public class MonotonePriorityQueue implements IntFrontier {
+
+    /**
+     * The range of priorities covered by each bucket.
+     */
+    private final double width;
+
+    /**
+     * The elements of each bucket of the ring in `[0..bucketSizes[r])`.  Absolute bucket `b` is
+     * stored at ring index `Math.floorMod(b, buckets.length)`.
+     */
+    private int[][] buckets;
+    private int[] bucketSizes;
+
+    /**
+     * The priority of each element in the queue.
+     */
+    private final double[] priorities;
+
+    /**
+     * The ring index of each element's bucket, or -1 if the element is not in the queue, and its
+     * position within that bucket.
+     */
+    private final int[] bucketOf;
+    private final int[] positions;
+
+    /**
+     * The number of elements in this queue.
+     */
+    private int size;
+
+    /**
+     * The absolute numbers of the lowest and highest buckets that may be non-empty.  Every element
+     * lies in a bucket in `[current..highest]`, and `highest - current < buckets.length`.
+     */
+    private long current;
+    private long highest;
+
+    /**
+     * Whether an element has been removed since this queue was created or cleared.  Until then,
+     * elements may be added below `current`, which moves down to meet them.
+     */
+    private boolean removedAny;
+
+    /**
+     * Create an empty queue that may hold elements in `[0..capacity)`, whose buckets each span
+     * `width` and whose ring initially covers priorities up to `spread` above the minimum.  For a
+     * search over edges weighing at least `minWeight` and at most `maxWeight`, pass a fraction of
+     * `minWeight` as the width and the largest amount by which a priority may exceed the current
+     * minimum as the spread (`maxWeight` for Dijkstra).  Requires `width > 0` and `spread >= 0`.
+     */
+    public MonotonePriorityQueue(int capacity, double width, double spread) {
+        assert width > 0 && spread >= 0;
+        this.width = width;
+        int ringLength = (int) Math.ceil(spread / width) + 2;
+        buckets = new int[ringLength][];
+        for (int r = 0; r < ringLength; r++) {
+            buckets[r] = new int[4];
+        }
+        bucketSizes = new int[ringLength];
+        priorities = new double[capacity];
+        bucketOf = new int[capacity];
+        Arrays.fill(bucketOf, -1);
+        positions = new int[capacity];
+    }
+
+    /**
+     * Return the exclusive upper bound on the elements this queue may hold.
+     */
+    public int capacity() {
+        return bucketOf.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove all elements from this queue.  Takes time proportional to the number of elements
+     * removed plus the number of buckets they spanned.
+     */
+    @Override
+    public void clear() {
+        if (size > 0) {
+            for (long b = current; b <= highest; b++) {
+                int r = ring(b);
+                for (int i = 0; i < bucketSizes[r]; i++) {
+                    bucketOf[buckets[r][i]] = -1;
+                }
+                bucketSizes[r] = 0;
+            }
+        }
+        size = 0;
+        removedAny = false;
+    }
+
+    /**
+     * If `key` is already contained in this queue, change its associated priority to `priority`.
+     * Otherwise, add it to this queue with that priority.  Requires `0 <= key < capacity()` and,
+     * unless nothing has been removed since this queue was cleared, `priority` is no less than
+     * the priority last removed (up to rounding).
+     */
+    @Override
+    public void addOrUpdate(int key, double priority) {
+        if (bucketOf[key] >= 0) {
+            detach(key);
+        } else {
+            size += 1;
+        }
+        long b = (long) Math.floor(priority / width);
+        if (size == 1) {
+            // The ring is empty, so it may move to this priority's bucket, but after a removal it
+            // stays at the last removed priority's bucket, which later priorities may still share
+            if (!removedAny) {
+                current = b;
+            }
+            highest = current;
+        }
+        if (b < current) {
+            if (removedAny) {
+                // Rounding may place a priority tied with the minimum just below its bucket, but
+                // the current bucket is always scanned for its exact minimum
+                assert priority >= current * width - 1e-9 * Math.max(1, Math.abs(priority));
+                b = current;
+            } else {
+                current = b;
+            }
+        }
+        highest = Math.max(highest, b);
+        if (highest - current >= buckets.length) {
+            grow(highest - current + 1);
+        }
+        priorities[key] = priority;
+        attach(key, ring(b));
+    }
+
+    @Override
+    public double minPriority() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int r = advance();
+        return priorities[buckets[r][minPosition(r)]];
+    }
+
+    /**
+     * Remove and return the element associated with the smallest priority in this queue.  If
+     * multiple elements are tied for the smallest priority, an arbitrary one will be removed.
+     * Throws NoSuchElementException if this queue is empty.
+     */
+    @Override
+    public int remove() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int r = advance();
+        int key = buckets[r][minPosition(r)];
+        detach(key);
+        size -= 1;
+        removedAny = true;
+        return key;
+    }
+
+    /**
+     * Return the ring index of absolute bucket `b`.
+     */
+    private int ring(long b) {
+        return (int) Math.floorMod(b, (long) buckets.length);
+    }
+
+    /**
+     * Move `current` up to the lowest non-empty bucket and return its ring index.  Requires this
+     * queue is not empty.
+     */
+    private int advance() {
+        while (bucketSizes[ring(current)] == 0) {
+            current += 1;
+        }
+        return ring(current);
+    }
+
+    /**
+     * Return the position of an element with the smallest priority in the bucket at ring index
+     * `r`.  Requires that bucket is not empty.
+     */
+    private int minPosition(int r) {
+        int[] bucket = buckets[r];
+        int best = 0;
+        for (int i = 1; i < bucketSizes[r]; i++) {
+            if (priorities[bucket[i]] < priorities[bucket[best]]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Append `key` to the bucket at ring index `r`.
+     */
+    private void attach(int key, int r) {
+        if (bucketSizes[r] == buckets[r].length) {
+            buckets[r] = Arrays.copyOf(buckets[r], 2 * bucketSizes[r]);
+        }
+        buckets[r][bucketSizes[r]] = key;
+        bucketOf[key] = r;
+        positions[key] = bucketSizes[r];
+        bucketSizes[r] += 1;
+    }
+
+    /**
+     * Remove `key` from its bucket by moving the bucket's last element into its place.  Does not
+     * change `size`.
+     */
+    private void detach(int key) {
+        int r = bucketOf[key];
+        int last = buckets[r][--bucketSizes[r]];
+        buckets[r][positions[key]] = last;
+        positions[last] = positions[key];
+        bucketOf[key] = -1;
+    }
+
+    /**
+     * Replace the ring with one of at least `span` buckets (doubling its length at a time), moving
+     * every element into its bucket in the new ring.
+     */
+    private void grow(long span) {
+        int[][] oldBuckets = buckets;
+        int[] oldSizes = bucketSizes;
+        int ringLength = oldBuckets.length;
+        while (ringLength < span) {
+            ringLength *= 2;
+        }
+        buckets = new int[ringLength][];
+        for (int r = 0; r < ringLength; r++) {
+            buckets[r] = new int[4];
+        }
+        bucketSizes = new int[ringLength];
+        for (int r = 0; r < oldBuckets.length; r++) {
+            for (int i = 0; i < oldSizes[r]; i++) {
+                int key = oldBuckets[r][i];
+                long b = Math.max(current, (long) Math.floor(priorities[key] / width));
+                attach(key, ring(b));
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package graph;
+
+import java.util.stream.IntStream;
+
+/**
+ * A precomputed table answering "which edge should be taken first on a shortest non-backtracking
+ * path from vertex `v`, having just arrived via edge `incoming`, to vertex `w`?" in constant time,
+ * for every pair of vertices in a (fixed) `CompactGraph`.
+ * <p>
+ * Although queries are over (vertex, incoming edge) states, the table only needs to be indexed by
+ * vertex pairs: the non-backtracking rule forbids at most one of the edges leaving `v`, so the
+ * answer for any state at `v` is either the best first edge from `v` when all edges are allowed,
+ * or, if that edge is forbidden, the second-best one.  Both are stored, as offsets into `v`'s edge
+ * list, in the low and high nibbles of a single byte per pair.  The table therefore occupies
+ * `vertexCount()^2` bytes (about 82 MB for a 50x50-cell maze) and requires every vertex to have
+ * fewer than 15 outgoing edges, no two of which lead to the same vertex.
+ */
+public class NextHopOracle {
+
+    /**
+     * Nibble value indicating that there is no (best or second-best) first edge.
+     */
+    private static final int NONE = 0xF;
+
+    /**
+     * The graph whose paths this oracle describes.
+     */
+    private final CompactGraph graph;
+
+    /**
+     * The number of vertices in `graph`.
+     */
+    private final int n;
+
+    /**
+     * The packed first-edge choices for paths from `v` to `w`, stored at index `w * n + v`.  The
+     * low nibble holds the offset (relative to `graph.firstEdge(v)`) of the best first edge, and
+     * the high nibble holds that of the second-best first edge, using `NONE` when no such edge
+     * leads to `w`.
+     */
+    private final byte[] table;
+
+    /**
+     * Build the oracle for `graph`, computing one `DistanceField` per target vertex.  Targets are
+     * processed in parallel using the common fork/join pool, so construction scales with the
+     * number of available cores.  Throws IllegalArgumentException if the table would exceed the
+     * maximum array size or if some vertex has too many outgoing edges or parallel edges.
+     */
+    public NextHopOracle(CompactGraph graph) {
+        this.graph = graph;
+        n = graph.vertexCount();
+        if ((long) n * n > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Graph too large for an all-pairs table: " + n
+                    + " vertices");
+        }
+        for (int v = 0; v < n; v++) {
+            if (graph.degree(v) >= NONE) {
+                throw new IllegalArgumentException("Vertex " + v + " has too many edges");
+            }
+            for (int b = graph.firstEdge(v); b < graph.endEdge(v); b++) {
+                for (int c = b + 1; c < graph.endEdge(v); c++) {
+                    if (graph.target(b) == graph.target(c)) {
+                        throw new IllegalArgumentException("Vertex " + v + " has parallel edges");
+                    }
+                }
+            }
+        }
+        table = new byte[n * n];
+
+        // Each worker thread reuses one field; each target writes a disjoint row of the table
+        ThreadLocal<DistanceField> fields = ThreadLocal.withInitial(() -> new DistanceField(graph));
+        IntStream.range(0, n).parallel().forEach(w -> fillRow(fields.get(), w));
+    }
+
+    /**
+     * Fill the row of `table` for target `w`, using `field` as scratch space.
+     */
+    private void fillRow(DistanceField field, int w) {
+        field.compute(w);
+        for (int v = 0; v < n; v++) {
+            int best = NONE;
+            int second = NONE;
+            if (v != w) {
+                double bestDistance = Double.POSITIVE_INFINITY;
+                double secondDistance = Double.POSITIVE_INFINITY;
+                int first = graph.firstEdge(v);
+                for (int b = first; b < graph.endEdge(v); b++) {
+                    double d = graph.weight(b) + field.distanceFromState(b);
+                    if (d < bestDistance) {
+                        second = best;
+                        secondDistance = bestDistance;
+                        best = b - first;
+                        bestDistance = d;
+                    } else if (d < secondDistance) {
+                        second = b - first;
+                        secondDistance = d;
+                    }
+                }
+            }
+            table[w * n + v] = (byte) (best | (second << 4));
+        }
+    }
+
+    /**
+     * Return the graph whose paths this oracle describes.
+     */
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Return the id of the first edge on a shortest non-backtracking path from vertex `v` to vertex
+     * `w`, where `incoming` is the id of the edge just traversed to reach `v` (or -1 if there is no
+     * such edge).  Returns -1 if `v == w` or if no such path exists.  Agrees with
+     * `DistanceField.nextEdge()` for a field targeting `w`.  Requires `incoming < 0` or
+     * `graph().target(incoming) == v`.
+     */
+    public int nextEdge(int v, int incoming, int w) {
+        assert incoming < 0 || graph.target(incoming) == v;
+        int packed = table[w * n + v];
+        int best = packed & 0xF;
+        if (best == NONE) {
+            return -1;
+        }
+        int first = graph.firstEdge(v);
+        if (incoming >= 0 && graph.target(first + best) == graph.source(incoming)) {
+            int second = (packed >> 4) & 0xF;
+            return (second == NONE) ? -1 : first + second;
+        }
+        return first + best;
+    }
+}
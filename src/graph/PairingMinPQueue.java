@@ -0,0 +1,223 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A min priority queue of distinct elements of type `KeyType` associated with (extrinsic) double
+ * priorities, implemented using a pairing heap paired with a hash table from elements to their
+ * nodes.  Adding an element and decreasing its priority take constant time (the node is cut from
+ * its parent and linked with the root), while removing the minimum pairs up the root's children
+ * and takes amortized logarithmic time.  Increasing a priority removes the node and adds it again.
+ */
+public class PairingMinPQueue<KeyType> implements Frontier<KeyType> {
+
+    /**
+     * A node of the heap.  The children of a node form a doubly linked list starting at `child`;
+     * `prev` is the previous sibling, or the parent for a first child, and null for the root.
+     */
+    private static class Node<KeyType> {
+
+        final KeyType key;
+        double priority;
+        Node<KeyType> child;
+        Node<KeyType> next;
+        Node<KeyType> prev;
+
+        Node(KeyType key, double priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * The root of the heap, holding a minimum priority, or null if this queue is empty.  Every
+     * node's priority is no less than its parent's.
+     */
+    private Node<KeyType> root;
+
+    /**
+     * Associates each element in the queue with its node.  Only maps elements that are in the
+     * queue.
+     */
+    private final Map<KeyType, Node<KeyType>> nodes;
+
+    /**
+     * Scratch list of subtrees being paired by `remove()`, kept to avoid reallocating it.
+     */
+    private final ArrayList<Node<KeyType>> pairs;
+
+    /**
+     * Return whether the class invariants hold.  Intended to be called as `assert inv()`, since
+     * checking takes time linear in the size of this queue.
+     */
+    private boolean inv() {
+        assert root == null || root.prev == null && root.next == null;
+        assert count(root) == nodes.size();
+        return true;
+    }
+
+    /**
+     * Return the number of nodes in the subtree rooted at `node` (and its later siblings),
+     * asserting that each is mapped by `nodes` and that no child has a smaller priority than its
+     * parent.
+     */
+    private int count(Node<KeyType> node) {
+        int n = 0;
+        for (Node<KeyType> c = node; c != null; c = c.next) {
+            assert nodes.get(c.key) == c;
+            for (Node<KeyType> d = c.child; d != null; d = d.next) {
+                assert d.priority >= c.priority;
+            }
+            n += 1 + count(c.child);
+        }
+        return n;
+    }
+
+    /**
+     * Create an empty queue.
+     */
+    public PairingMinPQueue() {
+        nodes = new HashMap<>();
+        pairs = new ArrayList<>();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public KeyType peek() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        return root.key;
+    }
+
+    @Override
+    public double minPriority() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        return root.priority;
+    }
+
+    @Override
+    public void addOrUpdate(KeyType key, double priority) {
+        Node<KeyType> node = nodes.get(key);
+        if (node == null) {
+            node = new Node<>(key, priority);
+            nodes.put(key, node);
+            root = link(root, node);
+        } else if (priority <= node.priority) {
+            node.priority = priority;
+            if (node != root) {
+                cut(node);
+                root = link(root, node);
+            }
+        } else {
+            // Detach the node's children before raising its priority above theirs
+            if (node == root) {
+                root = pair(root.child);
+            } else {
+                cut(node);
+                root = link(root, pair(node.child));
+            }
+            node.child = null;
+            node.priority = priority;
+            root = link(root, node);
+        }
+        assert inv();
+    }
+
+    @Override
+    public KeyType remove() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node<KeyType> min = root;
+        nodes.remove(min.key);
+        root = pair(min.child);
+        min.child = null;
+        assert inv();
+        return min.key;
+    }
+
+    /**
+     * Remove the subtree rooted at `node` from its parent's (or sibling's) list.  Requires `node`
+     * is not the root.
+     */
+    private void cut(Node<KeyType> node) {
+        if (node.prev.child == node) {
+            node.prev.child = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.next = null;
+        node.prev = null;
+    }
+
+    /**
+     * Link two detached heaps (either of which may be null) by making the root with the larger
+     * priority the first child of the other, and return the resulting root.
+     */
+    private Node<KeyType> link(Node<KeyType> a, Node<KeyType> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (b.priority < a.priority) {
+            Node<KeyType> t = a;
+            a = b;
+            b = t;
+        }
+        b.next = a.child;
+        if (a.child != null) {
+            a.child.prev = b;
+        }
+        b.prev = a;
+        a.child = b;
+        return a;
+    }
+
+    /**
+     * Combine the list of sibling subtrees starting at `first` into a single detached heap with the
+     * standard two-pass pairing (left to right in pairs, then right to left), and return its root,
+     * or null if the list is empty.
+     */
+    private Node<KeyType> pair(Node<KeyType> first) {
+        pairs.clear();
+        Node<KeyType> node = first;
+        while (node != null) {
+            Node<KeyType> a = node;
+            Node<KeyType> b = a.next;
+            node = (b == null) ? null : b.next;
+            a.next = null;
+            a.prev = null;
+            if (b != null) {
+                b.next = null;
+                b.prev = null;
+            }
+            pairs.add(link(a, b));
+        }
+        Node<KeyType> result = null;
+        for (int i = pairs.size() - 1; i >= 0; i--) {
+            result = link(pairs.get(i), result);
+        }
+        pairs.clear();
+        return result;
+    }
+}
@@ -0,0 +1,229 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A reusable batch of shortest non-backtracking path queries over one graph, answered together.
+ * Queries that share a source vertex and previous edge are answered by a single search that stops
+ * once all of their destinations are settled; searches from different sources are split among the
+ * workers of a `ForkJoinPool`.  Each worker reuses its own `SearchContext`, and each query slot
+ * reuses its own `EdgePath`, so once a batch has grown to fit its workload, solving it again
+ * allocates little.  A batch may be solved by only one thread at a time.
+ */
+public class PathBatch<V extends Vertex<E>, E extends Edge<V>> {
+
+    /**
+     * A search origin shared by queries: a source vertex and the edge just traversed to reach it.
+     */
+    private record Source<V, E>(V src, E previousEdge) {
+
+    }
+
+    /**
+     * Numbers the vertices of the graph being searched.
+     */
+    private final VertexIndex<? super V> index;
+
+    /**
+     * Guides every search toward its destinations.
+     */
+    private final Heuristic<? super V> heuristic;
+
+    /**
+     * The queries in this batch, in the order they were added.
+     */
+    private final ArrayList<PathQuery<V, E>> queries;
+
+    /**
+     * The path found for each query slot by the most recent `solve()`, and whether one was found.
+     * Paths may have more slots than there are queries; the extras are kept for reuse.
+     */
+    private final ArrayList<EdgePath<E>> paths;
+    private boolean[] found;
+
+    /**
+     * The queries grouped by `Source`: group `g` holds the query indices
+     * `groupMembers[groupStarts[g]..groupStarts[g+1])`, in increasing order.
+     */
+    private int[] groupStarts;
+    private int[] groupMembers;
+    private int groupCount;
+
+    /**
+     * Scratch space for each worker, kept between solves.
+     */
+    private final ArrayList<SearchContext<E>> contexts;
+
+    /**
+     * Create an empty batch of queries over the graph numbered by `index`, whose searches will be
+     * guided by `heuristic`.  Requires `heuristic` be consistent (see `Heuristic.estimate()`).
+     */
+    public PathBatch(VertexIndex<? super V> index, Heuristic<? super V> heuristic) {
+        this.index = index;
+        this.heuristic = heuristic;
+        queries = new ArrayList<>();
+        paths = new ArrayList<>();
+        found = new boolean[0];
+        groupStarts = new int[1];
+        groupMembers = new int[0];
+        contexts = new ArrayList<>();
+    }
+
+    /**
+     * Remove all queries from this batch (forgetting their paths).
+     */
+    public void clear() {
+        queries.clear();
+        groupCount = 0;
+    }
+
+    /**
+     * Add `query` to this batch, and return its index.
+     */
+    public int add(PathQuery<V, E> query) {
+        queries.add(query);
+        if (paths.size() < queries.size()) {
+            paths.add(new EdgePath<>());
+        }
+        return queries.size() - 1;
+    }
+
+    /**
+     * Add a query for a shortest non-backtracking path from `src` to `dst` not backtracking
+     * `previousEdge` (when it is not null), and return its index.  Requires that if
+     * `previousEdge != null` then `previousEdge.dst().equals(src)`.
+     */
+    public int add(V src, E previousEdge, V dst) {
+        return add(new PathQuery<>(src, previousEdge, dst));
+    }
+
+    /**
+     * Return the number of queries in this batch.
+     */
+    public int size() {
+        return queries.size();
+    }
+
+    /**
+     * Return query `i` of this batch.  Requires `0 <= i < size()`.
+     */
+    public PathQuery<V, E> query(int i) {
+        return queries.get(i);
+    }
+
+    /**
+     * Answer every query in this batch, running the searches from different sources in parallel
+     * on `pool` (or in the calling thread if there is only one worker's worth of them).
+     */
+    public void solve(ForkJoinPool pool) {
+        group();
+        if (found.length < queries.size()) {
+            found = new boolean[paths.size()];
+        }
+        int workers = Math.min(groupCount, pool.getParallelism());
+        while (contexts.size() < Math.max(workers, 1)) {
+            contexts.add(new SearchContext<>(index.vertexCount()));
+        }
+        if (workers <= 1) {
+            solveGroups(0, groupCount, contexts.getFirst());
+            return;
+        }
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[workers];
+        for (int w = 0; w < workers; w++) {
+            int from = groupCount * w / workers;
+            int to = groupCount * (w + 1) / workers;
+            SearchContext<E> context = contexts.get(w);
+            tasks[w] = pool.submit(() -> solveGroups(from, to, context));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();  // also makes the workers' results visible to this thread
+        }
+    }
+
+    /**
+     * Return the path found for query `i` by the most recent `solve()`, or null if that query has
+     * no path.  The returned list is overwritten when the batch is next solved.  Requires
+     * `0 <= i < size()` and the batch has been solved since query `i` was added.
+     */
+    public List<E> path(int i) {
+        assert i < queries.size();
+        return found[i] ? paths.get(i) : null;
+    }
+
+    /**
+     * Return the number of searches run by the most recent `solve()` (one per distinct source and
+     * previous edge).
+     */
+    public int searchCount() {
+        return groupCount;
+    }
+
+    /**
+     * Partition the queries into groups sharing a `Source`, numbering groups by first appearance.
+     */
+    private void group() {
+        int n = queries.size();
+        Map<Source<V, E>, Integer> groupIds = new HashMap<>();
+        int[] groupOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            PathQuery<V, E> query = queries.get(i);
+            Integer g = groupIds.putIfAbsent(new Source<>(query.src(), query.previousEdge()),
+                    groupIds.size());
+            groupOf[i] = (g == null) ? groupIds.size() - 1 : g;
+        }
+        groupCount = groupIds.size();
+
+        // Counting sort of query indices by group
+        if (groupStarts.length < groupCount + 1) {
+            groupStarts = new int[groupCount + 1];
+        }
+        if (groupMembers.length < n) {
+            groupMembers = new int[n];
+        }
+        Arrays.fill(groupStarts, 0, groupCount + 1, 0);
+        for (int i = 0; i < n; i++) {
+            groupStarts[groupOf[i] + 1] += 1;
+        }
+        for (int g = 0; g < groupCount; g++) {
+            groupStarts[g + 1] += groupStarts[g];
+        }
+        int[] next = Arrays.copyOf(groupStarts, groupCount);
+        for (int i = 0; i < n; i++) {
+            groupMembers[next[groupOf[i]]++] = i;
+        }
+    }
+
+    /**
+     * Answer the queries of groups `[from..to)`, using `context` for every search.
+     */
+    private void solveGroups(int from, int to, SearchContext<E> context) {
+        List<V> dsts = new ArrayList<>();
+        for (int g = from; g < to; g++) {
+            int first = groupMembers[groupStarts[g]];
+            V src = queries.get(first).src();
+            E previousEdge = queries.get(first).previousEdge();
+            if (groupStarts[g + 1] - groupStarts[g] == 1) {
+                found[first] = Pathfinding.shortestNonBacktrackingPath(src,
+                        queries.get(first).dst(), previousEdge, index, heuristic, context,
+                        paths.get(first));
+                continue;
+            }
+            dsts.clear();
+            for (int m = groupStarts[g]; m < groupStarts[g + 1]; m++) {
+                dsts.add(queries.get(groupMembers[m]).dst());
+            }
+            Pathfinding.searchToAll(src, previousEdge, dsts, index, heuristic, context);
+            for (int m = groupStarts[g]; m < groupStarts[g + 1]; m++) {
+                int i = groupMembers[m];
+                found[i] = Pathfinding.extractPath(src, queries.get(i).dst(), index, context,
+                        paths.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package graph;
+
+/**
+ * A request for a shortest non-backtracking path from `src` to `dst` whose first edge does not
+ * backtrack `previousEdge` (when it is not null), with the same meaning as the arguments of
+ * `Pathfinding.shortestNonBacktrackingPath()`.  Requires that if `previousEdge != null` then
+ * `previousEdge.dst().equals(src)`.
+ */
+public record PathQuery<V extends Vertex<E>, E extends Edge<V>>(V src, E previousEdge, V dst) {
+
+    public PathQuery {
+        assert previousEdge == null || previousEdge.dst().equals(src);
+    }
+}
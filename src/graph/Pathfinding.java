@@ -1,10 +1,12 @@
 package graph;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 public class Pathfinding {
 
@@ -30,6 +32,188 @@ public class Pathfinding {
         return paths.containsKey(dst) ? pathTo(paths, src, dst) : null;
     }
 
+    /**
+     * Equivalent to `shortestNonBacktrackingPath(src, dst, previousEdge)`, but uses `index` to
+     * store per-vertex search state in arrays and manages the frontier with an `IntMinPQueue`,
+     * avoiding the hashing and boxing costs of `pathInfo`.  The search stops as soon as `dst` is
+     * settled.  Requires `src`, `dst`, and every vertex reachable from `src` belong to the graph
+     * indexed by `index`.
+     */
+    public static <V extends Vertex<E>, E extends Edge<V>> List<E> shortestNonBacktrackingPath(
+            V src, V dst, E previousEdge, VertexIndex<? super V> index) {
+        return shortestNonBacktrackingPath(src, dst, previousEdge, index, (v, w) -> 0);
+    }
+
+    /**
+     * Equivalent to `shortestNonBacktrackingPath(src, dst, previousEdge, index)`, but performs an
+     * A* search guided by `heuristic`: vertices are settled in increasing order of their distance
+     * from `src` plus their estimated distance to `dst`, so vertices leading away from `dst` are
+     * rarely explored.  Requires `heuristic` be consistent (see `Heuristic.estimate()`).
+     */
+    public static <V extends Vertex<E>, E extends Edge<V>> List<E> shortestNonBacktrackingPath(
+            V src, V dst, E previousEdge, VertexIndex<? super V> index,
+            Heuristic<? super V> heuristic) {
+        EdgePath<E> path = new EdgePath<>();
+        boolean found = shortestNonBacktrackingPath(src, dst, previousEdge, index, heuristic,
+                new SearchContext<>(index.vertexCount()), path);
+        return found ? path : null;
+    }
+
+    /**
+     * Find the shortest non-backtracking path from `src` to `dst` as specified by
+     * `shortestNonBacktrackingPath(src, dst, previousEdge, index, heuristic)`, but reuse the
+     * caller's `context` for per-vertex search state and overwrite `path` with the edges of the
+     * result.  Returns whether such a path exists; if not, `path` is left empty.  Once `context`
+     * and `path` have grown to fit the graph, a search allocates no memory (beyond any allocated by
+     * the graph's `outgoingEdges()` iterators).
+     */
+    public static <V extends Vertex<E>, E extends Edge<V>> boolean shortestNonBacktrackingPath(
+            V src, V dst, E previousEdge, VertexIndex<? super V> index,
+            Heuristic<? super V> heuristic, SearchContext<E> context, EdgePath<E> path) {
+        assert previousEdge == null || previousEdge.dst().equals(src);
+        context.begin(index);
+        IntFrontier frontier = context.frontier();
+        path.reset();
+
+        int srcId = index.indexOf(src);
+        int dstId = index.indexOf(dst);
+        context.reach(srcId, 0, previousEdge);
+        frontier.addOrUpdate(srcId, heuristic.estimate(src, dst));
+
+        // Vertices are recovered from the edges used to reach them (or `src` itself)
+        while (!frontier.isEmpty()) {
+            int vId = frontier.remove();
+            context.countSettled();
+            if (vId == dstId) {
+                break;  // `dst` is settled, so its distance and last edge are final
+            }
+            E lastEdge = context.lastEdge(vId);
+            V v = (vId == srcId) ? src : lastEdge.dst();
+            double distance = context.distance(vId);
+
+            for (E e : v.outgoingEdges()) {
+                V neighbor = e.dst();
+
+                // Skip if this edge would immediately backtrack to the previous vertex
+                if (lastEdge != null && neighbor.equals(lastEdge.src())) {
+                    continue;
+                }
+
+                double newDist = distance + e.weight();
+                int neighborId = index.indexOf(neighbor);
+                if (newDist < context.distance(neighborId)) {
+                    context.reach(neighborId, newDist, e);
+                    frontier.addOrUpdate(neighborId, newDist + heuristic.estimate(neighbor, dst));
+                }
+            }
+        }
+
+        return extractPath(src, dst, index, context, path);
+    }
+
+    /**
+     * Search for shortest non-backtracking paths from `src` to every vertex in `dsts` with one
+     * search, whose first edge does not backtrack `previousEdge` (when it is not null), leaving
+     * the results in `context` for `extractPath()`.  The search is guided by the smallest of
+     * `heuristic`'s estimates to the destinations (which is consistent if `heuristic` is) and
+     * stops once every destination is settled.  Requires `dsts` is not empty and that if
+     * `previousEdge != null` then `previousEdge.dst().equals(src)`.
+     */
+    static <V extends Vertex<E>, E extends Edge<V>> void searchToAll(V src, E previousEdge,
+            List<? extends V> dsts, VertexIndex<? super V> index, Heuristic<? super V> heuristic,
+            SearchContext<E> context) {
+        assert previousEdge == null || previousEdge.dst().equals(src);
+        assert !dsts.isEmpty();
+        context.begin(index);
+        IntFrontier frontier = context.frontier();
+
+        int srcId = index.indexOf(src);
+        int remaining = dsts.size();
+        context.reach(srcId, 0, previousEdge);
+        frontier.addOrUpdate(srcId, estimateToAny(src, dsts, heuristic));
+
+        while (!frontier.isEmpty() && remaining > 0) {
+            int vId = frontier.remove();
+            context.countSettled();
+            for (V dst : dsts) {
+                if (index.indexOf(dst) == vId) {
+                    remaining -= 1;  // its distance and last edge are final
+                }
+            }
+            E lastEdge = context.lastEdge(vId);
+            V v = (vId == srcId) ? src : lastEdge.dst();
+            double distance = context.distance(vId);
+
+            for (E e : v.outgoingEdges()) {
+                V neighbor = e.dst();
+                if (lastEdge != null && neighbor.equals(lastEdge.src())) {
+                    continue;
+                }
+                double newDist = distance + e.weight();
+                int neighborId = index.indexOf(neighbor);
+                if (newDist < context.distance(neighborId)) {
+                    context.reach(neighborId, newDist, e);
+                    frontier.addOrUpdate(neighborId,
+                            newDist + estimateToAny(neighbor, dsts, heuristic));
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the smallest of `heuristic`'s estimates of the distance from `v` to each vertex in
+     * `dsts`.
+     */
+    private static <V> double estimateToAny(V v, List<? extends V> dsts,
+            Heuristic<? super V> heuristic) {
+        double best = Double.POSITIVE_INFINITY;
+        for (V dst : dsts) {
+            best = Math.min(best, heuristic.estimate(v, dst));
+        }
+        return best;
+    }
+
+    /**
+     * Overwrite `path` with the edges of the path from `src` to `dst` found by the most recent
+     * search using `context`, and return whether there is one (if not, `path` is left empty).
+     * Requires that search started at `src` and settled `dst` if it reached it.
+     */
+    static <V extends Vertex<E>, E extends Edge<V>> boolean extractPath(V src, V dst,
+            VertexIndex<? super V> index, SearchContext<E> context, EdgePath<E> path) {
+        path.reset();
+        if (context.distance(index.indexOf(dst)) == Double.POSITIVE_INFINITY) {
+            return false;
+        }
+        for (V current = dst; !current.equals(src); ) {
+            E edge = context.lastEdge(index.indexOf(current));
+            path.append(edge);
+            current = edge.src();
+        }
+        path.reverse();
+        return true;
+    }
+
+    /**
+     * Answer each of `queries` as `shortestNonBacktrackingPath(src, dst, previousEdge, index,
+     * heuristic)` would, returning the paths in the same order (with null for a query that has no
+     * path).  Queries sharing a source and previous edge are answered by a single search, and
+     * searches from different sources run in parallel on `pool` (see `PathBatch`).
+     */
+    public static <V extends Vertex<E>, E extends Edge<V>> List<List<E>>
+            shortestNonBacktrackingPaths(List<PathQuery<V, E>> queries,
+            VertexIndex<? super V> index, Heuristic<? super V> heuristic, ForkJoinPool pool) {
+        PathBatch<V, E> batch = new PathBatch<>(index, heuristic);
+        for (PathQuery<V, E> query : queries) {
+            batch.add(query);
+        }
+        batch.solve(pool);
+        List<List<E>> paths = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            paths.add(batch.path(i));
+        }
+        return paths;
+    }
+
     /**
      * Returns a map that associates each vertex reachable from `src` along a non-backtracking path
      * with a `PathEnd` object. The `PathEnd` object summarizes relevant information about the
@@ -37,16 +221,24 @@ public class Pathfinding {
      * contains two consecutive edges between the same two vertices (e.g., v -> w -> v). As a part
      * of this requirement, the first edge in the returned path cannot backtrack `previousEdge`
      * (when `previousEdge` is not null). Requires that if `E != null` then
-     * `previousEdge.dst().equals(src)`.
+     * `previousEdge.dst().equals(src)`.  The frontier is a `MinPQueue`; callers may choose another
+     * `Frontier` with `pathInfo(src, previousEdge, frontier)`.
      */
     static <V extends Vertex<E>, E extends Edge<V>> Map<V, PathEnd<E>> pathInfo(V src, E previousEdge) {
+        return pathInfo(src, previousEdge, new MinPQueue<>());
+    }
+
+    /**
+     * Equivalent to `pathInfo(src, previousEdge)`, but manages the frontier set of vertices with
+     * `frontier`.  Requires `frontier` is empty; it is left empty.
+     */
+    static <V extends Vertex<E>, E extends Edge<V>> Map<V, PathEnd<E>> pathInfo(V src,
+            E previousEdge, Frontier<V> frontier) {
         assert previousEdge == null || previousEdge.dst().equals(src);
-        //  11a: Complete the implementation of this method according to its specification. Your
-        //  implementation should make use of Dijkstra's algorithm (modified to prevent path back-
-        //  tracking), creating a `MinPQueue` to manage the "frontier" set of vertices, and settling
-        //  the vertices in this frontier in increasing distance order.
+        assert frontier.isEmpty();
+        // Dijkstra's algorithm, modified to prevent backtracking: settle the vertices in the
+        //  frontier in increasing order of distance
         Map<V, PathEnd<E>> pathInfo = new HashMap<>();
-        MinPQueue<V> frontier = new MinPQueue<>();
 
         // Use previousEdge as the virtual edge before src (used for backtracking check).
         pathInfo.put(src, new PathEnd<>(0, previousEdge));
@@ -0,0 +1,204 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Reusable scratch space for point-to-point searches over a graph whose vertices have dense ids
+ * (see `VertexIndex`) and whose edges have type `E`.  Reusing a context across searches avoids
+ * allocating per-vertex arrays on every query: per-vertex entries are invalidated in constant
+ * time by advancing an epoch counter rather than by clearing the arrays.  A context may be used by
+ * only one search at a time.
+ */
+public class SearchContext<E> {
+
+    /**
+     * The number of buckets a `MonotonePriorityQueue` frontier devotes to each minimum edge
+     * weight.  Buckets as wide as the minimum weight hold too many vertices of a large frontier
+     * for their minimum to be found quickly; much narrower ones leave too many empty buckets to
+     * skip.  Tuned on random mazes.
+     */
+    static final int BUCKETS_PER_MIN_WEIGHT = 16;
+
+    /**
+     * The best known distance from the source to each vertex, valid only where `stamps[v] ==
+     * epoch`.
+     */
+    private double[] distances;
+
+    /**
+     * The last edge on the best known path to each vertex (elements have type `E`), valid only
+     * where `stamps[v] == epoch`.
+     */
+    private Object[] lastEdges;
+
+    /**
+     * The epoch in which each vertex's entries were last written.
+     */
+    private int[] stamps;
+
+    /**
+     * The epoch of the current search.  Entries stamped with any other epoch are stale.
+     */
+    private int epoch;
+
+    /**
+     * The frontier of the current search: either `heap` or `buckets`.
+     */
+    private IntFrontier frontier;
+
+    /**
+     * A binary-heap frontier, suitable for any graph.
+     */
+    private IntMinPQueue heap;
+
+    /**
+     * A bucketed frontier for graphs with bounded positive edge weights, or null if no such graph
+     * has been searched since storage was last allocated.
+     */
+    private MonotonePriorityQueue buckets;
+
+    /**
+     * The edge weight bounds that `buckets` was sized for.
+     */
+    private double bucketMinWeight;
+    private double bucketMaxWeight;
+
+    /**
+     * The number of vertices settled by the most recent search.
+     */
+    private int settledCount;
+
+    /**
+     * Create a context for searching graphs with up to `vertexCount` vertices.  The context grows
+     * automatically if it is later used with a larger graph.
+     */
+    public SearchContext(int vertexCount) {
+        allocate(vertexCount);
+    }
+
+    /**
+     * Create a context whose storage will be allocated by its first search.
+     */
+    public SearchContext() {
+        this(0);
+    }
+
+    /**
+     * Replace this context's storage with fresh arrays for `vertexCount` vertices.
+     */
+    private void allocate(int vertexCount) {
+        distances = new double[vertexCount];
+        lastEdges = new Object[vertexCount];
+        stamps = new int[vertexCount];
+        heap = new IntMinPQueue(vertexCount);
+        buckets = null;
+        frontier = heap;
+        epoch = 0;
+    }
+
+    /**
+     * Prepare this context for a new search over a graph with `vertexCount` vertices, invalidating
+     * all entries from previous searches.  The search's frontier is a binary heap.
+     */
+    void begin(int vertexCount) {
+        if (stamps.length < vertexCount) {
+            allocate(vertexCount);
+        }
+        heap.clear();
+        frontier = heap;
+        restart();
+    }
+
+    /**
+     * Prepare this context for a new search over the graph numbered by `index`, invalidating all
+     * entries from previous searches.  If the graph's edge weights are known to be bounded below by
+     * a positive weight (see `BoundedWeights`), the search's frontier is a `MonotonePriorityQueue`
+     * with `BUCKETS_PER_MIN_WEIGHT` buckets per minimum weight; otherwise it is a binary heap.
+     * Either way, vertices are removed in the same order (up to ties), as long as the search's
+     * priorities are monotone.
+     */
+    void begin(VertexIndex<?> index) {
+        if (!(index instanceof BoundedWeights bounds) || !(bounds.minEdgeWeight() > 0)) {
+            begin(index.vertexCount());
+            return;
+        }
+        if (stamps.length < index.vertexCount()) {
+            allocate(index.vertexCount());
+        }
+        if (buckets == null || bucketMinWeight != bounds.minEdgeWeight()
+                || bucketMaxWeight != bounds.maxEdgeWeight()) {
+            // A* priorities may grow by up to twice an edge's weight when a heuristic estimate
+            // grows along with the distance
+            buckets = new MonotonePriorityQueue(stamps.length,
+                    bounds.minEdgeWeight() / BUCKETS_PER_MIN_WEIGHT, 2 * bounds.maxEdgeWeight());
+            bucketMinWeight = bounds.minEdgeWeight();
+            bucketMaxWeight = bounds.maxEdgeWeight();
+        }
+        buckets.clear();
+        frontier = buckets;
+        restart();
+    }
+
+    /**
+     * Reset the settled count and advance the epoch, invalidating all per-vertex entries.
+     */
+    private void restart() {
+        settledCount = 0;
+        epoch += 1;
+        if (epoch == 0) {
+            // The counter wrapped around, so old stamps could be mistaken for current ones
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+    }
+
+    /**
+     * Return the best known distance to vertex `v` in the current search, or POSITIVE_INFINITY if
+     * `v` has not been reached.
+     */
+    double distance(int v) {
+        return (stamps[v] == epoch) ? distances[v] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Return the last edge on the best known path to vertex `v` in the current search.  Requires
+     * `v` has been reached.
+     */
+    @SuppressWarnings("unchecked")
+    E lastEdge(int v) {
+        assert stamps[v] == epoch;
+        return (E) lastEdges[v];
+    }
+
+    /**
+     * Record that the best known path to vertex `v` has length `distance` and ends with
+     * `lastEdge`.
+     */
+    void reach(int v, double distance, E lastEdge) {
+        stamps[v] = epoch;
+        distances[v] = distance;
+        lastEdges[v] = lastEdge;
+    }
+
+    /**
+     * Return the frontier of the current search.
+     */
+    IntFrontier frontier() {
+        return frontier;
+    }
+
+    /**
+     * Record that one more vertex has been settled by the current search.
+     */
+    void countSettled() {
+        settledCount += 1;
+    }
+
+    /**
+     * Return the number of vertices settled by the most recent search.  This is a measure of the
+     * work that the search performed.
+     */
+    public int settledCount() {
+        return settledCount;
+    }
+}
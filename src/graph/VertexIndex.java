@@ -0,0 +1,20 @@
+package graph;
+
+/**
+ * Assigns each vertex of type `VertexType` in a graph a distinct "dense" id in
+ * `[0..vertexCount())`, allowing per-vertex search state to be stored in primitive arrays rather
+ * than in hash tables keyed by vertex.
+ */
+public interface VertexIndex<VertexType> {
+
+    /**
+     * Return the number of vertices in the graph, which bounds the ids returned by `indexOf()`.
+     */
+    int vertexCount();
+
+    /**
+     * Return the id of vertex `v`.  Requires `v` belongs to the indexed graph.  The returned id is
+     * in `[0..vertexCount())` and is distinct from the ids of all other vertices in the graph.
+     */
+    int indexOf(VertexType v);
+}
@@ -187,6 +187,13 @@ public abstract class Actor {
         location = location.progressed(edgeDistance);
     }
 
+    /**
+     * Set this actor's location to `location`, as when restoring a snapshot of its game.
+     */
+    void setLocation(Location location) {
+        this.location = location;
+    }
+
     /**
      * Set this actor's location to the start of `newEdge`.  May only be called when this actor is
      * standing on a vertex, which must equal `newEdge`'s source.
@@ -0,0 +1,165 @@
+package model;
+
+import graph.CompactGraph;
+import java.util.Arrays;
+import model.MazeGraph.MazeEdge;
+
+/**
+ * A spatial index of actors' locations in a maze, bucketing them by the undirected edge they are
+ * traversing (see `MazeGraph.undirectedEdgeId()`).  Actors are identified by their index in
+ * `[0..n)`.  Two actors can only be at the same place if they are on the same undirected edge or
+ * are both standing on a vertex shared by their edges, so collision checks need only compare an
+ * actor with its "neighbors": the actors on its own undirected edge and on the edges adjacent to
+ * it.  The index is updated incrementally, by moving an actor to another bucket when it starts
+ * traversing a new edge, and neither updates nor queries allocate.
+ */
+class ActorIndex {
+
+    /**
+     * The maze whose edges the actors traverse.
+     */
+    private final MazeGraph graph;
+
+    /**
+     * The first actor in the bucket of each undirected edge id, or -1 if the bucket is empty.
+     * Each bucket is a doubly linked list threaded through `nexts` and `prevs` (where -1 marks
+     * either end).
+     */
+    private final int[] heads;
+    private final int[] nexts;
+    private final int[] prevs;
+
+    /**
+     * The edge each actor was traversing when it was last moved, or null if it has not been added
+     * to the index, and that edge's undirected id (or -1).
+     */
+    private final MazeEdge[] edges;
+    private final int[] edgeIds;
+
+    /**
+     * The query during which each undirected edge was last visited by `collectNeighbors()`, so
+     * that edges reachable from both ends of an actor's edge are only visited once.  Queries are
+     * numbered by `epoch`, so no stamps need to be cleared between queries.
+     */
+    private final int[] stamps;
+    private int epoch;
+
+    /**
+     * The actors collected by the latest `collectNeighbors()`, in `[0..count)` for the count it
+     * returned.
+     */
+    private final int[] neighbors;
+
+    /**
+     * Create an empty index for `n` actors moving through `graph`.
+     */
+    ActorIndex(MazeGraph graph, int n) {
+        this.graph = graph;
+        CompactGraph compact = graph.compact();
+        heads = new int[compact.edgeCount()];
+        Arrays.fill(heads, -1);
+        nexts = new int[n];
+        prevs = new int[n];
+        edges = new MazeEdge[n];
+        edgeIds = new int[n];
+        Arrays.fill(edgeIds, -1);
+        stamps = new int[compact.edgeCount()];
+        neighbors = new int[n];  // each other actor is collected at most once
+    }
+
+    /**
+     * Return the edge actor `i` was traversing when it was last moved, or null if it has not been
+     * added to this index.
+     */
+    MazeEdge edge(int i) {
+        return edges[i];
+    }
+
+    /**
+     * Return the undirected edge id of `edge(i)`, or -1 if actor `i` has not been added to this
+     * index.
+     */
+    int edgeId(int i) {
+        return edgeIds[i];
+    }
+
+    /**
+     * Return the first actor in the bucket of undirected edge id `u`, or -1 if there is none.
+     * The rest of the bucket follows by `next()`.
+     */
+    int first(int u) {
+        return heads[u];
+    }
+
+    /**
+     * Return the actor following actor `i` in its bucket, or -1 if it is the last.
+     */
+    int next(int i) {
+        return nexts[i];
+    }
+
+    /**
+     * Record that actor `i` is now traversing `edge`, moving it to that edge's bucket if its
+     * undirected edge has changed.  Requires `edge` belongs to this index's graph.
+     */
+    void move(int i, MazeEdge edge) {
+        int u = graph.undirectedEdgeId(edge);
+        edges[i] = edge;
+        if (u == edgeIds[i]) {
+            return;
+        }
+        if (edgeIds[i] >= 0) {
+            // Unlink from the old bucket
+            if (prevs[i] >= 0) {
+                nexts[prevs[i]] = nexts[i];
+            } else {
+                heads[edgeIds[i]] = nexts[i];
+            }
+            if (nexts[i] >= 0) {
+                prevs[nexts[i]] = prevs[i];
+            }
+        }
+        edgeIds[i] = u;
+        prevs[i] = -1;
+        nexts[i] = heads[u];
+        if (heads[u] >= 0) {
+            prevs[heads[u]] = i;
+        }
+        heads[u] = i;
+    }
+
+    /**
+     * Collect the neighbors of actor `i`: every other actor on an undirected edge sharing a vertex
+     * with actor `i`'s edge (including that edge itself).  Return the number collected; they are
+     * given by `neighbor()`.  Requires actor `i` has been added to this index.
+     */
+    int collectNeighbors(int i) {
+        epoch += 1;
+        int count = 0;
+        CompactGraph compact = graph.compact();
+        for (int end = 0; end < 2; end++) {
+            int v = (end == 0) ? edges[i].src().id() : edges[i].dst().id();
+            for (int k = compact.firstEdge(v); k < compact.endEdge(v); k++) {
+                int u = graph.undirectedEdgeId(k);
+                if (stamps[u] == epoch) {
+                    continue;
+                }
+                stamps[u] = epoch;
+                for (int j = heads[u]; j >= 0; j = nexts[j]) {
+                    if (j != i) {
+                        neighbors[count++] = j;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Return neighbor `k` collected by the latest `collectNeighbors()`.  Requires `k` is less than
+     * the count it returned.
+     */
+    int neighbor(int k) {
+        return neighbors[k];
+    }
+}
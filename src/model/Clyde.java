@@ -1,7 +1,7 @@
 package model;
 
 import java.awt.*;
-import java.util.Random;
+import util.ForkableRandom;
 
 /**
  * The orange ghost in the game.
@@ -9,19 +9,27 @@ import java.util.Random;
 public class Clyde extends Ghost {
 
     /**
-     * Random object to randomize Clyde's target.
+     * Random object to randomize Clyde's target.  Its state is part of the game's state (see
+     * `GameModel.snapshot()`).
      */
-    final private Random random;
+    final private ForkableRandom random;
 
     /**
      * Constructs Clyde, a ghost associated to the given `model` with orange and initial delay
      * of 8 seconds.
      */
-    public Clyde(GameModel model, Random random) {
+    public Clyde(GameModel model, ForkableRandom random) {
         super(model, Color.ORANGE, 8000);
         this.random = random;
     }
 
+    /**
+     * Return the random number generator randomizing Clyde's target.
+     */
+    ForkableRandom random() {
+        return random;
+    }
+
     @Override
     protected MazeGraph.MazeVertex target() {
         if (state() == GhostState.CHASE) {
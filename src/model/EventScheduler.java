@@ -0,0 +1,374 @@
+package model;
+
+import graph.IntMinPQueue;
+import java.util.Arrays;
+import java.util.List;
+import model.MazeGraph.Direction;
+import model.MazeGraph.MazeEdge;
+
+/**
+ * Predicts the events that bound each step of a game's simulation, so that `GameModel` can
+ * propagate its actors from one event to the next.  There are two kinds of events: an actor's own
+ * event (arriving at a vertex or a state timer expiring, as reported by its
+ * `maxPropagationTime()`), and a predicted collision between two actors traversing the same
+ * undirected edge.  Predictions are kept in a priority queue keyed by absolute game time, and are
+ * only recomputed for actors whose motion has changed since they were made (because one of their
+ * own events occurred, they started a new edge, or the model changed their state); all other
+ * predictions remain valid as the actors are propagated.
+ * <p>
+ * Event ids: actor `i` (its index in the model's actor list) has own-event id `i` and
+ * collision-event id `n + i`, where `n` is the number of actors; the latter is its earliest
+ * predicted collision with another actor on its undirected edge.
+ * <p>
+ * Actors are bucketed by undirected edge in an `ActorIndex`, so that predicting an actor's
+ * collisions and checking it for collisions only consider the actors near it, and the work done
+ * per step grows linearly with the number of actors rather than with the number of pairs.
+ * Collisions are predicted from primitive arrays of each actor's position and velocity, which are
+ * filled once per step, so that predicting them allocates nothing.
+ */
+class EventScheduler {
+
+    /**
+     * How much later (in ms) than the step being considered an event may be queued and still be
+     * predicted again by `nextDt()`.  Queued times were computed at different times from the
+     * actors' motion back then, so they differ from what current motion predicts by rounding
+     * error, which is far smaller than this; an event whose queued time is within rounding error
+     * of the end of the step may bound it or not.
+     */
+    private static final double PREDICTION_SLACK = 1e-6;
+
+    /**
+     * The actors whose events are scheduled, in the model's order.
+     */
+    private final List<Actor> actors;
+
+    /**
+     * The number of actors.
+     */
+    private final int n;
+
+    /**
+     * The actors' locations, bucketed by undirected edge.  Kept up to date with the edges the
+     * actors are traversing by `track()`.
+     */
+    private final ActorIndex index;
+
+    /**
+     * The predicted absolute time of every event (POSITIVE_INFINITY if none is predicted), both
+     * indexed by id and as priorities of a queue.  Every event is in the queue once its actor's
+     * predictions have first been computed.
+     */
+    private final double[] times;
+    private final IntMinPQueue events;
+
+    /**
+     * Scratch space for the ids of the events that `nextDt()` predicts again.
+     */
+    private final int[] repredicted;
+
+    /**
+     * The actors whose own event and collisions (and those of the actors on their undirected
+     * edge) must be predicted again before the next step.
+     */
+    private final boolean[] staleActors;
+
+    /**
+     * The actors whose collision event must be predicted again before the next step.
+     */
+    private final boolean[] staleCollisions;
+
+    /**
+     * The actors whose motion changed, or one of whose events occurred, since collision candidates
+     * were last collected; every pair of such an actor and one of its neighbors in `index` is a
+     * candidate.
+     */
+    private final boolean[] touched;
+
+    /**
+     * The pairs to check for collisions after the current step, in `[0..candidateCount)`, each
+     * encoded as `i * n + j` for actors `i < j` and sorted in increasing order.
+     */
+    private long[] candidates;
+    private int candidateCount;
+
+    /**
+     * The position and velocity of each actor along its undirected edge, with RIGHT and DOWN
+     * considered the "positive" directions.  Filled from the actors' current motion by
+     * `refresh()`.
+     */
+    private final double[] positions;
+    private final double[] velocities;
+
+    /**
+     * Create a scheduler for `actors` moving through `graph`, none of whose events have been
+     * predicted yet.
+     */
+    EventScheduler(List<Actor> actors, MazeGraph graph) {
+        this.actors = actors;
+        n = actors.size();
+        index = new ActorIndex(graph, n);
+        times = new double[2 * n];
+        events = new IntMinPQueue(2 * n);
+        repredicted = new int[2 * n];
+        staleActors = new boolean[n];
+        staleCollisions = new boolean[n];
+        touched = new boolean[n];
+        candidates = new long[16];
+        positions = new double[n];
+        velocities = new double[n];
+        invalidateAll();
+    }
+
+    /**
+     * A copy of a scheduler's predictions, taken by `save()`.
+     */
+    static final class Predictions {
+
+        private final double[] times;
+        private final IntMinPQueue events;
+
+        private Predictions(double[] times, IntMinPQueue events) {
+            this.times = times;
+            this.events = events;
+        }
+    }
+
+    /**
+     * Return a copy of this scheduler's predictions, which `restore()` can later reinstate.
+     */
+    Predictions save() {
+        IntMinPQueue copy = new IntMinPQueue(events.capacity());
+        copy.copyFrom(events);
+        return new Predictions(times.clone(), copy);
+    }
+
+    /**
+     * Reinstate `predictions`, saved from this scheduler or another scheduling the same number of
+     * actors, and record that the motion of every actor may have changed.  The queue of events is
+     * arranged exactly as when they were saved, so events with tied times are considered in the
+     * same order as they would have been then.
+     */
+    void restore(Predictions predictions) {
+        assert predictions.times.length == times.length;
+        System.arraycopy(predictions.times, 0, times, 0, times.length);
+        events.copyFrom(predictions.events);
+        invalidateAll();
+    }
+
+    /**
+     * Record that the motion of actor `i` has changed, so its predictions must be recomputed and
+     * it must be checked for collisions after the next step.
+     */
+    void invalidate(int i) {
+        staleActors[i] = true;
+        touched[i] = true;
+    }
+
+    /**
+     * Record that the motion of `actor` has changed (see `invalidate(int)`).  Requires `actor` is
+     * one of the scheduled actors.
+     */
+    void invalidate(Actor actor) {
+        for (int i = 0; i < n; i++) {
+            if (actors.get(i) == actor) {
+                invalidate(i);
+                return;
+            }
+        }
+        assert false : "unscheduled actor";
+    }
+
+    /**
+     * Record that the motion of every actor may have changed.
+     */
+    void invalidateAll() {
+        for (int i = 0; i < n; i++) {
+            invalidate(i);
+        }
+    }
+
+    /**
+     * Return the time from `now` until the next event, or `maxDt` if that is sooner (or no event
+     * is predicted), after recomputing any stale predictions.  Every event queued within
+     * `PREDICTION_SLACK` of the step is predicted again from the actors' current motion rather
+     * than read from the queue, so that the step is exactly the smallest of those predictions (or
+     * `maxDt`), as if every event had just been predicted, and an actor steps exactly onto the
+     * vertex it is arriving at.  Those events are queued again at their new times, which may be
+     * later than before (such as the "arrival" of a ghost waiting in place).
+     */
+    double nextDt(double now, double maxDt) {
+        refresh(now);
+        // Track the step relative to `now`, since `(now + dt) - now` need not equal `dt`
+        double minDt = maxDt;
+        int count = 0;
+        while (!events.isEmpty() && events.minPriority() < now + minDt + PREDICTION_SLACK) {
+            int id = events.remove();
+            double dt = predict(id);
+            minDt = Math.min(minDt, dt);
+            times[id] = now + dt;
+            repredicted[count++] = id;
+        }
+        for (int k = 0; k < count; k++) {
+            events.addOrUpdate(repredicted[k], times[repredicted[k]]);
+        }
+        return minDt;
+    }
+
+    /**
+     * Record that the actors have been propagated to time `now`, marking every event predicted to
+     * have occurred by then (including the one that bounded the step) as due.
+     */
+    void advance(double now) {
+        int top = events.isEmpty() ? -1 : events.peek();
+        for (int i = 0; i < n; i++) {
+            if (i == top || times[i] <= now) {
+                invalidate(i);
+            }
+            if (n + i == top || times[n + i] <= now) {
+                touched[i] = true;
+                staleEdgemates(i);
+            }
+        }
+    }
+
+    /**
+     * Collect the pairs of actors that may have collided during the latest step: every pair of an
+     * actor whose motion changed, or one of whose events occurred, and one of its neighbors (the
+     * actors on the same or an adjacent undirected edge).  Return the number of pairs collected;
+     * their actors are given by `first()` and `second()`, in lexicographic order of their indices.
+     * Pairs of actors that neither arrived at nor left a vertex, nor were predicted to meet,
+     * cannot have collided, so they are not collected.
+     */
+    int collisionCandidates() {
+        track();
+        candidateCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (!touched[i]) {
+                continue;
+            }
+            for (int k = 0, count = index.collectNeighbors(i); k < count; k++) {
+                int j = index.neighbor(k);
+                if (touched[j] && j < i) {
+                    continue;  // already collected as a neighbor of `j`
+                }
+                if (candidateCount == candidates.length) {
+                    candidates = Arrays.copyOf(candidates, 2 * candidateCount);
+                }
+                candidates[candidateCount++] = (long) Math.min(i, j) * n + Math.max(i, j);
+            }
+        }
+        Arrays.fill(touched, false);
+        Arrays.sort(candidates, 0, candidateCount);
+        return candidateCount;
+    }
+
+    /**
+     * Return the first actor of collision candidate `k`.  Requires `k` is less than the count
+     * returned by the latest `collisionCandidates()`.
+     */
+    Actor first(int k) {
+        return actors.get((int) (candidates[k] / n));
+    }
+
+    /**
+     * Return the second actor of collision candidate `k`.  Requires `k` is less than the count
+     * returned by the latest `collisionCandidates()`.
+     */
+    Actor second(int k) {
+        return actors.get((int) (candidates[k] % n));
+    }
+
+    /**
+     * Set the predicted time of event `id` to `time`.
+     */
+    private void schedule(int id, double time) {
+        times[id] = time;
+        events.addOrUpdate(id, time);
+    }
+
+    /**
+     * Move every actor that has started traversing a different edge since it was last tracked to
+     * that edge's bucket in `index`, treating its motion as changed.  The collisions of the actors
+     * on both its old and new undirected edges must then be predicted again.
+     */
+    private void track() {
+        for (int i = 0; i < n; i++) {
+            MazeEdge e = actors.get(i).location().edge();
+            if (e != index.edge(i)) {
+                if (index.edge(i) != null) {
+                    staleEdgemates(i);
+                }
+                index.move(i, e);
+                invalidate(i);
+            }
+        }
+    }
+
+    /**
+     * Record that the collisions of actor `i` and every other actor on its undirected edge must be
+     * predicted again.
+     */
+    private void staleEdgemates(int i) {
+        for (int j = index.first(index.edgeId(i)); j >= 0; j = index.next(j)) {
+            staleCollisions[j] = true;
+        }
+    }
+
+    /**
+     * Record the actors' current motion, then recompute the predictions of stale actors and stale
+     * collisions, relative to time `now`.
+     */
+    private void refresh(double now) {
+        track();
+        for (int i = 0; i < n; i++) {
+            Actor actor = actors.get(i);
+            MazeEdge e = actor.location().edge();
+            boolean positive = e.direction() == Direction.RIGHT || e.direction() == Direction.DOWN;
+            double progress = actor.location().progress();
+            positions[i] = positive ? progress : 1 - progress;
+            velocities[i] = positive ? actor.edgeSpeed() : -actor.edgeSpeed();
+        }
+        for (int i = 0; i < n; i++) {
+            if (staleActors[i]) {
+                schedule(i, now + predict(i));
+                staleEdgemates(i);
+                staleActors[i] = false;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (staleCollisions[i]) {
+                schedule(n + i, now + predict(n + i));
+                staleCollisions[i] = false;
+            }
+        }
+    }
+
+    /**
+     * Return the time until event `id` occurs, given the actors' current motion, or
+     * POSITIVE_INFINITY if it will not occur.
+     */
+    private double predict(int id) {
+        if (id < n) {
+            return actors.get(id).maxPropagationTime();
+        }
+        int i = id - n;
+        double minDt = Double.POSITIVE_INFINITY;
+        for (int j = index.first(index.edgeId(i)); j >= 0; j = index.next(j)) {
+            if (j != i) {
+                minDt = Math.min(minDt, collisionTime(i, j));
+            }
+        }
+        return minDt;
+    }
+
+    /**
+     * Return the time until actors `i` and `j`, which are traversing the same undirected edge, meet
+     * given their motion as of the latest `refresh()`, or POSITIVE_INFINITY if they will not meet
+     * on it.
+     */
+    private double collisionTime(int i, int j) {
+        double s = (positions[j] - positions[i]) / (velocities[i] - velocities[j]);
+        // Note: inequality skips NaNs
+        return (s > 0) ? s : Double.POSITIVE_INFINITY;
+    }
+}
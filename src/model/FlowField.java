@@ -0,0 +1,93 @@
+package model;
+
+import graph.CompactGraph;
+import graph.DistanceField;
+import java.util.Arrays;
+import model.MazeGraph.Direction;
+import model.MazeGraph.MazeEdge;
+import model.MazeGraph.MazeVertex;
+
+/**
+ * A table giving, for every state of a maze, the direction to move in order to follow a shortest
+ * non-backtracking path to a fixed target vertex.  A state pairs a vertex with the direction in
+ * which it was entered (or no direction, for an actor that has not moved yet), so a lookup takes
+ * constant time regardless of how many actors share the field.  Fields are immutable once built.
+ */
+public class FlowField {
+
+    /**
+     * The number of table entries per vertex: one per incoming direction, plus one for "no
+     * incoming direction".
+     */
+    private static final int STATES_PER_VERTEX = Direction.values().length + 1;
+
+    /**
+     * All directions, indexed by ordinal.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * Table value indicating that the target cannot be reached (or has already been reached).
+     */
+    private static final byte NONE = -1;
+
+    /**
+     * The vertex this field leads to.
+     */
+    private final MazeVertex target;
+
+    /**
+     * The ordinal of the direction to move from each state, or `NONE`.  The entry for vertex `v`
+     * entered moving in direction `d` is at index `v.id() * STATES_PER_VERTEX + d.ordinal()`; the
+     * entry for `v` with no incoming direction follows the entries for all directions.
+     */
+    private final byte[] table;
+
+    /**
+     * Build the flow field of `graph` leading to `target`, using `scratch` (which must cover
+     * `graph.compact()`) to compute distances.  Takes time `O(E log E)` for a maze with `E` edges.
+     */
+    public FlowField(MazeGraph graph, MazeVertex target, DistanceField scratch) {
+        assert scratch.graph() == graph.compact();
+        this.target = target;
+        CompactGraph compact = graph.compact();
+        table = new byte[graph.vertexCount() * STATES_PER_VERTEX];
+        Arrays.fill(table, NONE);
+
+        scratch.compute(target.id());
+        for (int k = 0; k < compact.edgeCount(); k++) {
+            int v = compact.target(k);
+            int b = scratch.nextEdge(v, k);
+            if (b >= 0) {
+                table[v * STATES_PER_VERTEX + compact.label(k)] = compact.label(b);
+            }
+        }
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            int b = scratch.nextEdge(v, -1);
+            if (b >= 0) {
+                table[(v + 1) * STATES_PER_VERTEX - 1] = compact.label(b);
+            }
+        }
+    }
+
+    /**
+     * Return the vertex this field leads to.
+     */
+    public MazeVertex target() {
+        return target;
+    }
+
+    /**
+     * Return the first edge on a shortest path from `v` to this field's target that does not
+     * backtrack `previousEdge` (when it is not null).  Returns null if `v` is the target or if
+     * the target cannot be reached.  Requires that if `previousEdge != null` then
+     * `previousEdge.dst().equals(v)`.
+     */
+    public MazeEdge nextEdge(MazeVertex v, MazeEdge previousEdge) {
+        assert previousEdge == null || previousEdge.dst().equals(v);
+        int state = (previousEdge == null) ? (v.id() + 1) * STATES_PER_VERTEX - 1
+                : v.id() * STATES_PER_VERTEX + previousEdge.direction().ordinal();
+        byte d = table[state];
+        return (d == NONE) ? null : v.edgeInDirection(DIRECTIONS[d]);
+    }
+}
@@ -1,5 +1,7 @@
 package model;
 
+import graph.DistanceField;
+import graph.PathBatch;
 import java.util.HashSet;
 
 import model.MazeGraph.IPair;
@@ -11,15 +13,18 @@ import util.MazeGenerator.TileType;
 
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import javax.swing.event.SwingPropertyChangeSupport;
 
+import model.Actor.Location;
 import model.Ghost.GhostState;
 import model.MazeGraph.Direction;
+import util.ForkableRandom;
 import util.GameMap;
 import util.Randomness;
 
@@ -49,10 +54,17 @@ public class GameModel {
     public enum Item {DOT, PELLET, NONE}
 
     /**
-     * A map from the vertices in the game graph to items positioned on these vertices. `item` only
-     * includes the vertices containing DOTs and PELLETs, not NONE.
+     * The vertices in the game graph containing DOTs and PELLETs, as sets of vertex ids.  No
+     * vertex is in both sets.
      */
-    private final Map<MazeVertex, Item> items;
+    private final BitSet dots;
+    private final BitSet pellets;
+
+    /**
+     * The number of vertices containing an item (that is, the total size of `dots` and
+     * `pellets`).
+     */
+    private int itemCount;
 
     /**
      * The graph representation of the game's maze
@@ -69,6 +81,16 @@ public class GameModel {
      */
     private double time;
 
+    /**
+     * The number of simulation steps taken by `updateActors()`, each ending at an event
+     */
+    private long eventCount;
+
+    /**
+     * The number of path queries issued by ghosts navigating toward their targets
+     */
+    private long pathQueryCount;
+
     /**
      * The number of cells across the maze is
      */
@@ -94,6 +116,45 @@ public class GameModel {
      */
     private int numLives;
 
+    /**
+     * Distances from every state of the maze to PacMann's nearest vertex, shared by all ghosts
+     * targeting that vertex (see `distanceFieldTo()`), or null if none has been requested yet.
+     */
+    private DistanceField pacMannField;
+
+    /**
+     * The vertex that `pacMannField` currently measures distances to, or null if it has not been
+     * computed since PacMann last arrived at a new vertex.
+     */
+    private MazeVertex pacMannFieldTarget;
+
+    /**
+     * The maximum number of flow fields retained by `flowFieldTo()`.
+     */
+    private static final int FLOW_FIELD_CACHE_SIZE = 32;
+
+    /**
+     * Recently used flow fields, keyed by target vertex and ordered from least to most recently
+     * used.
+     */
+    private final LinkedHashMap<MazeVertex, FlowField> flowFields;
+
+    /**
+     * Scratch space for building flow fields, or null if none has been built yet.
+     */
+    private DistanceField flowFieldScratch;
+
+    /**
+     * Predicts the events (vertex arrivals, state timer expiries, and collisions) that bound each
+     * step of `updateActors()`, or null if it has not been needed yet (see `scheduler()`).
+     */
+    private EventScheduler scheduler;
+
+    /**
+     * The path queries of ghosts navigating in BATCHED mode, answered together once per step.
+     */
+    private final PathBatch<MazeVertex, MazeEdge> navigationBatch;
+
     /**
      * Last direction input by the player
      */
@@ -123,13 +184,24 @@ public class GameModel {
      * Construct a new game model using the given arrays of tile types and elevations
      */
     public GameModel(GameMap map, Randomness randomness, boolean withAI) {
+        this(map, new MazeGraph(map), randomness.forkableGeneratorFor("Clyde"), withAI);
+    }
+
+    /**
+     * Construct a new game model for `map`, whose graph is `graph`, with Clyde drawing on
+     * `clydeRandom`.
+     */
+    private GameModel(GameMap map, MazeGraph graph, ForkableRandom clydeRandom, boolean withAI) {
         this.map = map;
         width = map.types().length;
         height = map.types()[0].length;
-        graph = new MazeGraph(map);
+        this.graph = graph;
 
-        items = new HashMap<>();
+        dots = new BitSet(graph.vertexCount());
+        pellets = new BitSet(graph.vertexCount());
         placeDotsAndPellets();
+        navigationBatch = newNavigationBatch(graph);
+        flowFields = newFlowFieldCache();
 
         score = 0;
         time = 0;
@@ -144,12 +216,86 @@ public class GameModel {
         actors.add(new Blinky(this));
         actors.add(new Pinky(this));
         actors.add(new Inky(this));
-        actors.add(new Clyde(this, randomness.generatorFor("Clyde")));
+        actors.add(new Clyde(this, clydeRandom));
 
         boolean notifyOnEdt = false; // no threads, so false is okay
         propSupport = new SwingPropertyChangeSupport(this, notifyOnEdt);
     }
 
+    /**
+     * Construct a new game in the current state of `original` (see `fork()`), sharing its map,
+     * graph, and flow fields.  Only the state that changes during play is copied: the items, the
+     * counters, and every actor's location, state, and timers, with Clyde drawing on a copy of
+     * `original`'s generator.  Nothing is recomputed from the maze.  Requires `original` is not
+     * in the middle of `updateActors()`.
+     */
+    private GameModel(GameModel original) {
+        map = original.map;
+        width = original.width;
+        height = original.height;
+        graph = original.graph;
+
+        dots = (BitSet) original.dots.clone();
+        pellets = (BitSet) original.pellets.clone();
+        itemCount = original.itemCount;
+        navigationBatch = newNavigationBatch(graph);
+        flowFields = newFlowFieldCache();
+        flowFields.putAll(original.flowFields);  // in the same order of use
+
+        state = original.state;
+        score = original.score;
+        time = original.time;
+        eventCount = original.eventCount;
+        pathQueryCount = original.pathQueryCount;
+        numGhostsCaught = original.numGhostsCaught;
+        numLives = original.numLives;
+        lastDirection = original.lastDirection;
+
+        actors = new ArrayList<>();
+        actors.add(new PacMannManual(this));
+        actors.add(new Blinky(this));
+        actors.add(new Pinky(this));
+        actors.add(new Inky(this));
+        actors.add(new Clyde(this, ((Clyde) original.clyde()).random().fork()));
+        for (int i = 0; i < actors.size(); i++) {
+            Actor actor = original.actors.get(i);
+            if (actor instanceof Ghost ghost) {
+                Ghost copy = (Ghost) actors.get(i);
+                copy.restore(ghost.state(), ghost.waitTimeRemaining(), ghost.fleeTimeRemaining(),
+                        ghost.location());
+                copy.setNavigation(ghost.navigation());
+            } else {
+                actors.get(i).setLocation(actor.location());
+            }
+        }
+
+        boolean notifyOnEdt = false; // no threads, so false is okay
+        propSupport = new SwingPropertyChangeSupport(this, notifyOnEdt);
+    }
+
+    /**
+     * Return an empty batch for the path queries of ghosts navigating over `graph` in BATCHED
+     * mode.
+     */
+    private static PathBatch<MazeVertex, MazeEdge> newNavigationBatch(MazeGraph graph) {
+        // Batched searches choose among equally short paths in an order that depends on their
+        //  heuristic, so they keep to one that does not change when the landmarks become ready
+        return new PathBatch<>(graph, graph.manhattanHeuristic());
+    }
+
+    /**
+     * Return an empty cache of flow fields, which keeps the `FLOW_FIELD_CACHE_SIZE` most recently
+     * used fields.
+     */
+    private static LinkedHashMap<MazeVertex, FlowField> newFlowFieldCache() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MazeVertex, FlowField> eldest) {
+                return size() > FLOW_FIELD_CACHE_SIZE;
+            }
+        };
+    }
+
     /**
      * Static method to construct a GameModel object associated with a new random maze
      */
@@ -165,7 +311,7 @@ public class GameModel {
     }
 
     /**
-     * Adds all dots and pellets to `items` during the construction of this game.
+     * Adds all dots and pellets to `dots` and `pellets` during the construction of this game.
      */
     private void placeDotsAndPellets() {
         // build set of pellet locations
@@ -181,7 +327,8 @@ public class GameModel {
 
         for (MazeVertex v : graph.vertices()) {
             if (pelletLocs.contains(v.loc())) {
-                items.put(v, Item.PELLET);
+                pellets.set(v.id());
+                itemCount += 1;
                 continue;
             }
 
@@ -190,7 +337,8 @@ public class GameModel {
 
             // place pellets at all interior vertices
             if (i >= 2 && i < width - 2 && j >= 2 && j < height - 2) {
-                items.put(v, Item.DOT);
+                dots.set(v.id());
+                itemCount += 1;
             }
         }
     }
@@ -283,12 +431,95 @@ public class GameModel {
         return time;
     }
 
+    /**
+     * Return the number of events processed so far: the number of simulation steps taken by
+     * `updateActors()`, each of which ends at a vertex arrival, state timer expiry, or predicted
+     * collision (or at the end of the requested update).
+     */
+    public long eventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Return the number of path queries issued so far by ghosts deciding which edge to take next,
+     * however their navigation answers them.
+     */
+    public long pathQueryCount() {
+        return pathQueryCount;
+    }
+
+    /**
+     * Record that a ghost has issued a path query (see `pathQueryCount()`).
+     */
+    void countPathQuery() {
+        pathQueryCount += 1;
+    }
+
+    /**
+     * Return a distance field measuring distances to `target` if `target` is PacMann's nearest
+     * vertex, or null otherwise.  The field is computed (with one reverse search) on the first
+     * request after PacMann arrives at a new vertex and is then shared by every ghost chasing him,
+     * each of which can read its next edge from the field instead of running its own search.  The
+     * returned field is overwritten once PacMann moves on, so callers must not retain it.
+     */
+    public DistanceField distanceFieldTo(MazeVertex target) {
+        if (!target.equals(pacMann().nearestVertex())) {
+            return null;
+        }
+        if (pacMannField == null) {
+            pacMannField = new DistanceField(graph.compact());
+        }
+        if (!target.equals(pacMannFieldTarget)) {
+            pacMannField.compute(target.id());
+            pacMannFieldTarget = target;
+        }
+        return pacMannField;
+    }
+
+    /**
+     * Return the scheduler predicting this game's events, creating it on first use (rather than
+     * in the constructor, so that the actors it reads are never seen by another class before this
+     * game is fully constructed).
+     */
+    private EventScheduler scheduler() {
+        if (scheduler == null) {
+            scheduler = new EventScheduler(actors, graph);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Return the batch of ghost path queries answered during the current step's navigation.
+     */
+    PathBatch<MazeVertex, MazeEdge> navigationBatch() {
+        return navigationBatch;
+    }
+
+    /**
+     * Return the flow field leading to `target`, building it if it is not among the
+     * `FLOW_FIELD_CACHE_SIZE` most recently requested fields.  Since the maze never changes, a
+     * field stays valid for the rest of the game, and ghosts sharing a target share one field no
+     * matter how many of them there are.
+     */
+    public FlowField flowFieldTo(MazeVertex target) {
+        FlowField field = flowFields.get(target);
+        if (field == null) {
+            if (flowFieldScratch == null) {
+                flowFieldScratch = new DistanceField(graph.compact());
+            }
+            field = new FlowField(graph, target, flowFieldScratch);
+            flowFields.put(target, field);
+        }
+        return field;
+    }
+
     /**
      * Return the item located at the given Vertex `v`, possibly NONE. This method will never return
      * null.
      */
     public Item itemAt(MazeVertex v) {
-        return items.getOrDefault(v, Item.NONE);
+        int id = v.id();
+        return dots.get(id) ? Item.DOT : pellets.get(id) ? Item.PELLET : Item.NONE;
     }
 
 
@@ -327,6 +558,7 @@ public class GameModel {
         numGhostsCaught = 0;
         for (int i = 1; i < actors.size(); i++) {
             ((Ghost) actors.get(i)).startFlee();
+            scheduler().invalidate(i);
         }
     }
 
@@ -334,20 +566,17 @@ public class GameModel {
      * Update the model to reflect PacMann's arrival at a vertex.
      */
     public void processPacMannArrival() {
-        MazeVertex v = pacMann().nearestVertex();
-        if (items.containsKey(v)) {
-            Item item = items.remove(v);
-            // Remove and get the item at vertex `v` if any
-
-            switch (item) {
-                case DOT:
-                    addToScore(10);
-                    break;
-                case PELLET:
-                    addToScore(50);
-                    startFlee();
-                    break;
-            }
+        int id = pacMann().nearestVertex().id();
+        // Remove the item at the vertex, if any
+        if (dots.get(id)) {
+            dots.clear(id);
+            itemCount -= 1;
+            addToScore(10);
+        } else if (pellets.get(id)) {
+            pellets.clear(id);
+            itemCount -= 1;
+            addToScore(50);
+            startFlee();
         }
     }
 
@@ -368,6 +597,7 @@ public class GameModel {
         for (Actor a : actors) {
             a.reset();
         }
+        scheduler().invalidateAll();
         setState(GameState.READY);
     }
 
@@ -407,6 +637,199 @@ public class GameModel {
         propSupport.firePropertyChange("game_result", null, GameState.VICTORY);
     }
 
+    /* ****************************************************************
+     * Snapshots                                                      *
+     **************************************************************** */
+
+    /**
+     * The mutable state of a game at some point in its play: its state, score, elapsed time,
+     * lives, and counters, the items remaining in the maze, every actor's location, the ghosts'
+     * states and timers, the player's last command, the state of Clyde's random number generator,
+     * and the predictions of its event scheduler.  The maze itself is not included, since it
+     * never changes; a snapshot can only be restored into a game on the same `MazeGraph`.
+     * Snapshots are immutable, so one may be restored any number of times, into any number of
+     * games.
+     */
+    public static final class Snapshot {
+
+        private final MazeGraph graph;
+        private final GameState state;
+        private final int score;
+        private final double time;
+        private final long eventCount;
+        private final long pathQueryCount;
+        private final int numGhostsCaught;
+        private final int numLives;
+        private final Direction lastDirection;
+
+        /**
+         * The vertices containing DOTs and PELLETs, and their total number (see `dots`,
+         * `pellets`, and `itemCount`).  Never modified once taken.
+         */
+        private final BitSet dots;
+        private final BitSet pellets;
+        private final int itemCount;
+
+        /**
+         * The location of each actor, and the state and WAIT and FLEE timers of each ghost (whose
+         * entries for PacMann are unused), indexed as in the game's actor list.
+         */
+        private final Location[] locations;
+        private final GhostState[] ghostStates;
+        private final double[] waitTimes;
+        private final double[] fleeTimes;
+
+        /**
+         * The state of Clyde's random number generator.
+         */
+        private final long clydeRandomState;
+
+        /**
+         * The event predictions of the game's scheduler, whose arrangement decides how events
+         * with tied times are ordered.
+         */
+        private final EventScheduler.Predictions predictions;
+
+        /**
+         * Capture the current state of `model`.
+         */
+        private Snapshot(GameModel model) {
+            graph = model.graph;
+            state = model.state;
+            score = model.score;
+            time = model.time;
+            eventCount = model.eventCount;
+            pathQueryCount = model.pathQueryCount;
+            numGhostsCaught = model.numGhostsCaught;
+            numLives = model.numLives;
+            lastDirection = model.lastDirection;
+
+            dots = (BitSet) model.dots.clone();
+            pellets = (BitSet) model.pellets.clone();
+            itemCount = model.itemCount;
+
+            int n = model.actors.size();
+            locations = new Location[n];
+            ghostStates = new GhostState[n];
+            waitTimes = new double[n];
+            fleeTimes = new double[n];
+            for (int i = 0; i < n; i++) {
+                Actor actor = model.actors.get(i);
+                locations[i] = actor.location();
+                if (actor instanceof Ghost ghost) {
+                    ghostStates[i] = ghost.state();
+                    waitTimes[i] = ghost.waitTimeRemaining();
+                    fleeTimes[i] = ghost.fleeTimeRemaining();
+                }
+            }
+            clydeRandomState = ((Clyde) model.clyde()).random().state();
+            predictions = model.scheduler().save();
+        }
+
+        /**
+         * Return the state of the game when this snapshot was taken.
+         */
+        public GameState state() {
+            return state;
+        }
+
+        /**
+         * Return the score when this snapshot was taken.
+         */
+        public int score() {
+            return score;
+        }
+
+        /**
+         * Return the elapsed time when this snapshot was taken.
+         */
+        public double time() {
+            return time;
+        }
+
+        /**
+         * Return the number of remaining lives when this snapshot was taken.
+         */
+        public int numLives() {
+            return numLives;
+        }
+    }
+
+    /**
+     * Return a snapshot of the current state of this game, which `restore()` can later return this
+     * game (or another game on the same graph) to.  The items are copied one bit per vertex, so
+     * this takes little time even for large mazes.  Should not be called during
+     * `updateActors()`.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Return this game to the state captured by `snapshot`, notifying observers of any change in
+     * score, lives, or state, and "board_state" observers.  Play then proceeds exactly as it did
+     * from the time the snapshot was taken, given the same sequence of updates and player
+     * commands (except that ghosts navigating INCREMENTALLY start new search trees, so they may
+     * choose differently among equally short paths).  The maze is not rebuilt, and the items are
+     * copied one bit per vertex, so this takes little time even for large mazes.  Requires
+     * `snapshot` was taken of a game on this game's graph, and this method is not called during
+     * `updateActors()`.
+     */
+    public void restore(Snapshot snapshot) {
+        assert snapshot.graph == graph : "snapshot of a game on a different maze";
+        int oldScore = score;
+        int oldLives = numLives;
+        GameState oldState = state;
+
+        state = snapshot.state;
+        score = snapshot.score;
+        time = snapshot.time;
+        eventCount = snapshot.eventCount;
+        pathQueryCount = snapshot.pathQueryCount;
+        numGhostsCaught = snapshot.numGhostsCaught;
+        numLives = snapshot.numLives;
+        lastDirection = snapshot.lastDirection;
+
+        dots.clear();
+        dots.or(snapshot.dots);
+        pellets.clear();
+        pellets.or(snapshot.pellets);
+        itemCount = snapshot.itemCount;
+
+        for (int i = 0; i < actors.size(); i++) {
+            Actor actor = actors.get(i);
+            if (actor instanceof Ghost ghost) {
+                ghost.restore(snapshot.ghostStates[i], snapshot.waitTimes[i],
+                        snapshot.fleeTimes[i], snapshot.locations[i]);
+            } else {
+                actor.setLocation(snapshot.locations[i]);
+            }
+        }
+        ((Clyde) clyde()).random().setState(snapshot.clydeRandomState);
+        pacMannFieldTarget = null;
+        scheduler().restore(snapshot.predictions);
+
+        propSupport.firePropertyChange("score", oldScore, score);
+        propSupport.firePropertyChange("lives", oldLives, numLives);
+        propSupport.firePropertyChange("game_state", oldState, state);
+        propSupport.firePropertyChange("board_state", null, null);
+    }
+
+    /**
+     * Return a new game in the current state of this one, sharing this game's map and graph (and
+     * their preprocessing) and its flow fields, whose play then proceeds independently of this
+     * one's.  Its ghosts navigate as this game's do.  Only the state that changes during play is
+     * copied (as for `snapshot()`, with the items copied one bit per vertex), so forking takes
+     * little time even for large mazes.  As after `restore()`, play proceeds exactly as this
+     * game's would, given the same sequence of updates and player commands.  Observers of this
+     * game are not copied.  Should not be called during `updateActors()`.
+     */
+    public GameModel fork() {
+        GameModel copy = new GameModel(this);
+        copy.scheduler().restore(scheduler().save());
+        return copy;
+    }
+
     /* ****************************************************************
      * Observational interface                                        *
      **************************************************************** */
@@ -458,6 +881,7 @@ public class GameModel {
             numGhostsCaught += 1;
             addToScore((int) (100 * Math.pow(2, numGhostsCaught)));
             g.respawn();
+            scheduler().invalidate(g);
         } else if (g.state() == GhostState.CHASE) {
             throw new PacMannCaught();
         }
@@ -469,11 +893,17 @@ public class GameModel {
      * visitations.  Update actors' traversed edges upon reaching a vertex.  Handle round-end and
      * game-end conditions, notifying observers.  Notify "board_state" observers after propagation
      * has concluded.
+     * <p>
+     * Time advances from one event to the next (see `EventScheduler`): each step ends at the
+     * earliest vertex arrival, state timer expiry, or predicted collision, and afterward only the
+     * actors involved in an event are checked for collisions and have their predictions
+     * recomputed.
      */
     public void updateActors(double totalDt) {
         if (state == GameState.READY) {
             setState(GameState.PLAYING);
         }
+        scheduler().invalidateAll();  // actors may have been changed since the last update
 
         try {
             double t = 0;
@@ -485,18 +915,18 @@ public class GameModel {
                 // Propagate actors
                 t += dt;
                 time += dt;
+                eventCount += 1;
                 for (Actor a : actors) {
                     a.propagate(dt);
                 }
-
-                // Check for collisions
-                for (int i = 0; i < actors.size(); i += 1) {
-                    Actor a = actors.get(i);
-                    for (int j = i + 1; j < actors.size(); j += 1) {
-                        Actor b = actors.get(j);
-                        if (a.location().collidesWith(b.location())) {
-                            processCollision(a, b);
-                        }
+                scheduler().advance(time);
+
+                // Check for collisions among the actors involved in this step's events
+                for (int k = 0, count = scheduler().collisionCandidates(); k < count; k += 1) {
+                    Actor a = scheduler().first(k);
+                    Actor b = scheduler().second(k);
+                    if (a.location().collidesWith(b.location())) {
+                        processCollision(a, b);
                     }
                 }
 
@@ -506,8 +936,11 @@ public class GameModel {
                         a.visitVertex(a.location().edge().dst());
                     }
                 }
+                if (!pacMann().nearestVertex().equals(pacMannFieldTarget)) {
+                    pacMannFieldTarget = null;  // PacMann has moved on; recompute on next request
+                }
                 // Check for end game condition
-                if (items.isEmpty()) {
+                if (itemCount == 0) {
                     victory();
                     break;
                 }
@@ -524,7 +957,19 @@ public class GameModel {
      * next.  Enforces that their next edge starts at their current location.
      */
     private void navAndGuide() {
+        // Ghosts navigating in batches submit their queries first, to be answered together
+        navigationBatch.clear();
         for (Actor a : actors) {
+            if (a instanceof Ghost g && a.location().atVertex()) {
+                g.enqueueQuery(navigationBatch);
+            }
+        }
+        if (navigationBatch.size() > 0) {
+            navigationBatch.solve(ForkJoinPool.commonPool());
+        }
+
+        for (int i = 0; i < actors.size(); i++) {
+            Actor a = actors.get(i);
             if (a.location().atVertex()) {
                 MazeVertex start = a.location().nearestVertex();
                 MazeEdge e = a.nextEdge();
@@ -533,6 +978,7 @@ public class GameModel {
                         throw new RuntimeException("Illegal next edge");
                     }
                     a.traverseEdge(e);
+                    scheduler().invalidate(i);
                 }
             }
         }
@@ -544,70 +990,11 @@ public class GameModel {
      * A minimum timestep is imposed to ensure forward progress.
      */
     private double nextDt(double maxDt) {
-        double minDt = maxDt;
-        for (Actor a : actors) {
-            minDt = Math.min(minDt, a.maxPropagationTime());
-        }
-        minDt = Math.min(minDt, nextCollisionTime());
+        double minDt = scheduler().nextDt(time, maxDt);
         final double minAllowedDt = 1e-7;
         return Math.max(minDt, minAllowedDt);
     }
 
-    /**
-     * Return the earliest timestep at which two actors will collide, given their current
-     * trajectories.  Actors may cross each other along an edge or may meet at a vertex. Returns
-     * POSITIVE_INFINITY if no actors will collide along their current edge trajectories.
-     */
-    private double nextCollisionTime() {
-        double minDt = Double.POSITIVE_INFINITY;
-
-        // The current location and velocity of each actor, associated with the _undirected_ edge
-        //  they are currently traversing.
-        Map<UnorderedPair<MazeVertex>, List<Trajectory>> movements = new HashMap<>();
-
-        for (Actor a : actors) {
-            // Determine the unordered edge that `a` is currently traversing, and query any
-            //  previously seen actors traversing that same edge (in either direction)
-            MazeEdge e = a.location().edge();
-            UnorderedPair<MazeVertex> ue = new UnorderedPair<>(e.src(), e.dst());
-            List<Trajectory> edgemates = movements.computeIfAbsent(ue,
-                    k -> new LinkedList<>());
-
-            // Compute the intersection time between this actor and any already-seen actor
-            //  traversing the same edge
-            var myAm = Trajectory.fromActor(a);
-            for (Trajectory am : edgemates) {
-                // Don't trigger if starting from the same place
-//                if (myAm.p() == am.p()) { continue; }
-                double s = (myAm.p() - am.p()) / (am.v() - myAm.v());
-                // Note: inequality skips NaNs
-                if (s > 0 && s < minDt) {
-                    minDt = s;
-                }
-            }
-
-            // Add our trajectory to the map, to be seen by subsequent actors
-            edgemates.add(myAm);
-        }
-        return minDt;
-    }
-
-    /**
-     * The position and velocity of an actor on an associated _undirected_ edge.  RIGHT and DOWN are
-     * considered the "positive" directions.
-     */
-    private record Trajectory(double p, double v) {
-
-        public static Trajectory fromActor(Actor actor) {
-            MazeEdge e = actor.location().edge();
-            if (e.direction() == Direction.RIGHT || e.direction() == Direction.DOWN) {
-                return new Trajectory(actor.location().progress(), actor.edgeSpeed());
-            } else {
-                return new Trajectory(1 - actor.location().progress(), -actor.edgeSpeed());
-            }
-        }
-    }
-
     /**
      * Indicates that a collision between PacMann and a CHASING ghost was detected, meaning that the
      * current round should end.
@@ -615,46 +1002,4 @@ public class GameModel {
     private static class PacMannCaught extends Exception {
 
     }
-
-    /**
-     * An unordered pair of values of type `T`.  Equality and hash code are independent of the order
-     * of constructor parameters or fields.
-     */
-    private static final class UnorderedPair<T> {
-
-        // elem1.hashCode() <= elem2.hashCode()
-        private final T elem1;
-        private final T elem2;
-
-        public UnorderedPair(T a, T b) {
-            // Impose a preferred ordering to make toString more consistent
-            if (a.hashCode() <= b.hashCode()) {
-                elem1 = a;
-                elem2 = b;
-            } else {
-                elem1 = b;
-                elem2 = a;
-            }
-        }
-
-        @Override
-        public boolean equals(Object other) {
-            if (other instanceof UnorderedPair<?> op) {
-                // Still need to check both orderings in case of hash collisions
-                return elem1.equals(op.elem1) && elem2.equals(op.elem2) ||
-                        elem1.equals(op.elem2) && elem2.equals(op.elem1);
-            }
-            return false;
-        }
-
-        @Override
-        public int hashCode() {
-            return elem1.hashCode() ^ elem2.hashCode();
-        }
-
-        @Override
-        public String toString() {
-            return "{" + elem1 + "," + elem2 + "}";
-        }
-    }
 }
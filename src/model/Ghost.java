@@ -1,13 +1,17 @@
 package model;
 
+import graph.CompactGraph;
+import graph.DistanceField;
+import graph.IncrementalSearch;
+import graph.PathBatch;
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import model.MazeGraph.MazeEdge;
 import model.MazeGraph.IPair;
 import model.MazeGraph.MazeVertex;
-import graph.Pathfinding;
 
 
 /**
@@ -32,6 +36,25 @@ public abstract class Ghost extends Actor {
      */
     public enum GhostState {WAIT, CHASE, FLEE}
 
+    /**
+     * The ways in which a ghost can find its way to its target:
+     * <p>
+     * - PATHFINDING: Search for a path whenever a decision is needed (reading it from the model's
+     * shared distance field when chasing PacMann's vertex directly).
+     * <p>
+     * - FLOW_FIELD: Look up the next edge in the model's cached flow field for the target.  Each
+     * new target costs one search over the whole maze, but every subsequent decision toward that
+     * target, by any ghost, takes constant time.
+     * <p>
+     * - INCREMENTAL: Keep this ghost's own search tree between decisions and repair only the part
+     * affected by the ghost's and its target's movement since the previous decision.
+     * <p>
+     * - BATCHED: Search for a path whenever a decision is needed, as one query in a batch holding
+     * every such ghost's query for the current step.  Ghosts deciding at the same vertex share a
+     * search, and the remaining searches are spread across threads.
+     */
+    public enum Navigation {PATHFINDING, FLOW_FIELD, INCREMENTAL, BATCHED}
+
     /**
      * The current behavioral state of this ghost
      */
@@ -60,7 +83,37 @@ public abstract class Ghost extends Actor {
     private final Color ghostColor;
 
     /**
-     * The edges comprising the most recently calculated path to this ghosts' `target()`
+     * How this ghost finds its way to its target
+     */
+    private Navigation navigation;
+
+    /**
+     * Finds paths to this ghost's `target()` over the maze's junction graph, or null if this ghost
+     * has not searched that way yet.  Its `path()` holds the edges comprising the most recently
+     * calculated path, overwritten in place by each search.
+     */
+    private JunctionGraph.Router router;
+
+    /**
+     * The edges of the most recently calculated path when it was not found by `router`.
+     */
+    private final ArrayList<MazeEdge> fieldPath;
+
+    /**
+     * The search tree kept between decisions in INCREMENTAL navigation, or null if this ghost has
+     * not navigated that way yet.
+     */
+    private IncrementalSearch incrementalSearch;
+
+    /**
+     * The index of this ghost's query in the model's navigation batch for the current step, or -1
+     * if it has no query there.
+     */
+    private int batchSlot;
+
+    /**
+     * The edges comprising the most recently calculated path to this ghost's `target()`; either
+     * `router.path()` or `fieldPath`.
      */
     private List<MazeEdge> guidancePath;
 
@@ -71,7 +124,10 @@ public abstract class Ghost extends Actor {
         super(model);
         this.ghostColor = ghostColor;
         this.initialDelay = initialDelay;
-        guidancePath = List.of(); // initially empty
+        fieldPath = new ArrayList<>();
+        guidancePath = fieldPath;
+        navigation = Navigation.PATHFINDING;
+        batchSlot = -1;
         reset();
     }
 
@@ -95,6 +151,20 @@ public abstract class Ghost extends Actor {
         return state;
     }
 
+    /**
+     * Return how this ghost finds its way to its target
+     */
+    public Navigation navigation() {
+        return navigation;
+    }
+
+    /**
+     * Change how this ghost finds its way to its target, taking effect at its next decision.
+     */
+    public void setNavigation(Navigation navigation) {
+        this.navigation = navigation;
+    }
+
     /**
      * Return this ghost's color (for painting)
      */
@@ -145,14 +215,122 @@ public abstract class Ghost extends Actor {
 
     /**
      * Returns the first edge along the shortest path from this ghost's `currentVertex()` to its
-     * `target()`.
+     * `target()`, found according to this ghost's `navigation()`.  When pathfinding toward PacMann's
+     * vertex, the path is read by gradient descent from the model's shared distance field, unless
+     * the field cannot tell which edge `Pathfinding` would take first (see `descend()`);
+     * otherwise, it is found by searching the junction graph.  In BATCHED navigation, the path is
+     * the answer to the query this ghost added to the model's navigation batch for this step.
      */
     @Override
     public MazeEdge nextEdge() {
+        model.countPathQuery();
+        if (batchSlot >= 0) {
+            List<MazeEdge> path = model.navigationBatch().path(batchSlot);
+            batchSlot = -1;
+            fieldPath.clear();
+            if (path != null) {
+                fieldPath.addAll(path);
+            }
+            guidancePath = fieldPath;
+            return fieldPath.isEmpty() ? null : fieldPath.getFirst();
+        }
         MazeEdge prevEdge = (location.progress() == 1) ? location.edge() : null;
-        guidancePath = Pathfinding.shortestNonBacktrackingPath(nearestVertex(), target(),
-                prevEdge);
-        return guidancePath == null || guidancePath.isEmpty() ? null : guidancePath.getFirst();
+        MazeVertex target = target();
+        if (navigation == Navigation.FLOW_FIELD) {
+            follow(model.flowFieldTo(target), prevEdge);
+            guidancePath = fieldPath;
+            return fieldPath.isEmpty() ? null : fieldPath.getFirst();
+        }
+        if (navigation == Navigation.INCREMENTAL) {
+            replan(prevEdge, target);
+            guidancePath = fieldPath;
+            return fieldPath.isEmpty() ? null : fieldPath.getFirst();
+        }
+        DistanceField field = model.distanceFieldTo(target);
+        if (field != null && descend(model.graph(), field, nearestVertex(), prevEdge, fieldPath)) {
+            guidancePath = fieldPath;
+        } else {
+            if (router == null) {
+                router = model.graph().junctionGraph().new Router();
+            }
+            router.route(nearestVertex(), prevEdge, target);
+            guidancePath = router.path();
+        }
+        return guidancePath.isEmpty() ? null : guidancePath.getFirst();
+    }
+
+    /**
+     * If this ghost navigates in BATCHED mode, add the query for its next decision to `batch`,
+     * whose answer its next call to `nextEdge()` will use.  Requires this ghost is at a vertex and
+     * `batch` is the model's `navigationBatch()`.
+     */
+    void enqueueQuery(PathBatch<MazeVertex, MazeEdge> batch) {
+        if (navigation == Navigation.BATCHED) {
+            MazeEdge prevEdge = (location.progress() == 1) ? location.edge() : null;
+            batchSlot = batch.add(nearestVertex(), prevEdge, target());
+        } else {
+            batchSlot = -1;
+        }
+    }
+
+    /**
+     * Replace `path` with the path from `src` to the target of `field` in `graph`, following the
+     * field's gradient and not backtracking `prevEdge` (when it is not null), and return whether
+     * its first edge is the one `Pathfinding.shortestNonBacktrackingPath(src, target, prevEdge)`
+     * begins with.  The path is left empty if the target cannot be reached.
+     * <p>
+     * The field's distances are exact over (vertex, incoming edge) states, but `Pathfinding`
+     * labels each vertex once and so can never take the edge from `src` back to `prevEdge.src()`,
+     * which a shortest path returning to `src` would need; and among equally short paths it keeps
+     * whichever it reached first.  So the first edge is only certain if the descent never returns
+     * to `src` and no other first edge leads to a path within `MazeGraph.TIE_TOLERANCE` of it.
+     */
+    static boolean descend(MazeGraph graph, DistanceField field, MazeVertex src,
+            MazeEdge prevEdge, List<MazeEdge> path) {
+        CompactGraph compact = graph.compact();
+        path.clear();
+        int incoming = (prevEdge == null) ? -1 : graph.edgeId(prevEdge);
+        boolean certain = field.margin(src.id(), incoming) > MazeGraph.TIE_TOLERANCE;
+        for (int k = field.nextEdge(src.id(), incoming); k >= 0;
+                k = field.nextEdge(compact.target(k), k)) {
+            path.add(graph.edge(k));
+            certain &= compact.target(k) != src.id();
+        }
+        return certain;
+    }
+
+    /**
+     * Replace `fieldPath` with the path from this ghost's `nearestVertex()` to the target of
+     * `field`, following its directions and not backtracking `prevEdge` (when it is not null).
+     * The path is left empty if the target cannot be reached.
+     */
+    private void follow(FlowField field, MazeEdge prevEdge) {
+        fieldPath.clear();
+        MazeVertex v = nearestVertex();
+        for (MazeEdge e = field.nextEdge(v, prevEdge); e != null; e = field.nextEdge(v, e)) {
+            fieldPath.add(e);
+            v = e.dst();
+        }
+    }
+
+    /**
+     * Replace `fieldPath` with the path from this ghost's `nearestVertex()` to `target` found by
+     * repairing this ghost's incremental search tree, not backtracking `prevEdge` (when it is not
+     * null).  The path is left empty if the target cannot be reached.
+     */
+    private void replan(MazeEdge prevEdge, MazeVertex target) {
+        MazeGraph graph = model.graph();
+        if (incrementalSearch == null) {
+            incrementalSearch = new IncrementalSearch(graph.compact(),
+                    graph.compactManhattanHeuristic());
+        }
+        fieldPath.clear();
+        int incoming = (prevEdge == null) ? -1 : graph.edgeId(prevEdge);
+        if (incrementalSearch.search(nearestVertex().id(), incoming, target.id())) {
+            for (int i = 0; i < incrementalSearch.pathLength(); i++) {
+                fieldPath.add(graph.edge(incrementalSearch.pathEdge(i)));
+            }
+        }
     }
 
     @Override
@@ -169,7 +347,9 @@ public abstract class Ghost extends Actor {
         state = GhostState.WAIT;
         waitTimeRemaining = initialDelay;
         location = new Location(model.graph().ghostStartingEdge(), 0);
-        guidancePath = List.of();
+        fieldPath.clear();
+        guidancePath = fieldPath;
+        batchSlot = -1;
     }
 
     @Override
@@ -210,6 +390,24 @@ public abstract class Ghost extends Actor {
         location = new Location(model.graph().ghostStartingEdge(), 0);
     }
 
+    /**
+     * Put this ghost in `state` at `location`, with `waitTimeRemaining` and `fleeTimeRemaining`
+     * on its timers, as when restoring a snapshot of its game.  Its guidance path and any search
+     * tree kept for INCREMENTAL navigation are discarded, since they describe its previous
+     * circumstances.
+     */
+    void restore(GhostState state, double waitTimeRemaining, double fleeTimeRemaining,
+            Location location) {
+        this.state = state;
+        this.waitTimeRemaining = waitTimeRemaining;
+        this.fleeTimeRemaining = fleeTimeRemaining;
+        this.location = location;
+        fieldPath.clear();
+        guidancePath = fieldPath;
+        incrementalSearch = null;
+        batchSlot = -1;
+    }
+
     /* ****************************************************************
      * Additional navigation methods                                  *
      **************************************************************** */
@@ -0,0 +1,1006 @@
+package model;
+
+import graph.CompactGraph;
+import graph.ContractionHierarchy;
+import graph.EdgePath;
+import graph.IntHeuristic;
+import graph.IntMinPQueue;
+import graph.Pathfinding;
+import graph.SearchContext;
+import graph.VertexIndex;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntToDoubleFunction;
+import model.MazeGraph.MazeEdge;
+import model.MazeGraph.MazeVertex;
+
+/**
+ * A compressed view of a `MazeGraph` for navigation.  Most maze vertices are corridor tiles with
+ * exactly two edges, where a non-backtracking traveler has no choice but to continue.  Only the
+ * remaining vertices (with degree other than 2) are "junctions"; each maximal run of edges between
+ * two junctions forms a directed "corridor" that carries its total weight and its sequence of maze
+ * edges.  Searching over corridors instead of maze edges shrinks the search graph several-fold,
+ * and paths are expanded back into maze edges only on demand (see `Router`).
+ * <p>
+ * Corridors leaving the same junction have consecutive ids, so the corridors leaving junction
+ * `j` are `[firstCorridor(j)..endCorridor(j))`.  A maze without any junction (a single cycle)
+ * has no corridors; routers fall back to `Pathfinding` in that case.
+ */
+public final class JunctionGraph {
+
+    /**
+     * The maze that this graph compresses.
+     */
+    private final MazeGraph maze;
+
+    /**
+     * The junction index of each maze vertex (by id), or -1 for corridor interior vertices.
+     */
+    private final int[] junctionOf;
+
+    /**
+     * The maze vertex id of each junction.
+     */
+    private final int[] junctionVertex;
+
+    /**
+     * The corridors leaving junction `j` have ids in `[outOffsets[j]..outOffsets[j+1])`.
+     */
+    private final int[] outOffsets;
+
+    /**
+     * The junction at which each corridor ends.
+     */
+    private final int[] corridorDst;
+
+    /**
+     * The id of the corridor traversing the same edges as each corridor in the opposite direction.
+     */
+    private final int[] reverseCorridor;
+
+    /**
+     * The edges of corridor `c` are `edges[edgeStart[c] + p]` for `p` in `[0..length(c))`.
+     */
+    private final int[] edgeStart;
+
+    /**
+     * The maze edges of all corridors, grouped by corridor.
+     */
+    private final MazeEdge[] edges;
+
+    /**
+     * The total weight of the first `p + 1` edges of each corridor, parallel to `edges`.
+     */
+    private final double[] prefixWeights;
+
+    /**
+     * For each corridor interior vertex (by id), some corridor passing through it; -1 for
+     * junctions.
+     */
+    private final int[] corridorOf;
+
+    /**
+     * For each corridor interior vertex (by id), the number of edges of `corridorOf[v]` preceding
+     * it.
+     */
+    private final int[] positionOf;
+
+    /**
+     * The corridors as a graph over junctions, in which edge `c` is corridor `c`.
+     */
+    private final CompactGraph corridorGraph;
+
+    /**
+     * The background construction of this graph's contraction hierarchy, or null if it has not
+     * been started (see `hierarchy()`).
+     */
+    private CompletableFuture<ContractionHierarchy> hierarchy;
+
+    /**
+     * Build the junction graph of `maze`.  Takes time linear in the size of the maze.
+     */
+    public JunctionGraph(MazeGraph maze) {
+        this.maze = maze;
+        int n = maze.vertexCount();
+        junctionOf = new int[n];
+        int junctionCount = 0;
+        for (int v = 0; v < n; v++) {
+            junctionOf[v] = (maze.compact().degree(v) == 2) ? -1 : junctionCount++;
+        }
+        junctionVertex = new int[junctionCount];
+        for (int v = 0; v < n; v++) {
+            if (junctionOf[v] >= 0) {
+                junctionVertex[junctionOf[v]] = v;
+            }
+        }
+
+        // Walk each corridor from its starting junction, in order of junction then direction
+        outOffsets = new int[junctionCount + 1];
+        List<MazeEdge> corridorEdges = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        int[] corridorStartingWith = new int[maze.compact().edgeCount()];
+        for (int j = 0; j < junctionCount; j++) {
+            for (MazeEdge first : maze.vertex(junctionVertex[j]).outgoingEdges()) {
+                corridorStartingWith[maze.edgeId(first)] = starts.size();
+                starts.add(corridorEdges.size());
+                MazeEdge e = first;
+                corridorEdges.add(e);
+                while (junctionOf[e.dst().id()] < 0) {
+                    MazeEdge back = e.reverse();
+                    for (MazeEdge next : e.dst().outgoingEdges()) {
+                        if (next != back) {
+                            e = next;
+                            break;
+                        }
+                    }
+                    corridorEdges.add(e);
+                }
+            }
+            outOffsets[j + 1] = starts.size();
+        }
+
+        int corridorCount = starts.size();
+        edges = corridorEdges.toArray(new MazeEdge[0]);
+        edgeStart = new int[corridorCount + 1];
+        for (int c = 0; c < corridorCount; c++) {
+            edgeStart[c] = starts.get(c);
+        }
+        edgeStart[corridorCount] = edges.length;
+        prefixWeights = new double[edges.length];
+        corridorDst = new int[corridorCount];
+        reverseCorridor = new int[corridorCount];
+        corridorOf = new int[n];
+        positionOf = new int[n];
+        Arrays.fill(corridorOf, -1);
+        for (int c = 0; c < corridorCount; c++) {
+            double total = 0;
+            for (int p = 0; p < length(c); p++) {
+                MazeEdge e = edges[edgeStart[c] + p];
+                total += e.weight();
+                prefixWeights[edgeStart[c] + p] = total;
+                int v = e.dst().id();
+                if (p + 1 < length(c) && corridorOf[v] < 0) {
+                    corridorOf[v] = c;
+                    positionOf[v] = p + 1;
+                }
+            }
+            MazeEdge last = edges[edgeStart[c + 1] - 1];
+            corridorDst[c] = junctionOf[last.dst().id()];
+            reverseCorridor[c] = corridorStartingWith[maze.edgeId(last.reverse())];
+        }
+
+        double[] weights = new double[corridorCount];
+        for (int c = 0; c < corridorCount; c++) {
+            weights[c] = weight(c);
+        }
+        corridorGraph = new CompactGraph(outOffsets.clone(), corridorDst.clone(), weights,
+                new byte[corridorCount]);
+    }
+
+    /**
+     * Return the maze that this graph compresses.
+     */
+    public MazeGraph maze() {
+        return maze;
+    }
+
+    /**
+     * Return the number of junctions in this graph.
+     */
+    public int junctionCount() {
+        return junctionVertex.length;
+    }
+
+    /**
+     * Return the number of (directed) corridors in this graph.
+     */
+    public int corridorCount() {
+        return corridorDst.length;
+    }
+
+    /**
+     * Return the id of the first corridor leaving junction `j`.
+     */
+    public int firstCorridor(int j) {
+        return outOffsets[j];
+    }
+
+    /**
+     * Return one more than the id of the last corridor leaving junction `j`.
+     */
+    public int endCorridor(int j) {
+        return outOffsets[j + 1];
+    }
+
+    /**
+     * Return the junction at which corridor `c` ends.
+     */
+    public int corridorDst(int c) {
+        return corridorDst[c];
+    }
+
+    /**
+     * Return the maze vertex at junction `j`.
+     */
+    public MazeVertex junctionVertex(int j) {
+        return maze.vertex(junctionVertex[j]);
+    }
+
+    /**
+     * Return the number of maze edges in corridor `c`.
+     */
+    public int length(int c) {
+        return edgeStart[c + 1] - edgeStart[c];
+    }
+
+    /**
+     * Return the `p`th maze edge of corridor `c`.  Requires `0 <= p < length(c)`.
+     */
+    public MazeEdge edge(int c, int p) {
+        assert 0 <= p && p < length(c);
+        return edges[edgeStart[c] + p];
+    }
+
+    /**
+     * Return the total weight of the first `p` edges of corridor `c`.  Requires
+     * `0 <= p <= length(c)`.
+     */
+    public double weightTo(int c, int p) {
+        return (p == 0) ? 0 : prefixWeights[edgeStart[c] + p - 1];
+    }
+
+    /**
+     * Return the total weight of corridor `c`.
+     */
+    public double weight(int c) {
+        return weightTo(c, length(c));
+    }
+
+    /**
+     * Return the position along corridor `c` of the maze vertex with id `v` (the number of edges
+     * of `c` preceding it), or -1 if `v` is not an interior vertex of `c`.
+     */
+    private int positionOn(int c, int v) {
+        int vc = corridorOf[v];
+        if (vc < 0) {
+            return -1;
+        } else if (vc == c) {
+            return positionOf[v];
+        } else if (reverseCorridor[vc] == c) {
+            return length(c) - positionOf[v];
+        }
+        return -1;
+    }
+
+    /**
+     * Return the computation of a contraction hierarchy over this graph's corridors, starting it in
+     * the background on first use (typically by the first `HierarchyRouter`).  Corridors may follow
+     * one another unless one is the reverse of the other, exactly as for `Router`.
+     */
+    public synchronized CompletableFuture<ContractionHierarchy> hierarchy() {
+        if (hierarchy == null) {
+            hierarchy = CompletableFuture.supplyAsync(
+                    () -> new ContractionHierarchy(corridorGraph, reverseCorridor));
+        }
+        return hierarchy;
+    }
+
+    /* ****************************************************************
+     * Routing                                                        *
+     **************************************************************** */
+
+    /**
+     * Finds shortest non-backtracking paths between maze vertices by searching over corridors,
+     * beginning with the same edge as `Pathfinding.shortestNonBacktrackingPath()`.  That search
+     * labels each maze vertex only once, so once it has left the source it can never take the edge
+     * leading back to the source of the previous edge, not even upon returning to the source; apart
+     * from that one blocked edge, a router's search is exact over (junction, incoming corridor)
+     * states, where the only constraint between consecutive corridors is that one may not be the
+     * reverse of the other.  Both searches therefore find paths of the same length.
+     * <p>
+     * Among equally short paths (up to `MazeGraph.TIE_TOLERANCE`), `Pathfinding` keeps whichever it
+     * happened to reach first, depending on the order in which it sums and settles vertices, which
+     * a corridor search cannot reproduce.  Ghosts follow only the first edge of each path before
+     * searching again, so a router tracks which first leg each state's best path begins with and
+     * notes which states can also be reached by an equally short path beginning differently (or
+     * follow a state that can); the search only ends once every state that could lie on an
+     * equally short path has been expanded.  If the shortest paths to the destination do not all
+     * begin with the same leg, the router answers the query with `Pathfinding` itself, so its
+     * first edge never depends on the heuristic guiding the search.  Beyond that edge, a router
+     * may choose a different path among equally short ones than `Pathfinding` would.  A router
+     * owns reusable scratch space and its most recent path, so routing allocates nothing after
+     * warm-up; it may be used by only one search at a time.
+     */
+    public class Router {
+
+        /**
+         * The best known distance to each corridor state (arriving at the corridor's end), valid
+         * where `stamps[c] == epoch`.
+         */
+        private final double[] distances;
+
+        /**
+         * The corridor state preceding each state on its best known path, or -1 for a state
+         * reached directly from the source.
+         */
+        private final int[] parents;
+
+        /**
+         * For states reached directly from the source, the position within the corridor at which
+         * the source lies (0 when the source is the corridor's starting junction).
+         */
+        private final int[] startPositions;
+
+        /**
+         * The corridor of the first leg of each state's best known path.
+         */
+        private final int[] origins;
+
+        /**
+         * Whether each state can be reached by a path as short as its best known path (up to
+         * `MazeGraph.TIE_TOLERANCE`) but with a different first leg, or follows such a state on its
+         * best known path.
+         */
+        private final boolean[] ambiguous;
+
+        /**
+         * The epoch in which each state's entries were last written.
+         */
+        private final int[] stamps;
+
+        /**
+         * The heuristic guiding the current search toward its destination, and the destination's
+         * vertex id.
+         */
+        private IntHeuristic heuristic;
+        private int dstId;
+
+        /**
+         * The epoch of the current search.
+         */
+        private int epoch;
+
+        /**
+         * The frontier of corridor states.
+         */
+        private final IntMinPQueue frontier;
+
+        /**
+         * The path found by the most recent search, expanded lazily.
+         */
+        private final Route route;
+
+        /**
+         * Numbers the maze's vertices like the maze itself, but without advertising its edge weight
+         * bounds, so that searches with it keep their frontier in a binary heap.  Without a
+         * heuristic, such a search settles vertices in the same order as
+         * `Pathfinding.shortestNonBacktrackingPath(src, dst, previousEdge)`, even among equally
+         * distant ones, and so chooses the same path.
+         */
+        private final VertexIndex<MazeVertex> heapIndex;
+
+        /**
+         * Scratch space for searching with `Pathfinding`, for mazes without junctions and for
+         * queries whose shortest paths begin differently.
+         */
+        private final SearchContext<MazeEdge> fallbackContext;
+        private final EdgePath<MazeEdge> fallbackPath;
+
+        /**
+         * Whether the most recent path was found with `Pathfinding`.
+         */
+        private boolean usedFallback;
+
+        /**
+         * The corridor that the current search may traverse only up to (not including) the maze
+         * edge from the source back to the source of the previous edge, and that edge's position
+         * within it; -1 and 0 if there is no previous edge.
+         */
+        private int blockedCorridor;
+        private int blockedPosition;
+
+        /**
+         * The length of the best path to the destination found so far in the current search.
+         */
+        private double best;
+
+        /**
+         * The corridor state after which the best path's final leg begins (or -1 if the final leg
+         * starts at the source), the corridor of that final leg (or -1 if there is no final leg),
+         * the positions at which the final leg starts and ends, and the corridor of the best
+         * path's first leg.
+         */
+        private int bestParent;
+        private int bestCorridor;
+        private int bestFrom;
+        private int bestTo;
+        private int bestOrigin;
+
+        /**
+         * Whether another path to the destination with a different first leg is as short as the
+         * best path found so far (up to `MazeGraph.TIE_TOLERANCE`), or the best path follows an
+         * ambiguous state.
+         */
+        private boolean bestAmbiguous;
+
+        /**
+         * Create a router for this junction graph.
+         */
+        public Router() {
+            distances = new double[corridorCount()];
+            parents = new int[corridorCount()];
+            startPositions = new int[corridorCount()];
+            origins = new int[corridorCount()];
+            ambiguous = new boolean[corridorCount()];
+            stamps = new int[corridorCount()];
+            frontier = new IntMinPQueue(corridorCount());
+            route = new Route();
+            heapIndex = new VertexIndex<>() {
+                @Override
+                public int vertexCount() {
+                    return maze.vertexCount();
+                }
+
+                @Override
+                public int indexOf(MazeVertex v) {
+                    return maze.indexOf(v);
+                }
+            };
+            fallbackContext = new SearchContext<>();
+            fallbackPath = new EdgePath<>();
+        }
+
+        /**
+         * Return the path found by the most recent search (empty if none was found).  The returned
+         * list is overwritten by subsequent searches.
+         */
+        public List<MazeEdge> path() {
+            return usedFallback ? fallbackPath : route;
+        }
+
+        /**
+         * Return the best known distance to corridor state `c` in the current search.
+         */
+        private double distance(int c) {
+            return (stamps[c] == epoch) ? distances[c] : Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Return whether traversing corridor `c` from position `from` to position `to` takes the
+         * edge that the current search may not traverse.
+         */
+        private boolean blocks(int c, int from, int to) {
+            return c == blockedCorridor && from <= blockedPosition && blockedPosition < to;
+        }
+
+        /**
+         * Record a path to the end of corridor `c` of length `d`, following state `parent` (or
+         * starting at position `from` of `c` if `parent` is -1), if it improves on the best known
+         * and does not take the blocked edge.  An equally short path with a different first leg
+         * instead marks the state ambiguous, as does following an ambiguous `parent`; the state is
+         * then expanded again, so that the states following it are marked in turn.
+         */
+        private void relax(int c, double d, int parent, int from) {
+            if (blocks(c, from, length(c))) {
+                return;
+            }
+            int origin = (parent >= 0) ? origins[parent] : c;
+            boolean inherited = parent >= 0 && ambiguous[parent];
+            double known = distance(c);
+            if (d < known - MazeGraph.TIE_TOLERANCE) {
+                stamps[c] = epoch;
+                distances[c] = d;
+                parents[c] = parent;
+                startPositions[c] = from;
+                origins[c] = origin;
+                ambiguous[c] = inherited;
+                frontier.addOrUpdate(c, d + estimate(c));
+            } else if (d <= known + MazeGraph.TIE_TOLERANCE && !ambiguous[c]
+                    && (inherited || origin != origins[c])) {
+                ambiguous[c] = true;
+                frontier.addOrUpdate(c, distances[c] + estimate(c));
+            }
+        }
+
+        /**
+         * Return the current heuristic's estimate of the distance from the end of corridor `c` to
+         * the destination.
+         */
+        private double estimate(int c) {
+            return heuristic.estimate(junctionVertex[corridorDst[c]], dstId);
+        }
+
+        /**
+         * Record a candidate path whose final leg traverses corridor `c` from position `from` to
+         * position `to`, following state `parent`, where `base` is the length of the path before
+         * the final leg, unless that leg takes the blocked edge.  A candidate that is as short as
+         * the best but has a different first leg, or a best candidate following an ambiguous
+         * `parent`, makes the best path ambiguous.
+         */
+        private void offer(double base, int parent, int c, int from, int to) {
+            if (blocks(c, from, to)) {
+                return;
+            }
+            double d = base + weightTo(c, to) - weightTo(c, from);
+            int origin = (parent >= 0) ? origins[parent] : c;
+            boolean inherited = parent >= 0 && ambiguous[parent];
+            if (d < best - MazeGraph.TIE_TOLERANCE) {
+                best = d;
+                bestParent = parent;
+                bestCorridor = c;
+                bestFrom = from;
+                bestTo = to;
+                bestOrigin = origin;
+                bestAmbiguous = inherited;
+            } else if (d <= best + MazeGraph.TIE_TOLERANCE) {
+                bestAmbiguous |= inherited || origin != bestOrigin;
+            }
+        }
+
+        /**
+         * Offer candidate paths reaching `dst` (with id `dstId`) by traversing corridor `c` from
+         * position `from`, given the path up to that position has length `base` and follows state
+         * `parent`.  Requires `dst` is not a junction.
+         */
+        private void offerInterior(double base, int parent, int c, int from, int dstId) {
+            int dc = corridorOf[dstId];
+            if (c == dc && positionOf[dstId] > from) {
+                offer(base, parent, c, from, positionOf[dstId]);
+            } else if (c == reverseCorridor[dc] && length(c) - positionOf[dstId] > from) {
+                offer(base, parent, c, from, length(c) - positionOf[dstId]);
+            }
+        }
+
+        /**
+         * Replace `path()` with a shortest non-backtracking path from `src` to `dst` that begins
+         * with the same edge as the path `Pathfinding.shortestNonBacktrackingPath(src, dst,
+         * previousEdge)` returns, or with an empty path if it returns null, and return whether
+         * there is such a path.  The search is guided toward `dst` by the maze's current
+         * `routingHeuristic()`, which corridors satisfy consistently because each one is itself a
+         * path of maze edges, but the path's first edge and length do not depend on it.  Requires
+         * that if `previousEdge != null` then `previousEdge.dst().equals(src)`.
+         */
+        public boolean route(MazeVertex src, MazeEdge previousEdge, MazeVertex dst) {
+            assert previousEdge == null || previousEdge.dst().equals(src);
+            if (corridorCount() == 0) {
+                return search(src, previousEdge, dst);
+            }
+            usedFallback = false;
+            route.clear();
+            if (src == dst) {
+                return true;
+            }
+
+            epoch += 1;
+            if (epoch == 0) {
+                Arrays.fill(stamps, 0);
+                epoch = 1;
+            }
+            frontier.clear();
+            heuristic = maze.compactRoutingHeuristic();
+            dstId = dst.id();
+            best = Double.POSITIVE_INFINITY;
+            bestParent = -1;
+            bestCorridor = -1;
+            bestAmbiguous = false;
+            int dstJunction = junctionOf[dst.id()];
+
+            // Block the edge from `src` back to where `previousEdge` came from, for the whole search
+            int srcJunction = junctionOf[src.id()];
+            blockedCorridor = -1;
+            blockedPosition = 0;
+            if (srcJunction >= 0) {
+                for (int c = firstCorridor(srcJunction); c < endCorridor(srcJunction); c++) {
+                    if (previousEdge != null && edge(c, 0).dst() == previousEdge.src()) {
+                        blockedCorridor = c;
+                    }
+                }
+            } else if (previousEdge != null) {
+                int c = corridorOf[src.id()];
+                int p = positionOf[src.id()];
+                int rc = reverseCorridor[c];
+                // Continuing along `c` backtracks only if we arrived along `rc`, and vice versa
+                if (previousEdge == edge(rc, length(c) - p - 1)) {
+                    blockedCorridor = c;
+                    blockedPosition = p;
+                } else {
+                    blockedCorridor = rc;
+                    blockedPosition = length(c) - p;
+                }
+            }
+
+            // Seed the search with the corridor legs leading away from `src`
+            if (srcJunction >= 0) {
+                for (int c = firstCorridor(srcJunction); c < endCorridor(srcJunction); c++) {
+                    seed(c, 0, dstJunction, dst);
+                }
+            } else {
+                int c = corridorOf[src.id()];
+                int p = positionOf[src.id()];
+                seed(c, p, dstJunction, dst);
+                seed(reverseCorridor[c], length(c) - p, dstJunction, dst);
+            }
+
+            // Paths tied with the best can pass through states whose estimate slightly exceeds it
+            while (!frontier.isEmpty()
+                    && frontier.minPriority() <= best + 2 * MazeGraph.TIE_TOLERANCE) {
+                int a = frontier.remove();
+                int j = corridorDst[a];
+                if (j == dstJunction) {
+                    continue;  // paths end upon reaching `dst`
+                }
+                double d = distances[a];
+                for (int c = firstCorridor(j); c < endCorridor(j); c++) {
+                    if (c == reverseCorridor[a]) {
+                        continue;
+                    }
+                    relax(c, d + weight(c), a, 0);
+                    if (corridorDst[c] == dstJunction) {
+                        offer(d, a, c, 0, length(c));
+                    } else if (dstJunction < 0) {
+                        offerInterior(d, a, c, 0, dst.id());
+                    }
+                }
+            }
+
+            if (best == Double.POSITIVE_INFINITY) {
+                return false;
+            } else if (bestAmbiguous) {
+                return search(src, previousEdge, dst);
+            }
+            // Collect legs walking back from the final one, then put them in order
+            route.addLeg(bestCorridor, bestFrom, bestTo);
+            for (int c = bestParent; c >= 0; c = parents[c]) {
+                route.addLeg(c, (parents[c] < 0) ? startPositions[c] : 0, length(c));
+            }
+            route.reverseLegs();
+            return true;
+        }
+
+        /**
+         * Replace `path()` with the path that `Pathfinding` finds from `src` to `dst` without
+         * backtracking `previousEdge`, and return whether there is one.
+         */
+        private boolean search(MazeVertex src, MazeEdge previousEdge, MazeVertex dst) {
+            usedFallback = true;
+            return Pathfinding.shortestNonBacktrackingPath(src, dst, previousEdge, heapIndex,
+                    (v, w) -> 0, fallbackContext, fallbackPath);
+        }
+
+        /**
+         * Seed the current search with the leg of corridor `c` starting at position `from`, which
+         * is where `src` lies, offering a candidate if `dst` lies along that leg.
+         */
+        private void seed(int c, int from, int dstJunction, MazeVertex dst) {
+            relax(c, weight(c) - weightTo(c, from), -1, from);
+            if (corridorDst[c] == dstJunction) {
+                offer(0, -1, c, from, length(c));
+            } else if (dstJunction < 0) {
+                offerInterior(0, -1, c, from, dst.id());
+            }
+        }
+    }
+
+    /**
+     * Answers shortest non-backtracking path queries between maze vertices with a contraction
+     * hierarchy over corridors (see `hierarchy()`).  The legs from the source to the first junction
+     * and from the last junction to the destination become the sources and targets of the
+     * hierarchy query, with their partial corridor weights as initial distances; a destination
+     * lying directly ahead of the source along its corridor is checked separately.  The search
+     * through the hierarchy's core is guided by the maze's current `routingHeuristic()`.  Like
+     * `Router`, a hierarchy router reuses its scratch space and its most recent path, and may be
+     * used by only one query at a time.
+     */
+    public class HierarchyRouter {
+
+        /**
+         * Scratch space for queries against the hierarchy.
+         */
+        private final ContractionHierarchy.Query query;
+
+        /**
+         * Finds paths in mazes without junctions, where the hierarchy is empty.
+         */
+        private final Router fallback;
+
+        /**
+         * The path found by the most recent query.
+         */
+        private final Route route;
+
+        /**
+         * The corridor states starting the current query, the distance covered upon reaching the
+         * end of each, and the position along it at which the source lies, in `[0..sourceCount)`.
+         */
+        private final int[] sources;
+        private final double[] sourceDistances;
+        private final int[] sourcePositions;
+        private int sourceCount;
+
+        /**
+         * The corridor states ending the current query, the distance still to cover after each,
+         * and the corridor and position of the final partial leg after each (or -1 and 0 if the
+         * state ends on the destination), in `[0..targetCount)`.
+         */
+        private final int[] targets;
+        private final double[] targetDistances;
+        private final int[] targetCorridors;
+        private final int[] targetPositions;
+        private int targetCount;
+
+        /**
+         * The length of the best path lying entirely along one corridor from the source, and that
+         * corridor with the positions bounding the path (valid if the length is finite).
+         */
+        private double directDistance;
+        private int directCorridor;
+        private int directFrom;
+        private int directTo;
+
+        /**
+         * The heuristic guiding the current query through the hierarchy's core, and the id of its
+         * destination vertex.
+         */
+        private IntHeuristic heuristic;
+        private int dstId;
+
+        /**
+         * A lower bound on the distance from the end of each corridor to the current destination.
+         */
+        private final IntToDoubleFunction potential =
+                c -> heuristic.estimate(junctionVertex[corridorDst[c]], dstId);
+
+        /**
+         * Create a router answering queries with this junction graph's `hierarchy()`, waiting for
+         * it to be built if it is not ready (and starting to build it if it has not been started).
+         */
+        public HierarchyRouter() {
+            this(hierarchy().join());
+        }
+
+        /**
+         * Create a router answering queries with `hierarchy`, which must have been built by this
+         * junction graph's `hierarchy()`.
+         */
+        public HierarchyRouter(ContractionHierarchy hierarchy) {
+            assert hierarchy.graph() == corridorGraph;
+            query = hierarchy.new Query();
+            fallback = new Router();
+            route = new Route();
+            int maxDegree = 0;
+            for (int j = 0; j < junctionCount(); j++) {
+                maxDegree = Math.max(maxDegree, endCorridor(j) - firstCorridor(j));
+            }
+            sources = new int[Math.max(2, maxDegree)];
+            sourceDistances = new double[sources.length];
+            sourcePositions = new int[sources.length];
+            targets = new int[2 * maxDegree];
+            targetDistances = new double[targets.length];
+            targetCorridors = new int[targets.length];
+            targetPositions = new int[targets.length];
+        }
+
+        /**
+         * Return a shortest non-backtracking path from `src` to `dst` whose first edge does not
+         * backtrack `previousEdge` (when it is not null), or null if there is no such path, with
+         * the same meaning as `Pathfinding.shortestNonBacktrackingPath()`.  The returned list is
+         * overwritten by subsequent queries.  Requires that if `previousEdge != null` then
+         * `previousEdge.dst().equals(src)`.
+         */
+        public List<MazeEdge> shortestNonBacktrackingPath(MazeVertex src, MazeVertex dst,
+                MazeEdge previousEdge) {
+            assert previousEdge == null || previousEdge.dst().equals(src);
+            if (corridorCount() == 0) {
+                return fallback.route(src, previousEdge, dst) ? fallback.path() : null;
+            }
+            route.clear();
+            if (src == dst) {
+                return route;
+            }
+            sourceCount = 0;
+            targetCount = 0;
+            directDistance = Double.POSITIVE_INFINITY;
+
+            int srcJunction = junctionOf[src.id()];
+            if (srcJunction >= 0) {
+                MazeVertex back = (previousEdge == null) ? null : previousEdge.src();
+                for (int c = firstCorridor(srcJunction); c < endCorridor(srcJunction); c++) {
+                    if (edge(c, 0).dst() != back) {
+                        addSource(c, 0, dst);
+                    }
+                }
+            } else {
+                int c = corridorOf[src.id()];
+                int p = positionOf[src.id()];
+                int rc = reverseCorridor[c];
+                if (previousEdge == null || previousEdge != edge(rc, length(c) - p - 1)) {
+                    addSource(c, p, dst);
+                }
+                if (previousEdge == null || previousEdge != edge(c, p - 1)) {
+                    addSource(rc, length(c) - p, dst);
+                }
+            }
+
+            int dstJunction = junctionOf[dst.id()];
+            if (dstJunction >= 0) {
+                for (int i = corridorGraph.firstInEdge(dstJunction);
+                        i < corridorGraph.endInEdge(dstJunction); i++) {
+                    addTarget(corridorGraph.inEdge(i), 0, -1, 0);
+                }
+            } else {
+                int c = corridorOf[dst.id()];
+                addFinalLeg(c, positionOf[dst.id()]);
+                addFinalLeg(reverseCorridor[c], length(c) - positionOf[dst.id()]);
+            }
+
+            heuristic = maze.compactRoutingHeuristic();
+            dstId = dst.id();
+            boolean found = query.search(sources, sourceDistances, sourceCount, targets,
+                    targetDistances, targetCount, potential);
+            if (!found || directDistance <= query.distance()) {
+                if (directDistance == Double.POSITIVE_INFINITY) {
+                    return null;
+                }
+                route.addLeg(directCorridor, directFrom, directTo);
+                return route;
+            }
+
+            int first = query.pathState(0);
+            for (int i = 0; i < sourceCount; i++) {
+                if (sources[i] == first) {
+                    route.addLeg(first, sourcePositions[i], length(first));
+                }
+            }
+            for (int i = 1; i < query.pathLength(); i++) {
+                int c = query.pathState(i);
+                route.addLeg(c, 0, length(c));
+            }
+            int last = query.pathState(query.pathLength() - 1);
+            for (int i = 0; i < targetCount; i++) {
+                if (targets[i] == last && targetCorridors[i] >= 0) {
+                    route.addLeg(targetCorridors[i], 0, targetPositions[i]);
+                }
+            }
+            return route;
+        }
+
+        /**
+         * Add the leg of corridor `c` from position `from` (where the source lies) as a source of
+         * the current query, noting a direct path if `dst` lies further along that leg.
+         */
+        private void addSource(int c, int from, MazeVertex dst) {
+            sources[sourceCount] = c;
+            sourceDistances[sourceCount] = weight(c) - weightTo(c, from);
+            sourcePositions[sourceCount] = from;
+            sourceCount += 1;
+            int to = positionOn(c, dst.id());
+            if (to > from && weightTo(c, to) - weightTo(c, from) < directDistance) {
+                directDistance = weightTo(c, to) - weightTo(c, from);
+                directCorridor = c;
+                directFrom = from;
+                directTo = to;
+            }
+        }
+
+        /**
+         * Add every corridor state that may precede corridor `c` as a target of the current query,
+         * to be followed by a final leg along `c` up to position `to` (where the destination lies).
+         */
+        private void addFinalLeg(int c, int to) {
+            int j = corridorGraph.source(c);
+            for (int i = corridorGraph.firstInEdge(j); i < corridorGraph.endInEdge(j); i++) {
+                int a = corridorGraph.inEdge(i);
+                if (c != reverseCorridor[a]) {
+                    addTarget(a, weightTo(c, to), c, to);
+                }
+            }
+        }
+
+        /**
+         * Add corridor state `a` as a target of the current query with remaining distance `d` and
+         * final leg along corridor `c` up to position `to`, unless `a` is already a target with a
+         * remaining distance no greater.
+         */
+        private void addTarget(int a, double d, int c, int to) {
+            int i = 0;
+            while (i < targetCount && targets[i] != a) {
+                i += 1;
+            }
+            if (i == targetCount) {
+                targetCount += 1;
+            } else if (targetDistances[i] <= d) {
+                return;
+            }
+            targets[i] = a;
+            targetDistances[i] = d;
+            targetCorridors[i] = c;
+            targetPositions[i] = to;
+        }
+    }
+
+    /**
+     * A path through the maze represented as a sequence of corridor legs, each covering the edges of
+     * a corridor between two positions.  Maze edges are produced only when requested, so finding
+     * the first edge of a long route costs no more than finding the first edge of a short one.
+     */
+    private class Route extends AbstractList<MazeEdge> implements RandomAccess {
+
+        /**
+         * The corridor, starting position, and ending position of each leg, in `[0..legCount)`.
+         */
+        private int[] legCorridors = new int[16];
+        private int[] legFroms = new int[16];
+        private int[] legTos = new int[16];
+        private int legCount;
+
+        /**
+         * The total number of edges in all legs.
+         */
+        private int size;
+
+        @Override
+        public MazeEdge get(int i) {
+            if (i < 0 || i >= size) {
+                throw new IndexOutOfBoundsException(i);
+            }
+            for (int leg = 0; ; leg++) {
+                int legLength = legTos[leg] - legFroms[leg];
+                if (i < legLength) {
+                    return edge(legCorridors[leg], legFroms[leg] + i);
+                }
+                i -= legLength;
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            legCount = 0;
+            size = 0;
+        }
+
+        /**
+         * Append a leg covering the edges of corridor `c` from position `from` to position `to`.
+         */
+        void addLeg(int c, int from, int to) {
+            if (legCount == legCorridors.length) {
+                legCorridors = Arrays.copyOf(legCorridors, 2 * legCount);
+                legFroms = Arrays.copyOf(legFroms, 2 * legCount);
+                legTos = Arrays.copyOf(legTos, 2 * legCount);
+            }
+            legCorridors[legCount] = c;
+            legFroms[legCount] = from;
+            legTos[legCount] = to;
+            legCount += 1;
+            size += to - from;
+        }
+
+        /**
+         * Reverse the order of this route's legs.
+         */
+        void reverseLegs() {
+            for (int i = 0, j = legCount - 1; i < j; i++, j--) {
+                swap(legCorridors, i, j);
+                swap(legFroms, i, j);
+                swap(legTos, i, j);
+            }
+        }
+
+        /**
+         * Swap the elements at indices `i` and `j` of `array`.
+         */
+        private static void swap(int[] array, int i, int j) {
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+}
@@ -1,23 +1,33 @@
 package model;
 
+import graph.BoundedWeights;
+import graph.CompactGraph;
 import graph.Edge;
+import graph.Heuristic;
+import graph.IntHeuristic;
+import graph.Landmarks;
+import graph.NextHopOracle;
 import graph.Vertex;
+import graph.VertexIndex;
 
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Queue;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import util.MazeGenerator.TileType;
 
-import java.util.HashMap;
-
 import util.GameMap;
 
 /**
- * A graph representing a game's maze, connecting the "path" tiles of a tile grid.
+ * A graph representing a game's maze, connecting the "path" tiles of a tile grid.  Vertices are
+ * assigned dense ids in `[0..vertexCount())`, and an immutable compressed sparse row view of the
+ * graph (see `compact()`) is built alongside the object graph.
  */
-public class MazeGraph {
+public class MazeGraph implements VertexIndex<MazeGraph.MazeVertex>, BoundedWeights {
 
     /* ****************************************************************
      * Helper types (defined here as nested types to avoid writing    *
@@ -65,17 +75,37 @@ public class MazeGraph {
         private final IPair loc;
 
         /**
-         * This vertex's outgoing edges, each associated with the direction it points in.
+         * This vertex's dense id within its graph.
+         */
+        private final int id;
+
+        /**
+         * This vertex's outgoing edges, indexed by the ordinal of the direction they point in
+         * (null where there is no edge in that direction).
+         */
+        private final MazeEdge[] edgesByDirection;
+
+        /**
+         * This vertex's outgoing edges, in order of direction.
+         */
+        private final List<MazeEdge> edges;
+
+        /**
+         * An unmodifiable view of `edges`, created once so that iterating over a vertex's edges
+         * does not allocate a new view each time.
          */
-        private final HashMap<Direction, MazeEdge> edgeMap;
+        private final List<MazeEdge> edgesView;
 
 
         /**
-         * Construct a new vertex at location `loc` with no outgoing edges.
+         * Construct a new vertex at location `loc` with id `id` and no outgoing edges.
          */
-        public MazeVertex(IPair loc) {
+        public MazeVertex(IPair loc, int id) {
             this.loc = loc;
-            edgeMap = new HashMap<>();
+            this.id = id;
+            edgesByDirection = new MazeEdge[Direction.values().length];
+            edges = new ArrayList<>(edgesByDirection.length);
+            edgesView = Collections.unmodifiableList(edges);
         }
 
         /**
@@ -84,7 +114,7 @@ public class MazeGraph {
          * boundary (that is, an edge connecting a top tile to a bottom tile points "up").
          */
         public MazeEdge edgeInDirection(Direction direction) {
-            return edgeMap.get(direction);
+            return edgesByDirection[direction.ordinal()];
         }
 
         /**
@@ -94,9 +124,16 @@ public class MazeGraph {
             return loc;
         }
 
+        /**
+         * Return this vertex's dense id in `[0..graph.vertexCount())`.
+         */
+        public int id() {
+            return id;
+        }
+
         @Override
         public Iterable<MazeEdge> outgoingEdges() {
-            return edgeMap.values();
+            return edgesView;
         }
 
         /**
@@ -107,8 +144,15 @@ public class MazeGraph {
          */
         void addOutgoingEdge(MazeEdge edge) {
             assert edge.src().equals(this);
-            assert !edgeMap.containsKey(edge.direction());
-            edgeMap.put(edge.direction(), edge);
+            assert edgesByDirection[edge.direction().ordinal()] == null;
+            edgesByDirection[edge.direction().ordinal()] = edge;
+
+            // Keep `edges` sorted by direction so that iteration order is deterministic
+            int i = 0;
+            while (i < edges.size() && edges.get(i).direction().compareTo(edge.direction()) < 0) {
+                i += 1;
+            }
+            edges.add(i, edge);
         }
     }
 
@@ -133,10 +177,99 @@ public class MazeGraph {
      **************************************************************** */
 
     /**
-     * The vertices of this graph, each associated with the location of its corresponding path tile
-     * in the tile grid.
+     * The smallest weight that `edgeWeight()` can assign to an edge (for a steep descent).
+     */
+    public static final double MIN_EDGE_WEIGHT = 0.25;
+
+    /**
+     * The largest weight that `edgeWeight()` can assign to an edge (for a steep ascent).
+     */
+    public static final double MAX_EDGE_WEIGHT = 1.75;
+
+    /**
+     * Path lengths within this much of each other are considered equal by navigation that must
+     * begin with the same edge as `Pathfinding.shortestNonBacktrackingPath()`.  Every maze path between
+     * two vertices with the same number of edges has the same length unless it crosses a steep
+     * slope (see `edgeWeight()`), so such ties are common, but their lengths may differ in their
+     * last few bits depending on the order in which they were summed.
+     */
+    static final double TIE_TOLERANCE = 1e-9;
+
+    /**
+     * The number of landmarks selected for this graph's landmark heuristic.
+     */
+    public static final int LANDMARK_COUNT = 8;
+
+    /**
+     * The vertices of this graph, indexed by id.
+     */
+    private final MazeVertex[] vertices;
+
+    /**
+     * An unmodifiable view of `vertices`, created once so that iterating over the vertices does
+     * not allocate a new view each time.
+     */
+    private final List<MazeVertex> verticesView;
+
+    /**
+     * The id of the vertex at each tile location `(i, j)`, stored at index `i * height + j`, or -1
+     * if that tile is not a path tile in this graph.
+     */
+    private final int[] idAt;
+
+    /**
+     * A compressed sparse row view of this graph.  Vertex ids and edge ids agree with `vertices`
+     * and `edges`, and each edge's label is the ordinal of its direction.
      */
-    private final HashMap<IPair, MazeVertex> vertices;
+    private final CompactGraph compact;
+
+    /**
+     * The edges of this graph, indexed by their id in `compact`.
+     */
+    private final MazeEdge[] edges;
+
+    /**
+     * The undirected edge id of each edge, indexed by its id in `compact` (see
+     * `undirectedEdgeId()`).
+     */
+    private final int[] undirectedIds;
+
+    /**
+     * Estimates distances between vertices by their tunnel-aware Manhattan distance, scaled by
+     * `MIN_EDGE_WEIGHT` (see `manhattanHeuristic()`).
+     */
+    private final Heuristic<MazeVertex> manhattanHeuristic;
+
+    /**
+     * The same estimates as `manhattanHeuristic`, taking vertex ids in `compact`.
+     */
+    private final IntHeuristic compactManhattanHeuristic;
+
+    /**
+     * The all-pairs next-hop table for this graph, or null if it has not been built yet (see
+     * `nextHopOracle()`).
+     */
+    private NextHopOracle nextHopOracle;
+
+    /**
+     * The corridor-compressed view of this graph, or null if it has not been built yet (see
+     * `junctionGraph()`).
+     */
+    private JunctionGraph junctionGraph;
+
+    /**
+     * The background computation of this graph's landmarks, or null if it has not been started
+     * (see `landmarks()`).
+     */
+    private CompletableFuture<Landmarks> landmarks;
+
+    /**
+     * The best heuristic currently available for searches over this graph, and the same estimates
+     * taking vertex ids in `compact`.  These start out as the Manhattan heuristics and are replaced
+     * by landmark heuristics once the landmarks are ready (see `routingHeuristic()`).
+     */
+    private volatile Heuristic<MazeVertex> routingHeuristic;
+    private volatile IntHeuristic compactRoutingHeuristic;
 
     /**
      * The width of the tile grid defining this maze.
@@ -162,18 +295,19 @@ public class MazeGraph {
 
         width = map.types().length;
         height = map.types()[0].length;
-        vertices = new HashMap<>();
+        List<MazeVertex> discovered = new ArrayList<>();
+        idAt = new int[width * height];
+        Arrays.fill(idAt, -1);
 
-        // Initialize BFS
-        Queue<MazeVertex> frontier = new LinkedList<>();
-        Set<IPair> discovered = new HashSet<>();
+        // Initialize BFS; vertices are assigned ids in the order they are discovered
+        Queue<MazeVertex> frontier = new ArrayDeque<>();
 
         // Start from (2, 2) as required
         IPair startLoc = new IPair(2, 2);
-        MazeVertex start = new MazeVertex(startLoc);
-        vertices.put(startLoc, start);
+        MazeVertex start = new MazeVertex(startLoc, 0);
+        discovered.add(start);
+        idAt[2 * height + 2] = 0;
         frontier.add(start);
-        discovered.add(startLoc);
 
         // BFS loop
         while (!frontier.isEmpty()) {
@@ -210,26 +344,65 @@ public class MazeGraph {
                     ni = directions[k];
                     dir = Direction.RIGHT;
                 }
-                IPair neighborPos = new IPair(ni, nj);
-
                 if (map.types()[ni][nj] == TileType.PATH) {
                     double weightDst = map.elevations()[ni][nj];
 
                     // If neighbor is undiscovered, add to frontier
-                    if (!discovered.contains(neighborPos)) {
-                        MazeVertex neighborVertex = new MazeVertex(neighborPos);
-                        vertices.put(neighborPos, neighborVertex);
+                    if (idAt[ni * height + nj] < 0) {
+                        MazeVertex neighborVertex = new MazeVertex(new IPair(ni, nj),
+                                discovered.size());
+                        idAt[ni * height + nj] = neighborVertex.id();
+                        discovered.add(neighborVertex);
                         frontier.add(neighborVertex);
-                        discovered.add(neighborPos);
                     }
 
                     // Add edge from current to neighbor
-                    MazeVertex neighborVertex = vertices.get(neighborPos);
+                    MazeVertex neighborVertex = discovered.get(idAt[ni * height + nj]);
                     MazeEdge edge = new MazeEdge(current, neighborVertex, dir, edgeWeight(weightSrc, weightDst));
                     current.addOutgoingEdge(edge);
                 }
             }
         }
+        vertices = discovered.toArray(new MazeVertex[0]);
+        verticesView = Collections.unmodifiableList(Arrays.asList(vertices));
+
+        // Build the CSR view, listing each vertex's edges in order of direction
+        int[] offsets = new int[vertices.length + 1];
+        for (MazeVertex v : vertices) {
+            offsets[v.id() + 1] = offsets[v.id()] + v.edges.size();
+        }
+        int m = offsets[vertices.length];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        byte[] directions = new byte[m];
+        edges = new MazeEdge[m];
+        for (MazeVertex v : vertices) {
+            int k = offsets[v.id()];
+            for (MazeEdge e : v.edges) {
+                targets[k] = e.dst().id();
+                weights[k] = e.weight();
+                directions[k] = (byte) e.direction().ordinal();
+                edges[k] = e;
+                k += 1;
+            }
+        }
+        compact = new CompactGraph(offsets, targets, weights, directions);
+
+        // Each edge's undirected id is the smaller of its id and its reverse's
+        Direction[] byOrdinal = Direction.values();
+        undirectedIds = new int[m];
+        for (int k = 0; k < m; k++) {
+            byte back = (byte) byOrdinal[directions[k]].reverse().ordinal();
+            int r = offsets[targets[k]];
+            while (directions[r] != back) {
+                r += 1;
+            }
+            undirectedIds[k] = Math.min(k, r);
+        }
+        manhattanHeuristic = (v, dst) -> MIN_EDGE_WEIGHT * gridDistance(v.loc(), dst.loc());
+        compactManhattanHeuristic = (v, w) -> manhattanHeuristic.estimate(vertices[v], vertices[w]);
+        routingHeuristic = manhattanHeuristic;
+        compactRoutingHeuristic = compactManhattanHeuristic;
     }
 
     /**
@@ -240,10 +413,75 @@ public class MazeGraph {
         // Uphill edges should have higher weight
         double elevDiff = Math.clamp(dstElev - srcElev, -0.25, 0.25);
         double weight = 1 + elevDiff * 3;
-        assert weight >= 0;
+        assert MIN_EDGE_WEIGHT <= weight && weight <= MAX_EDGE_WEIGHT;
         return weight;
     }
 
+    /**
+     * Return the smallest number of edges that could connect the tiles at locations `a` and `b`,
+     * which is their Manhattan distance on the tile grid where each coordinate may instead be
+     * measured the other way around through a "tunnel".
+     */
+    public int gridDistance(IPair a, IPair b) {
+        int di = Math.abs(a.i() - b.i());
+        int dj = Math.abs(a.j() - b.j());
+        return Math.min(di, width - di) + Math.min(dj, height - dj);
+    }
+
+    /**
+     * Return a consistent heuristic for A* searches over this graph.  Since every edge (including a
+     * tunnel edge) connects tiles whose `gridDistance()` is 1 and weighs at least
+     * `MIN_EDGE_WEIGHT`, scaling `gridDistance()` by `MIN_EDGE_WEIGHT` never overestimates.
+     */
+    public Heuristic<MazeVertex> manhattanHeuristic() {
+        return manhattanHeuristic;
+    }
+
+    /**
+     * Return `manhattanHeuristic()` in the form used by searches over `compact()`.  Since the
+     * estimate is symmetric, it is consistent in both directions as `IntHeuristic` requires.
+     */
+    public IntHeuristic compactManhattanHeuristic() {
+        return compactManhattanHeuristic;
+    }
+
+    /**
+     * Return the computation of `LANDMARK_COUNT` landmarks for this graph, starting it in the
+     * background on first use.  Once it completes, `routingHeuristic()` takes the larger of the
+     * landmark and Manhattan bounds.  Nothing starts it on its own: the paths chosen by
+     * `JunctionGraph.Router` do not depend on whether it has completed, and its corridor searches
+     * settle hardly fewer states with the tighter bound, so games do not pay for preprocessing.
+     */
+    public synchronized CompletableFuture<Landmarks> landmarks() {
+        if (landmarks == null) {
+            landmarks = CompletableFuture.supplyAsync(() -> {
+                Landmarks result = new Landmarks(compact, Math.min(LANDMARK_COUNT, vertices.length));
+                compactRoutingHeuristic = (v, w) -> Math.max(
+                        compactManhattanHeuristic.estimate(v, w), result.estimate(v, w));
+                routingHeuristic = (v, dst) -> compactRoutingHeuristic.estimate(v.id(), dst.id());
+                return result;
+            });
+        }
+        return landmarks;
+    }
+
+    /**
+     * Return the tightest consistent heuristic currently available for searches over this graph:
+     * the landmark heuristic (combined with `manhattanHeuristic()`) if `landmarks()` has completed,
+     * and otherwise `manhattanHeuristic()`.  Since the answer may change, a search should call this
+     * once and use the returned heuristic throughout.
+     */
+    public Heuristic<MazeVertex> routingHeuristic() {
+        return routingHeuristic;
+    }
+
+    /**
+     * Return `routingHeuristic()` in the form used by searches over `compact()`.
+     */
+    public IntHeuristic compactRoutingHeuristic() {
+        return compactRoutingHeuristic;
+    }
+
     /**
      * Return a vertex that is close to the tile location `(i, j)` (where `i` is column number and
      * `j` is row number).  Ghosts are expected to use this to ensure that they are targeting a
@@ -260,24 +498,144 @@ public class MazeGraph {
         int ip = (((i - 1) / 3) * 3 + 2);
         int jp = (((j - 1) / 3) * 3 + 2);
 
-        for (IPair loc : new IPair[]{new IPair(i, j), new IPair(i, jp), new IPair(ip, j),
-                new IPair(ip, jp)}) {
-            if (vertices.containsKey(loc)) {
-                return vertices.get(loc);
-            }
+        MazeVertex v;
+        if ((v = vertexAt(i, j)) != null || (v = vertexAt(i, jp)) != null
+                || (v = vertexAt(ip, j)) != null || (v = vertexAt(ip, jp)) != null) {
+            return v;
         }
 
         // the only time we reach here is if (ip,jp) is inside the ghost box. In this case,
         // (ip,jp+3) is guaranteed to be a path tile outside the ghost box.
-        assert (vertices.get(new IPair(ip, jp + 3)) != null);
-        return vertices.get(new IPair(ip, jp + 3));
+        assert (vertexAt(ip, jp + 3) != null);
+        return vertexAt(ip, jp + 3);
     }
 
     /**
-     * Return the full collection of vertices in this graph.
+     * Return the vertex at tile location `(i, j)`, or null if there is no such vertex (including
+     * when `(i, j)` lies outside the tile grid).
+     */
+    public MazeVertex vertexAt(int i, int j) {
+        if (i < 0 || i >= width || j < 0 || j >= height) {
+            return null;
+        }
+        int id = idAt[i * height + j];
+        return (id < 0) ? null : vertices[id];
+    }
+
+    /**
+     * Return the full collection of vertices in this graph, in order of id.
      */
     public Iterable<MazeVertex> vertices() {
-        return vertices.values();
+        return verticesView;
+    }
+
+    @Override
+    public int vertexCount() {
+        return vertices.length;
+    }
+
+    @Override
+    public int indexOf(MazeVertex v) {
+        assert vertices[v.id()] == v;
+        return v.id();
+    }
+
+    @Override
+    public double minEdgeWeight() {
+        return MIN_EDGE_WEIGHT;
+    }
+
+    @Override
+    public double maxEdgeWeight() {
+        return MAX_EDGE_WEIGHT;
+    }
+
+    /**
+     * Return the vertex with id `id`.  Requires `0 <= id < vertexCount()`.
+     */
+    public MazeVertex vertex(int id) {
+        return vertices[id];
+    }
+
+    /**
+     * Return the immutable compressed sparse row view of this graph.  Vertex ids agree with
+     * `MazeVertex.id()`, edge ids agree with `edge()` and `edgeId()`, and each edge's label is the
+     * ordinal of its `Direction`.
+     */
+    public CompactGraph compact() {
+        return compact;
+    }
+
+    /**
+     * Return the edge with id `k` in `compact()`.
+     */
+    public MazeEdge edge(int k) {
+        return edges[k];
+    }
+
+    /**
+     * Return the id of `edge` in `compact()`.  Requires `edge` belongs to this graph.
+     */
+    public int edgeId(MazeEdge edge) {
+        int v = edge.src().id();
+        byte direction = (byte) edge.direction().ordinal();
+        for (int k = compact.firstEdge(v); k < compact.endEdge(v); k++) {
+            if (compact.label(k) == direction) {
+                return k;
+            }
+        }
+        throw new IllegalArgumentException("Edge does not belong to this graph");
+    }
+
+    /**
+     * Return an id for the undirected edge underlying `edge`, shared by `edge` and its reverse: the
+     * smaller of their ids in `compact()`.  Requires `edge` belongs to this graph.
+     */
+    public int undirectedEdgeId(MazeEdge edge) {
+        return undirectedIds[edgeId(edge)];
+    }
+
+    /**
+     * Return the undirected edge id (see `undirectedEdgeId(MazeEdge)`) of the edge with id `k` in
+     * `compact()`.
+     */
+    public int undirectedEdgeId(int k) {
+        return undirectedIds[k];
+    }
+
+    /**
+     * Return the all-pairs next-hop table for this graph, building it on first use.  Building takes
+     * one search per vertex (run in parallel) and `vertexCount()^2` bytes of memory, so it is only
+     * worthwhile for mazes that are queried many times.
+     */
+    public synchronized NextHopOracle nextHopOracle() {
+        if (nextHopOracle == null) {
+            nextHopOracle = new NextHopOracle(compact);
+        }
+        return nextHopOracle;
+    }
+
+    /**
+     * Return the corridor-compressed view of this graph used for routing, building it on first use
+     * (in time linear in the size of this graph).
+     */
+    public synchronized JunctionGraph junctionGraph() {
+        if (junctionGraph == null) {
+            junctionGraph = new JunctionGraph(this);
+        }
+        return junctionGraph;
+    }
+
+    /**
+     * Return the first edge on a shortest non-backtracking path from `v` to `w`, using this graph's
+     * `nextHopOracle()`.  As for `Pathfinding.shortestNonBacktrackingPath()`, that first edge cannot
+     * backtrack `previousEdge` (when it is not null).  Returns null if `v` equals `w` or if there
+     * is no such path.  Requires that if `previousEdge != null` then `previousEdge.dst() == v`.
+     */
+    public MazeEdge nextHop(MazeVertex v, MazeEdge previousEdge, MazeVertex w) {
+        int incoming = (previousEdge == null) ? -1 : edgeId(previousEdge);
+        int k = nextHopOracle().nextEdge(v.id(), incoming, w.id());
+        return (k < 0) ? null : edges[k];
     }
 
     /**
@@ -285,11 +643,11 @@ public class MazeGraph {
      */
     public MazeEdge pacMannStartingEdge() {
         IPair startingLoc = new IPair((width - 1) / 2, 3 * ((3 * (height / 3) - 1) / 4) + 2);
-        MazeVertex t = vertices.get(startingLoc);
-        if (t.edgeMap.containsKey(Direction.LEFT)) {
-            return t.edgeMap.get(Direction.LEFT).reverse();
+        MazeVertex t = vertexAt(startingLoc.i(), startingLoc.j());
+        if (t.edgeInDirection(Direction.LEFT) != null) {
+            return t.edgeInDirection(Direction.LEFT).reverse();
         } else {
-            return t.edgeMap.get(Direction.UP).reverse();
+            return t.edgeInDirection(Direction.UP).reverse();
         }
     }
 
@@ -299,7 +657,7 @@ public class MazeGraph {
      */
     public MazeEdge ghostStartingEdge() {
         IPair startingLoc = new IPair((width - 1) / 2, 3 * ((height - 3) / 6) - 1);
-        MazeVertex s = vertices.get(startingLoc);
-        return s.edgeMap.get(Direction.RIGHT);
+        MazeVertex s = vertexAt(startingLoc.i(), startingLoc.j());
+        return s.edgeInDirection(Direction.RIGHT);
     }
 }
@@ -1,14 +1,55 @@
 package ui;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
 import model.GameModel;
 import model.GameModel.GameState;
 import util.Randomness;
 
 /**
  * Run a sequence of non-interactive PacMan games and report final scores and other metrics.
+ * Games are independent, so they may be played concurrently on a pool of platform threads
+ * (`threads=<##>`) or on virtual threads (`virtual`); each game draws on its own source of
+ * randomness, so the results for a given seed are the same however the games are scheduled.
+ * In sweep mode (`sweep=<w>x<h>x<n>,...`), the games of each configuration are played without
+ * reporting them individually, and a table of the cost of simulating them is reported instead.
+ * With `out=<file>`, every game's result is also streamed to a CSV or JSON Lines file (chosen by
+ * its extension) by a `ResultSink`; games are kept in memory only until they are reported, so
+ * arbitrarily long batches run in constant memory.
+ * <p>
+ * With `checkpoint=<file>`, a `Checkpoint` of the batch's progress is saved to a file every
+ * `CHECKPOINT_INTERVAL_NANOS` and once the batch is complete, so that a batch interrupted by a
+ * JVM restart can be continued with `resume=<file>` (which keeps saving checkpoints to the same
+ * file, and takes the board size, number of games, and seed from it).  When resuming a batch that
+ * was writing results to a file, `out=` must name the same file again; the records written after
+ * the checkpoint are discarded and played again.  Checkpoints are not supported in sweep mode.
  */
 public class BatchApp {
 
+    /**
+     * The number of games that may be in progress or awaiting their turn to be reported, per
+     * thread playing games.
+     */
+    private static final int PENDING_GAMES_PER_WORKER = 4;
+
+    /**
+     * The minimum wall-clock time between checkpoints of a batch, in ns.
+     */
+    private static final long CHECKPOINT_INTERVAL_NANOS = 10_000_000_000L;
+
     private GameModel model;
 
     public BatchApp(GameModel model) {
@@ -31,75 +72,462 @@ public class BatchApp {
         return model.state();
     }
 
+    /**
+     * The outcome of game number `game` in a batch, played on a `width`x`height` board with
+     * randomness seed `seed`, along with the cost of simulating it: the wall-clock and CPU time
+     * taken to play it (the latter is -1 if it could not be measured), and the numbers of events
+     * processed and path queries issued by its model.
+     */
+    public record GameResult(int game, long seed, int width, int height, GameState state,
+                             int score, double time, int lives, long wallNanos, long cpuNanos,
+                             long events, long pathQueries) {
+
+        /**
+         * Return the result of the game that `model` has finished playing on a `width`x`height`
+         * board in `wallNanos` ns of wall-clock time and `cpuNanos` ns of CPU time, as game number
+         * `game` of a batch.
+         */
+        public static GameResult of(int game, long seed, int width, int height, GameModel model,
+                long wallNanos, long cpuNanos) {
+            return new GameResult(game, seed, width, height, model.state(),
+                    model.score(), model.time(), model.numLives(), wallNanos, cpuNanos,
+                    model.eventCount(), model.pathQueryCount());
+        }
+    }
+
+    /**
+     * Aggregate statistics over the games of a batch.  Results may be recorded concurrently;
+     * they are merged without locking, so the totals do not depend on the order in which they are
+     * recorded.
+     */
+    public static class Statistics {
+
+        private final LongAdder numGames = new LongAdder();
+        private final LongAdder numWins = new LongAdder();
+        private final LongAdder totalScore = new LongAdder();
+        private final DoubleAdder totalTime = new DoubleAdder();
+        private final LongAdder totalWallNanos = new LongAdder();
+        private final LongAdder totalEvents = new LongAdder();
+        private final LongAdder totalPathQueries = new LongAdder();
+
+        /**
+         * The result with the highest score, with ties going to the earliest game, or null if no
+         * results have been recorded.
+         */
+        private final AtomicReference<GameResult> best = new AtomicReference<>();
+
+        /**
+         * Add `result` to these statistics.
+         */
+        public void record(GameResult result) {
+            numGames.increment();
+            if (result.state() == GameState.VICTORY) {
+                numWins.increment();
+            }
+            totalScore.add(result.score());
+            totalTime.add(result.time());
+            totalWallNanos.add(result.wallNanos());
+            totalEvents.add(result.events());
+            totalPathQueries.add(result.pathQueries());
+            best.accumulateAndGet(result, Statistics::better);
+        }
+
+        /**
+         * Add the games recorded in `checkpoint` to these statistics, as when resuming the batch
+         * it was taken of.
+         */
+        public void add(Checkpoint checkpoint) {
+            numGames.add(checkpoint.nextGame());
+            numWins.add(checkpoint.numWins());
+            totalScore.add(checkpoint.totalScore());
+            totalTime.add(checkpoint.totalTime());
+            totalWallNanos.add(checkpoint.totalWallNanos());
+            totalEvents.add(checkpoint.totalEvents());
+            totalPathQueries.add(checkpoint.totalPathQueries());
+            if (checkpoint.best() != null) {
+                best.accumulateAndGet(checkpoint.best(), Statistics::better);
+            }
+        }
+
+        /**
+         * Return whichever of `a` and `b` has the higher score, or the earlier game among ties.
+         * `a` may be null, in which case `b` is returned.
+         */
+        private static GameResult better(GameResult a, GameResult b) {
+            return (a == null || b.score() > a.score()
+                    || b.score() == a.score() && b.game() < a.game()) ? b : a;
+        }
+
+        public long numGames() {
+            return numGames.sum();
+        }
+
+        public long numWins() {
+            return numWins.sum();
+        }
+
+        public long totalScore() {
+            return totalScore.sum();
+        }
+
+        /**
+         * Return the total simulated time of the recorded games, in ms.
+         */
+        public double totalTime() {
+            return totalTime.sum();
+        }
+
+        /**
+         * Return the total wall-clock time taken to play the recorded games, in ns.  When games
+         * are played concurrently, this exceeds the elapsed time of the batch.
+         */
+        public long totalWallNanos() {
+            return totalWallNanos.sum();
+        }
+
+        public long totalEvents() {
+            return totalEvents.sum();
+        }
+
+        public long totalPathQueries() {
+            return totalPathQueries.sum();
+        }
+
+        /**
+         * Return the result with the highest score (the earliest game among ties), or null if no
+         * results have been recorded.
+         */
+        public GameResult best() {
+            return best.get();
+        }
+    }
+
+    /**
+     * Play a game on a new `width`x`height` board generated from `randomness` to completion, as
+     * game number `game` of a batch, and return its result.  Its CPU time is that of the calling
+     * thread, which cannot be measured on a virtual thread.
+     */
+    public static GameResult playGame(int game, int width, int height, Randomness randomness) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        long start = System.nanoTime();
+        var controller = new BatchApp(GameModel.newGame(width, height, true, randomness));
+        controller.play();
+        long wallNanos = System.nanoTime() - start;
+        long cpuEnd = threads.getCurrentThreadCpuTime();
+        return GameResult.of(game, randomness.seed(), width, height, controller.model(),
+                wallNanos, (cpuStart < 0 || cpuEnd < 0) ? -1 : cpuEnd - cpuStart);
+    }
+
+    /**
+     * Play games `[firstGame..numGames)` of a batch on `width`x`height` boards on `executor`, the
+     * first drawing on `randomness` and each subsequent one on the `next()` source after its
+     * predecessor's, and record their results in `statistics` and pass them to `onResult` in order
+     * of game number, so that when a result is passed on, `statistics` covers exactly the games up
+     * to it.  At most `maxPending` games are submitted but not yet passed on at any time, so memory
+     * use does not grow with `numGames`.  Since every game's source of randomness is fixed by its
+     * number, the results do not depend on how `executor` schedules the games.
+     */
+    public static void playGames(ExecutorService executor, int width, int height, int firstGame,
+            int numGames, Randomness randomness, Statistics statistics, int maxPending,
+            ResultHandler onResult) throws InterruptedException, ExecutionException {
+        ArrayDeque<Future<GameResult>> pending = new ArrayDeque<>(maxPending);
+        for (int i = firstGame; i < numGames; i += 1) {
+            if (pending.size() == maxPending) {
+                handOff(pending.remove().get(), statistics, onResult);
+            }
+            int game = i;
+            Randomness gameRandomness = randomness;
+            pending.add(executor.submit(() -> playGame(game, width, height, gameRandomness)));
+            randomness = randomness.next();
+        }
+        while (!pending.isEmpty()) {
+            handOff(pending.remove().get(), statistics, onResult);
+        }
+    }
+
+    /**
+     * Record `result` in `statistics`, then pass it to `onResult`.
+     */
+    private static void handOff(GameResult result, Statistics statistics,
+            ResultHandler onResult) throws InterruptedException {
+        statistics.record(result);
+        onResult.accept(result);
+    }
+
+    /**
+     * Receives the results of a batch's games, in order of game number.
+     */
+    @FunctionalInterface
+    public interface ResultHandler {
+
+        void accept(GameResult result) throws InterruptedException;
+    }
+
+    /**
+     * Saves checkpoints of a batch of `numGames` games on `width`x`height` boards, started from
+     * seed `seed`, to `path` as its results are reported: whenever `CHECKPOINT_INTERVAL_NANOS`
+     * have passed since the last one, and after the last game.  If results are being written to a
+     * `sink`, each checkpoint is saved by the sink's writer once the results it covers are on
+     * storage, so that the batch neither waits on it nor records the length of a partial file.
+     */
+    private static class Checkpointer {
+
+        private final Path path;
+        private final int width;
+        private final int height;
+        private final int numGames;
+        private final long seed;
+        private final Statistics statistics;
+        private final ResultSink sink;
+
+        /**
+         * The time (as of `System.nanoTime()`) at which the last checkpoint was taken, or this
+         * checkpointer was created.
+         */
+        private long lastNanos;
+
+        Checkpointer(Path path, int width, int height, int numGames, long seed,
+                Statistics statistics, ResultSink sink) {
+            this.path = path;
+            this.width = width;
+            this.height = height;
+            this.numGames = numGames;
+            this.seed = seed;
+            this.statistics = statistics;
+            this.sink = sink;
+            lastNanos = System.nanoTime();
+        }
+
+        /**
+         * Take a checkpoint if one is due now that `result` has been reported (and recorded in
+         * `statistics`).
+         */
+        void reported(GameResult result) throws InterruptedException {
+            long now = System.nanoTime();
+            if (result.game() < numGames - 1 && now - lastNanos < CHECKPOINT_INTERVAL_NANOS) {
+                return;
+            }
+            lastNanos = now;
+            Checkpoint checkpoint = Checkpoint.of(width, height, numGames, seed,
+                    result.game() + 1, new Randomness(result.seed()).next().seed(), statistics,
+                    -1);
+            if (sink != null) {
+                sink.sync(length -> checkpoint.withOutLength(length).write(path));
+            } else {
+                try {
+                    checkpoint.write(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
     public static void main(String[] args) {
 
         // Default configuration parameters
         int width = 10;
         int height = 10;
         int numGames = 20;
+        // Default to playing games one at a time
+        int numThreads = 1;
+        boolean virtualThreads = false;
+        // Default to a single configuration, given by the width, height, and number of games
+        List<int[]> sweep = null;
+        // Default to not writing results to a file
+        Path outPath = null;
+        // Default to neither saving checkpoints nor resuming from one
+        Path checkpointPath = null;
+        Path resumePath = null;
         // Default to a different seed every time
         long seed = System.currentTimeMillis();
 
         for (String arg : args) {
             if (arg.startsWith("w=")) {
                 width = Integer.parseInt(arg.substring(2));
-                if (width < 4) {
-                    throw new IllegalArgumentException("Board width must be at least 4.");
-                }
+                checkWidth(width);
             } else if (arg.startsWith("h=")) {
                 height = Integer.parseInt(arg.substring(2));
-                if (height < 3) {
-                    throw new IllegalArgumentException("Board height must be at least 3.");
-                }
+                checkHeight(height);
             } else if (arg.startsWith("seed=")) {
                 seed = Long.parseLong(arg.substring(5));
             } else if (arg.startsWith("n=")) {
                 numGames = Integer.parseInt(arg.substring(2));
+            } else if (arg.startsWith("threads=")) {
+                numThreads = Integer.parseInt(arg.substring(8));
+                if (numThreads < 1) {
+                    throw new IllegalArgumentException("Number of threads must be at least 1.");
+                }
+            } else if (arg.equals("virtual")) {
+                virtualThreads = true;
+            } else if (arg.startsWith("out=")) {
+                outPath = Path.of(arg.substring(4));
+            } else if (arg.startsWith("checkpoint=")) {
+                checkpointPath = Path.of(arg.substring(11));
+            } else if (arg.startsWith("resume=")) {
+                resumePath = Path.of(arg.substring(7));
+            } else if (arg.startsWith("sweep=")) {
+                sweep = new ArrayList<>();
+                for (String config : arg.substring(6).split(",")) {
+                    String[] parts = config.split("x");
+                    if (parts.length != 3) {
+                        throw new IllegalArgumentException("Unable to interpret sweep "
+                                + "configuration: " + config + " (expected <w>x<h>x<n>)");
+                    }
+                    int[] whn = {Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                            Integer.parseInt(parts[2])};
+                    checkWidth(whn[0]);
+                    checkHeight(whn[1]);
+                    sweep.add(whn);
+                }
             } else {
                 throw new IllegalArgumentException("Unable to interpret argument: " + arg +
-                        "\n Usage: java PacMannApp [h=<##>] [w=<##>] [seed=<##>] [ai_on] [paths_on]");
+                        "\n Usage: java BatchApp [h=<##>] [w=<##>] [seed=<##>] [n=<##>] "
+                        + "[threads=<##>] [virtual] [sweep=<w>x<h>x<n>,...] "
+                        + "[out=<results.csv|results.jsonl>] [checkpoint=<file>] "
+                        + "[resume=<file>]");
             }
         }
 
+        // Continue the batch recorded by a checkpoint, if resuming
+        Checkpoint resumed = null;
+        if (resumePath != null) {
+            try {
+                resumed = Checkpoint.read(resumePath);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (outPath != null && resumed.outLength() < 0) {
+                throw new IllegalArgumentException("Checkpoint " + resumePath
+                        + " was not taken while writing results to a file.");
+            }
+            width = resumed.width();
+            height = resumed.height();
+            numGames = resumed.numGames();
+            seed = resumed.seed();
+            if (checkpointPath == null) {
+                checkpointPath = resumePath;
+            }
+        }
+        if (sweep != null && checkpointPath != null) {
+            throw new IllegalArgumentException("Checkpoints are not supported in sweep mode.");
+        }
+
         // Print randomness seed, so an "interesting" game can be reproduced
         System.out.println("Randomness seed: " + seed);
 
+        // Each game gets its own source of randomness, in the same sequence whether games are
+        //  played one at a time or concurrently, so results are identical for a given seed
         Randomness randomness = new Randomness(seed);
-        var controller = new BatchApp(null);
-
-        // Track statistics
-        int numWins = 0;
-        int totalScore = 0;
-        int maxScore = 0;
-        long bestSeed = randomness.seed();
-
-        System.out.printf("%4s  %7s  %5s  %8s  %5s\n",
-                "Game", "Result", "Score", "Time [s]", "Lives");
-        for (int i = 0; i < numGames; i += 1) {
-            controller.setModel(GameModel.newGame(10, 10, true, randomness));
-            controller.play();
-            var model = controller.model();
-
-            // Update statistics
-            if (model.state() == GameState.VICTORY) {
-                numWins += 1;
-            }
-            totalScore += model.score();
-            if (model.score() > maxScore) {
-                maxScore = model.score();
-                bestSeed = randomness.seed();
+        Statistics statistics = new Statistics();
+        int firstGame = 0;
+        if (resumed != null) {
+            System.out.println("Resuming from game " + resumed.nextGame() + " of " + numGames);
+            randomness = new Randomness(resumed.nextSeed());
+            statistics.add(resumed);
+            firstGame = resumed.nextGame();
+        }
+        // Keep every worker busy while the next result in order is awaited
+        int maxPending = PENDING_GAMES_PER_WORKER * (virtualThreads
+                ? Runtime.getRuntime().availableProcessors() : numThreads);
+
+        try (ResultSink sink = (outPath == null) ? null
+                : (resumed != null)
+                        ? ResultSink.resume(outPath, ResultSink.Format.forPath(outPath),
+                                resumed.outLength())
+                        : new ResultSink(outPath, ResultSink.Format.forPath(outPath));
+             ExecutorService executor = virtualThreads
+                     ? Executors.newVirtualThreadPerTaskExecutor()
+                     : Executors.newFixedThreadPool(numThreads)) {
+            if (sweep != null) {
+                sweep(executor, sweep, randomness, maxPending, sink);
+                return;
             }
-            System.out.printf("%4d  %7s  %5d  %8.3f  %5d\n",
-                    i, model.state(), model.score(), model.time() / 1000.0, model.numLives());
 
-            randomness = randomness.next();
+            Checkpointer checkpointer = (checkpointPath == null) ? null
+                    : new Checkpointer(checkpointPath, width, height, numGames, seed,
+                            statistics, sink);
+
+            System.out.printf("%4s  %7s  %5s  %8s  %5s\n",
+                    "Game", "Result", "Score", "Time [s]", "Lives");
+            // Report games in order as they finish
+            playGames(executor, width, height, firstGame, numGames, randomness, statistics,
+                    maxPending, result -> {
+                        System.out.printf("%4d  %7s  %5d  %8.3f  %5d\n", result.game(),
+                                result.state(), result.score(), result.time() / 1000.0,
+                                result.lives());
+                        if (sink != null) {
+                            sink.accept(result);
+                        }
+                        if (checkpointer != null) {
+                            checkpointer.reported(result);
+                        }
+                    });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
 
         // Report statistics
         System.out.println();
         System.out.printf("Number of wins: %d / %d (%.1f %%)\n",
-                numWins, numGames, 100.0*numWins/numGames);
-        System.out.printf("Average score: %.1f\n", (double)totalScore/numGames);
-        System.out.printf("Best score: %d (seed: %d)\n", maxScore, bestSeed);
+                statistics.numWins(), numGames, 100.0*statistics.numWins()/numGames);
+        System.out.printf("Average score: %.1f\n", (double)statistics.totalScore()/numGames);
+        GameResult best = statistics.best();
+        System.out.printf("Best score: %d (seed: %d)\n", (best == null) ? 0 : best.score(),
+                (best == null) ? seed : best.seed());
+    }
+
+    /**
+     * Play the games of each `{width, height, numGames}` configuration in `configs` on `executor`,
+     * every configuration starting from the same `randomness`, and print a table of the cost of
+     * simulating them: the mean wall-clock time per game, the simulated time per second of
+     * wall-clock time, and the mean numbers of events processed and path queries issued per game.
+     * At most `maxPending` games are in progress at once.  If `sink` is not null, every game's
+     * result is also written to it.
+     */
+    private static void sweep(ExecutorService executor, List<int[]> configs,
+            Randomness randomness, int maxPending, ResultSink sink)
+            throws InterruptedException, ExecutionException {
+        System.out.printf("%5s  %6s  %5s  %10s  %12s  %10s  %10s\n", "Width", "Height", "Games",
+                "Wall [ms]", "Sim s/wall s", "Events", "Queries");
+        for (int[] config : configs) {
+            Statistics statistics = new Statistics();
+            playGames(executor, config[0], config[1], 0, config[2], randomness, statistics,
+                    maxPending, result -> {
+                        if (sink != null) {
+                            sink.accept(result);
+                        }
+                    });
+            long games = Math.max(statistics.numGames(), 1);
+            System.out.printf("%5d  %6d  %5d  %10.2f  %12.1f  %10.1f  %10.1f\n", config[0],
+                    config[1], config[2], statistics.totalWallNanos() / 1e6 / games,
+                    statistics.totalTime() / 1e3 / (statistics.totalWallNanos() / 1e9),
+                    (double) statistics.totalEvents() / games,
+                    (double) statistics.totalPathQueries() / games);
+        }
+    }
+
+    /**
+     * Throw IllegalArgumentException if `width` is too small for a board.
+     */
+    private static void checkWidth(int width) {
+        if (width < 4) {
+            throw new IllegalArgumentException("Board width must be at least 4.");
+        }
+    }
+
+    /**
+     * Throw IllegalArgumentException if `height` is too small for a board.
+     */
+    private static void checkHeight(int height) {
+        if (height < 3) {
+            throw new IllegalArgumentException("Board height must be at least 3.");
+        }
     }
 }
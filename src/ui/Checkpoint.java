@@ -0,0 +1,166 @@
+package ui;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import model.GameModel.GameState;
+import ui.BatchApp.GameResult;
+import ui.BatchApp.Statistics;
+
+/**
+ * The progress of a batch of `numGames` games on `width`x`height` boards, started from randomness
+ * seed `seed`, after games `[0..nextGame)` have been played: the seed of game `nextGame`'s source
+ * of randomness, the statistics of the games played, and the length in bytes of the results file
+ * holding their records (-1 if results are not being written to a file).  Since each game's source
+ * of randomness follows from its predecessor's, the rest of the batch can be played from a
+ * checkpoint exactly as it would have been had the batch not been interrupted.
+ * <p>
+ * Checkpoints are stored as properties files.  `write()` replaces a checkpoint file by atomically
+ * renaming a complete new file over it, so an interruption never leaves a partial checkpoint.
+ */
+public record Checkpoint(int width, int height, int numGames, long seed, int nextGame,
+                         long nextSeed, long numWins, long totalScore, double totalTime,
+                         long totalWallNanos, long totalEvents, long totalPathQueries,
+                         GameResult best, long outLength) {
+
+    /**
+     * Return a checkpoint of a batch of `numGames` games on `width`x`height` boards started from
+     * seed `seed`, whose games `[0..nextGame)` are recorded in `statistics` and whose next game
+     * draws on the source of randomness with seed `nextSeed`.  Requires no results are being
+     * recorded in `statistics` concurrently.
+     */
+    public static Checkpoint of(int width, int height, int numGames, long seed, int nextGame,
+            long nextSeed, Statistics statistics, long outLength) {
+        return new Checkpoint(width, height, numGames, seed, nextGame, nextSeed,
+                statistics.numWins(), statistics.totalScore(), statistics.totalTime(),
+                statistics.totalWallNanos(), statistics.totalEvents(),
+                statistics.totalPathQueries(), statistics.best(), outLength);
+    }
+
+    /**
+     * Return this checkpoint, but with a results file of `length` bytes.
+     */
+    public Checkpoint withOutLength(long length) {
+        return new Checkpoint(width, height, numGames, seed, nextGame, nextSeed, numWins,
+                totalScore, totalTime, totalWallNanos, totalEvents, totalPathQueries, best,
+                length);
+    }
+
+    /**
+     * Write this checkpoint to `path`, replacing any existing file there only once this one is
+     * complete and on storage.  The new file is first written next to `path`, with ".tmp"
+     * appended to its name.
+     */
+    public void write(Path path) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("width", Integer.toString(width));
+        props.setProperty("height", Integer.toString(height));
+        props.setProperty("numGames", Integer.toString(numGames));
+        props.setProperty("seed", Long.toString(seed));
+        props.setProperty("nextGame", Integer.toString(nextGame));
+        props.setProperty("nextSeed", Long.toString(nextSeed));
+        props.setProperty("numWins", Long.toString(numWins));
+        props.setProperty("totalScore", Long.toString(totalScore));
+        props.setProperty("totalTime", Double.toString(totalTime));
+        props.setProperty("totalWallNanos", Long.toString(totalWallNanos));
+        props.setProperty("totalEvents", Long.toString(totalEvents));
+        props.setProperty("totalPathQueries", Long.toString(totalPathQueries));
+        props.setProperty("outLength", Long.toString(outLength));
+        if (best != null) {
+            props.setProperty("best.game", Integer.toString(best.game()));
+            props.setProperty("best.seed", Long.toString(best.seed()));
+            props.setProperty("best.width", Integer.toString(best.width()));
+            props.setProperty("best.height", Integer.toString(best.height()));
+            props.setProperty("best.state", best.state().name());
+            props.setProperty("best.score", Integer.toString(best.score()));
+            props.setProperty("best.time", Double.toString(best.time()));
+            props.setProperty("best.lives", Integer.toString(best.lives()));
+            props.setProperty("best.wallNanos", Long.toString(best.wallNanos()));
+            props.setProperty("best.cpuNanos", Long.toString(best.cpuNanos()));
+            props.setProperty("best.events", Long.toString(best.events()));
+            props.setProperty("best.pathQueries", Long.toString(best.pathQueries()));
+        }
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            props.store(out, "BatchApp checkpoint");
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Return the checkpoint stored in the file at `path`.  Throws IOException if the file cannot
+     * be read or is not a valid checkpoint.
+     */
+    public static Checkpoint read(Path path) throws IOException {
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(path, StandardCharsets.ISO_8859_1)) {
+            props.load(in);
+        }
+        try {
+            GameResult best = null;
+            if (props.getProperty("best.game") != null) {
+                best = new GameResult(intProperty(props, "best.game"),
+                        longProperty(props, "best.seed"), intProperty(props, "best.width"),
+                        intProperty(props, "best.height"),
+                        GameState.valueOf(property(props, "best.state")),
+                        intProperty(props, "best.score"), doubleProperty(props, "best.time"),
+                        intProperty(props, "best.lives"), longProperty(props, "best.wallNanos"),
+                        longProperty(props, "best.cpuNanos"), longProperty(props, "best.events"),
+                        longProperty(props, "best.pathQueries"));
+            }
+            Checkpoint checkpoint = new Checkpoint(intProperty(props, "width"),
+                    intProperty(props, "height"), intProperty(props, "numGames"),
+                    longProperty(props, "seed"), intProperty(props, "nextGame"),
+                    longProperty(props, "nextSeed"), longProperty(props, "numWins"),
+                    longProperty(props, "totalScore"), doubleProperty(props, "totalTime"),
+                    longProperty(props, "totalWallNanos"), longProperty(props, "totalEvents"),
+                    longProperty(props, "totalPathQueries"), best,
+                    longProperty(props, "outLength"));
+            if (checkpoint.nextGame() < 0 || checkpoint.nextGame() > checkpoint.numGames()) {
+                throw new IOException("Invalid checkpoint " + path + ": next game "
+                        + checkpoint.nextGame() + " of " + checkpoint.numGames());
+            }
+            return checkpoint;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid checkpoint " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Return the value of property `key` in `props`.  Throws IllegalArgumentException if it is
+     * missing.
+     */
+    private static String property(Properties props, String key) {
+        String value = props.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("missing property " + key);
+        }
+        return value.trim();
+    }
+
+    private static int intProperty(Properties props, String key) {
+        return Integer.parseInt(property(props, key));
+    }
+
+    private static long longProperty(Properties props, String key) {
+        return Long.parseLong(property(props, key));
+    }
+
+    private static double doubleProperty(Properties props, String key) {
+        return Double.parseDouble(property(props, key));
+    }
+}
@@ -0,0 +1,264 @@
+package ui;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import ui.BatchApp.GameResult;
+
+/**
+ * Streams the results of a batch of games to a file, one record per game, as CSV (with a header
+ * row) or as JSON Lines.  Records are handed to a bounded queue and written by a dedicated
+ * thread through a buffered writer, so a batch never waits on I/O unless the writer falls
+ * `CAPACITY` records behind, and memory use does not grow with the number of games.
+ * An I/O error stops the writer and is rethrown by `accept()` or `close()`.
+ * <p>
+ * To support resuming an interrupted batch, `sync()` runs an action once every record queued
+ * before it is on storage, given the length of the file at that point, and a sink can be opened
+ * to append to the records written up to such a length (see `resume()`).
+ */
+public class ResultSink implements AutoCloseable {
+
+    /**
+     * The file formats a sink can write.
+     */
+    public enum Format {
+        CSV, JSONL;
+
+        /**
+         * Return the format suggested by the extension of `path`: JSONL for ".jsonl" or ".json",
+         * and CSV otherwise.
+         */
+        public static Format forPath(Path path) {
+            String name = path.getFileName().toString();
+            return (name.endsWith(".jsonl") || name.endsWith(".json")) ? JSONL : CSV;
+        }
+    }
+
+    /**
+     * The maximum number of records waiting to be written.
+     */
+    public static final int CAPACITY = 4096;
+
+    /**
+     * The header row of CSV files, naming the fields of each record.
+     */
+    private static final String CSV_HEADER = "game,seed,width,height,result,score,time_ms,lives,"
+            + "steps,cpu_ms,wall_ms,path_queries";
+
+    /**
+     * Marks the end of the records in `queue`.
+     */
+    private static final Object END = new Object();
+
+    private final Format format;
+    private final FileChannel channel;
+    private final BufferedWriter out;
+
+    /**
+     * The records (GameResults) waiting to be written, interleaved with the `Sync`s to run after
+     * them, and ending with `END` once this sink is closed.
+     */
+    private final BlockingQueue<Object> queue;
+
+    /**
+     * The thread writing records from `queue` to `out`.
+     */
+    private final Thread writer;
+
+    /**
+     * The first error raised while writing, or null if none has been.
+     */
+    private volatile IOException error;
+
+    private boolean closed;
+
+    /**
+     * An action to run once the records queued before it have been written.
+     */
+    @FunctionalInterface
+    public interface SyncAction {
+
+        /**
+         * Run this action, given that the file now holds `length` bytes.
+         */
+        void run(long length) throws IOException;
+    }
+
+    /**
+     * An action queued by `sync()`.
+     */
+    private record Sync(SyncAction action) {}
+
+    /**
+     * Create a sink writing records to `path` in `format`, replacing any existing file, and start
+     * its writer thread.
+     */
+    public ResultSink(Path path, Format format) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), format, true);
+    }
+
+    /**
+     * Create a sink writing records to `channel` in `format`, preceded by a header row if
+     * `header` is true and the format has one, and start its writer thread.
+     */
+    private ResultSink(FileChannel channel, Format format, boolean header) throws IOException {
+        this.format = format;
+        this.channel = channel;
+        out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+        queue = new ArrayBlockingQueue<>(CAPACITY);
+        if (header && format == Format.CSV) {
+            out.write(CSV_HEADER);
+            out.newLine();
+        }
+        writer = new Thread(this::drain, "result-sink");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Return a sink appending records in `format` to the first `length` bytes of the existing file
+     * at `path`, discarding the rest of it, as when resuming a batch from a checkpoint taken when
+     * the file was `length` bytes long.  Throws IOException if the file does not exist or is
+     * shorter than `length`.
+     */
+    public static ResultSink resume(Path path, Format format, long length) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < length) {
+                throw new IOException("Results file " + path + " is shorter than expected ("
+                        + channel.size() + " < " + length + " bytes)");
+            }
+            channel.truncate(length);
+            channel.position(length);
+            return new ResultSink(channel, format, false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Queue `result` to be written, waiting only if `CAPACITY` records are already waiting.
+     * Throws UncheckedIOException if an earlier record could not be written.
+     */
+    public void accept(GameResult result) throws InterruptedException {
+        checkError();
+        queue.put(result);
+    }
+
+    /**
+     * Queue `action` to be run by the writer thread once every record queued before it has been
+     * written and forced to storage, waiting only if `CAPACITY` records are already waiting.  An
+     * IOException thrown by `action` stops the writer as a failed write would.  Throws
+     * UncheckedIOException if an earlier record could not be written.
+     */
+    public void sync(SyncAction action) throws InterruptedException {
+        checkError();
+        queue.put(new Sync(action));
+    }
+
+    /**
+     * Write every queued record, then flush and close the file.  Throws IOException if any record
+     * could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (error == null) {
+                queue.put(END);
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.interrupt();
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Throw UncheckedIOException if the writer has failed.
+     */
+    private void checkError() {
+        if (error != null) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+    /**
+     * Write records and run sync actions from `queue` until `END` is reached or writing fails.
+     * Flushes whenever the queue runs dry, so that the file keeps up with a slow batch.
+     */
+    private void drain() {
+        try {
+            while (true) {
+                Object item = queue.poll();
+                if (item == null) {
+                    out.flush();
+                    item = queue.take();
+                }
+                if (item == END) {
+                    out.flush();
+                    return;
+                } else if (item instanceof Sync sync) {
+                    out.flush();
+                    channel.force(false);
+                    sync.action().run(channel.size());
+                } else {
+                    out.write(format((GameResult) item));
+                    out.newLine();
+                }
+            }
+        } catch (IOException e) {
+            error = e;
+            queue.clear();  // unblock producers; later records are discarded
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Return `result` as one line (without a line separator) in this sink's format.  A CPU time
+     * that could not be measured (negative) is written as an empty field or null.
+     */
+    private String format(GameResult r) {
+        String cpu = (r.cpuNanos() < 0) ? null : String.format(Locale.ROOT, "%.3f",
+                r.cpuNanos() / 1e6);
+        if (format == Format.CSV) {
+            return String.format(Locale.ROOT, "%d,%d,%d,%d,%s,%d,%.3f,%d,%d,%s,%.3f,%d",
+                    r.game(), r.seed(), r.width(), r.height(), r.state(), r.score(), r.time(),
+                    r.lives(), r.events(), (cpu == null) ? "" : cpu, r.wallNanos() / 1e6,
+                    r.pathQueries());
+        } else {
+            return String.format(Locale.ROOT, "{\"game\":%d,\"seed\":%d,\"width\":%d,"
+                            + "\"height\":%d,\"result\":\"%s\",\"score\":%d,\"time_ms\":%.3f,"
+                            + "\"lives\":%d,\"steps\":%d,\"cpu_ms\":%s,\"wall_ms\":%.3f,"
+                            + "\"path_queries\":%d}",
+                    r.game(), r.seed(), r.width(), r.height(), r.state(), r.score(), r.time(),
+                    r.lives(), r.events(), (cpu == null) ? "null" : cpu, r.wallNanos() / 1e6,
+                    r.pathQueries());
+        }
+    }
+}
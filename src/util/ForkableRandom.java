@@ -0,0 +1,87 @@
+package util;
+
+import java.util.Random;
+
+/**
+ * A random number generator whose entire state is a single `long` that can be read, restored, and
+ * copied, so that a simulation drawing on it can be snapshotted and forked.  It uses the same
+ * linear congruential generator as `Random`, so for a given seed it produces the same sequence of
+ * values as `new Random(seed)` (except for `nextGaussian()`, see below).  Unlike `Random`, it is
+ * not safe for concurrent use.
+ */
+public class ForkableRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    /**
+     * The 48-bit state of the generator.  (Assigned by `setSeed()` during construction, so it
+     * must not have an initializer.)
+     */
+    private long state;
+
+    /**
+     * Create a generator producing the same sequence as `new Random(seed)`.
+     */
+    public ForkableRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Return the current state of this generator, which `setState()` can later restore.
+     */
+    public long state() {
+        return state;
+    }
+
+    /**
+     * Restore this generator to `state`, as returned by an earlier call to `state()` on it or on
+     * another `ForkableRandom`, so that it produces the same values as that generator did from
+     * then on.
+     */
+    public void setState(long state) {
+        this.state = state & MASK;
+    }
+
+    /**
+     * Return a new generator in the same state as this one, which will produce the same values as
+     * this one independently of it.
+     */
+    public ForkableRandom fork() {
+        ForkableRandom copy = new ForkableRandom(0);
+        copy.state = state;
+        return copy;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * Return a normally distributed value, by the same polar method as `Random`.  Unlike `Random`,
+     * the second value generated by each round of the method is discarded rather than saved for
+     * the next call, so that `state()` captures the whole state of this generator.
+     */
+    @Override
+    public double nextGaussian() {
+        double v1;
+        double v2;
+        double s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        return v1 * StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+    }
+}
@@ -42,4 +42,12 @@ public record Randomness(long seed) {
     public Random generatorFor(String id) {
         return new Random(seed ^ id.hashCode());
     }
+
+    /**
+     * Return a random number generator to be used by a submodel with ID `id` whose state can be
+     * saved and restored, producing the same values as `generatorFor(id)`.
+     */
+    public ForkableRandom forkableGeneratorFor(String id) {
+        return new ForkableRandom(seedFor(id));
+    }
 }
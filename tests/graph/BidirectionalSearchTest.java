@@ -0,0 +1,81 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BidirectionalSearchTest {
+
+    /**
+     * Return a `CompactGraph` with `n` vertices in which each vertex has up to `maxDegree` edges to
+     * random distinct vertices, with weights in `[1, 10)`.
+     */
+    static CompactGraph randomCompactGraph(int n, int maxDegree, Random rng) {
+        int[] offsets = new int[n + 1];
+        int[][] adjacency = new int[n][];
+        for (int v = 0; v < n; v++) {
+            int src = v;
+            adjacency[v] = rng.ints(0, n).filter(w -> w != src).distinct()
+                    .limit(rng.nextInt(maxDegree + 1)).toArray();
+            offsets[v + 1] = offsets[v] + adjacency[v].length;
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            for (int i = 0; i < adjacency[v].length; i++) {
+                targets[offsets[v] + i] = adjacency[v][i];
+                weights[offsets[v] + i] = 1 + 9 * rng.nextDouble();
+            }
+        }
+        return new CompactGraph(offsets, targets, weights, new byte[offsets[n]]);
+    }
+
+    @DisplayName("WHEN searching a random graph, THEN the bidirectional search finds a path exactly "
+            + "when the distance field says one exists, AND the path is non-backtracking, starts "
+            + "at `src`, ends at `dst`, and has the length given by the distance field.")
+    @Test
+    void testAgreesWithDistanceField() {
+        Random rng = new Random(2110);
+        CompactGraph graph = randomCompactGraph(60, 4, rng);
+        BidirectionalSearch search = new BidirectionalSearch(graph);
+        DistanceField field = new DistanceField(graph);
+
+        for (int dst = 0; dst < graph.vertexCount(); dst++) {
+            field.compute(dst);
+            for (int trial = 0; trial < 20; trial++) {
+                int src = rng.nextInt(graph.vertexCount());
+                int incoming = -1;
+                if (graph.endInEdge(src) > graph.firstInEdge(src) && rng.nextBoolean()) {
+                    incoming = graph.inEdge(graph.firstInEdge(src));
+                }
+
+                double expected = field.distance(src, incoming);
+                boolean found = search.search(src, incoming, dst);
+                assertEquals(expected != Double.POSITIVE_INFINITY, found);
+                if (!found) {
+                    continue;
+                }
+                assertEquals(expected, search.distance(), 1e-9);
+
+                double length = 0;
+                int previous = incoming;
+                int v = src;
+                for (int i = 0; i < search.pathLength(); i++) {
+                    int k = search.pathEdge(i);
+                    assertEquals(v, graph.source(k));
+                    if (previous >= 0) {
+                        assertNotEquals(graph.source(previous), graph.target(k));
+                    }
+                    length += graph.weight(k);
+                    previous = k;
+                    v = graph.target(k);
+                }
+                assertEquals(dst, v);
+                assertEquals(expected, length, 1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ContractionHierarchyTest {
+
+    @DisplayName("WHEN querying a contraction hierarchy of a random graph, THEN it finds a path "
+            + "exactly when the distance field says one exists, AND the unpacked path is "
+            + "non-backtracking, starts at `src`, ends at `dst`, and has the length given by the "
+            + "distance field.")
+    @Test
+    void testAgreesWithDistanceField() {
+        assertAgreesWithDistanceField(ContractionHierarchy.DEFAULT_CORE_DEGREE);
+    }
+
+    @DisplayName("WHEN most states are left uncontracted in the core, THEN queries still agree "
+            + "with the distance field.")
+    @Test
+    void testLargeCore() {
+        assertAgreesWithDistanceField(4);
+    }
+
+    private static void assertAgreesWithDistanceField(int coreDegree) {
+        Random rng = new Random(2110);
+        CompactGraph graph = BidirectionalSearchTest.randomCompactGraph(60, 4, rng);
+        ContractionHierarchy.Query hierarchy =
+                new ContractionHierarchy(graph, null, coreDegree).new Query();
+        DistanceField field = new DistanceField(graph);
+
+        for (int dst = 0; dst < graph.vertexCount(); dst++) {
+            field.compute(dst);
+            for (int trial = 0; trial < 20; trial++) {
+                int src = rng.nextInt(graph.vertexCount());
+                int incoming = -1;
+                if (graph.endInEdge(src) > graph.firstInEdge(src) && rng.nextBoolean()) {
+                    incoming = graph.inEdge(graph.firstInEdge(src));
+                }
+
+                double expected = field.distance(src, incoming);
+                boolean found = hierarchy.search(src, incoming, dst);
+                assertEquals(expected != Double.POSITIVE_INFINITY, found);
+                if (!found) {
+                    continue;
+                }
+                assertEquals(expected, hierarchy.distance(), 1e-9);
+
+                double length = 0;
+                int previous = incoming;
+                int v = src;
+                for (int i = 0; i < hierarchy.pathLength(); i++) {
+                    int k = hierarchy.pathState(i);
+                    assertEquals(v, graph.source(k));
+                    if (previous >= 0) {
+                        assertNotEquals(graph.source(previous), graph.target(k));
+                    }
+                    length += graph.weight(k);
+                    previous = k;
+                    v = graph.target(k);
+                }
+                assertEquals(dst, v);
+                assertEquals(expected, length, 1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import graph.Pathfinding.PathEnd;
+import graph.SimpleGraph.SimpleEdge;
+import graph.SimpleGraph.SimpleVertex;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Verifies every `Frontier` implementation against the same specification.
+ */
+class FrontierTest {
+
+    static Stream<String> frontiers() {
+        return Stream.of("MinPQueue", "DaryMinPQueue", "DaryMinPQueue(2)", "PairingMinPQueue",
+                "LazyMinPQueue");
+    }
+
+    /**
+     * Return an empty frontier of the implementation named `name` (see `frontiers()`).
+     */
+    static <K> Frontier<K> newFrontier(String name) {
+        return switch (name) {
+            case "MinPQueue" -> new MinPQueue<>();
+            case "DaryMinPQueue" -> new DaryMinPQueue<>();
+            case "DaryMinPQueue(2)" -> new DaryMinPQueue<>(2);
+            case "PairingMinPQueue" -> new PairingMinPQueue<>();
+            case "LazyMinPQueue" -> new LazyMinPQueue<>();
+            default -> throw new IllegalArgumentException(name);
+        };
+    }
+
+    @DisplayName("GIVEN an empty frontier, WHEN attempting to query the next element OR query the "
+            + "minimum priority OR remove the next element THEN a NoSuchElementException will be "
+            + "thrown")
+    @ParameterizedTest
+    @MethodSource("frontiers")
+    void testExceptions(String name) {
+        Frontier<Integer> q = newFrontier(name);
+
+        assertTrue(q.isEmpty());
+        assertEquals(0, q.size());
+        assertThrows(NoSuchElementException.class, q::peek);
+        assertThrows(NoSuchElementException.class, q::minPriority);
+        assertThrows(NoSuchElementException.class, q::remove);
+    }
+
+    @DisplayName("GIVEN a frontier whose elements' priorities have been randomly added, increased, "
+            + "and decreased, interleaved with removals, THEN its size always matches the number "
+            + "of distinct elements added and not removed AND each removal returns the element "
+            + "reported by `peek()` with the smallest current priority")
+    @ParameterizedTest
+    @MethodSource("frontiers")
+    void testAgreesWithReference(String name) {
+        Frontier<Integer> q = newFrontier(name);
+        Map<Integer, Double> expected = new HashMap<>();
+        Random rng = new Random(1);
+        for (int i = 0; i < 5000; i++) {
+            if (rng.nextInt(3) > 0 || expected.isEmpty()) {
+                int key = rng.nextInt(100);
+                double priority = rng.nextDouble();
+                q.addOrUpdate(key, priority);
+                expected.put(key, priority);
+            } else {
+                double min = expected.values().stream().min(Double::compare).orElseThrow();
+                assertEquals(min, q.minPriority());
+                Integer next = q.peek();
+                assertEquals(next, q.remove());
+                assertEquals(min, expected.remove(next));
+            }
+            assertEquals(expected.size(), q.size());
+            assertEquals(expected.isEmpty(), q.isEmpty());
+        }
+    }
+
+    @DisplayName("WHEN `pathInfo` is computed on a random graph with each frontier, THEN it agrees "
+            + "with `pathInfo` computed with its default frontier on every reachable vertex")
+    @ParameterizedTest
+    @MethodSource("frontiers")
+    void testPathInfo(String name) {
+        SimpleGraph g = PathfindingTest.randomGraph(40, 120, new Random(2110));
+        for (int i = 0; i < g.vertexCount(); i++) {
+            SimpleVertex src = g.getVertex("v" + i);
+            Map<SimpleVertex, PathEnd<SimpleEdge>> expected = Pathfinding.pathInfo(src, null);
+            Map<SimpleVertex, PathEnd<SimpleEdge>> actual = Pathfinding.pathInfo(src, null,
+                    newFrontier(name));
+            assertEquals(expected.keySet(), actual.keySet());
+            for (SimpleVertex v : expected.keySet()) {
+                assertEquals(expected.get(v).distance(), actual.get(v).distance(), 1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IncrementalSearchTest {
+
+    @DisplayName("WHEN a traveler follows its path on a random graph while the goal wanders and "
+            + "occasionally jumps, THEN each repaired search finds a path exactly when the distance "
+            + "field says one exists, AND the path is non-backtracking, starts at the traveler, "
+            + "ends at the goal, and has the length given by the distance field.")
+    @Test
+    void testAgreesWithDistanceField() {
+        Random rng = new Random(2110);
+        CompactGraph graph = BidirectionalSearchTest.randomCompactGraph(80, 4, rng);
+        IncrementalSearch search = new IncrementalSearch(graph, (v, w) -> 0);
+        DistanceField field = new DistanceField(graph);
+
+        int src = rng.nextInt(graph.vertexCount());
+        int incoming = -1;
+        int dst = rng.nextInt(graph.vertexCount());
+        for (int step = 0; step < 500; step++) {
+            field.compute(dst);
+            double expected = field.distance(src, incoming);
+            boolean found = search.search(src, incoming, dst);
+            assertEquals(expected != Double.POSITIVE_INFINITY, found);
+            if (found) {
+                assertEquals(expected, search.distance(), 1e-9);
+                double length = 0;
+                int previous = incoming;
+                int v = src;
+                for (int i = 0; i < search.pathLength(); i++) {
+                    int k = search.pathEdge(i);
+                    assertEquals(v, graph.source(k));
+                    if (previous >= 0) {
+                        assertNotEquals(graph.source(previous), graph.target(k));
+                    }
+                    length += graph.weight(k);
+                    previous = k;
+                    v = graph.target(k);
+                }
+                assertEquals(dst, v);
+                assertEquals(expected, length, 1e-9);
+            }
+
+            // Advance the traveler along its path, or teleport it if it is stuck or has arrived
+            if (found && search.pathLength() > 0) {
+                incoming = search.pathEdge(0);
+                src = graph.target(incoming);
+            } else {
+                src = rng.nextInt(graph.vertexCount());
+                incoming = -1;
+            }
+            // Usually move the goal to a neighbor, occasionally far away
+            if (rng.nextInt(10) == 0 || graph.degree(dst) == 0) {
+                dst = rng.nextInt(graph.vertexCount());
+            } else if (rng.nextBoolean()) {
+                dst = graph.target(graph.firstEdge(dst) + rng.nextInt(graph.degree(dst)));
+            }
+        }
+    }
+}
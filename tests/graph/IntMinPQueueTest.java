@@ -0,0 +1,121 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IntMinPQueueTest {
+
+    @DisplayName("WHEN a new IntMinPQueue is created, THEN its size will be 0 AND it will be empty")
+    @Test
+    void testNew() {
+        IntMinPQueue q = new IntMinPQueue(10);
+
+        assertEquals(0, q.size());
+        assertTrue(q.isEmpty());
+        assertEquals(10, q.capacity());
+    }
+
+    @DisplayName("GIVEN an IntMinPQueue containing an element x whose priority is not the minimum, "
+            + "WHEN x's priority is updated to become the unique minimum, "
+            + "THEN the queue's size will not change "
+            + "AND getting the minimum-priority element will return x "
+            + "AND getting the minimum priority will return x's updated priority")
+    @Test
+    void testUpdateReduce() {
+        IntMinPQueue q = new IntMinPQueue(3);
+        q.addOrUpdate(0, 5.0);
+        q.addOrUpdate(1, 3.0);
+        q.addOrUpdate(2, 4.0);
+
+        q.addOrUpdate(0, 1.0);
+
+        assertEquals(3, q.size());
+        assertEquals(0, q.peek());
+        assertEquals(1.0, q.minPriority(), 0.001);
+    }
+
+    @DisplayName("GIVEN an IntMinPQueue whose elements' priorities have been randomly updated, "
+            + "WHEN elements are successively removed, "
+            + "THEN the minimum priority will not decrease after each removal "
+            + "AND each element will be removed exactly once")
+    @Test
+    void testRemovePriorityOrder() {
+        int capacity = 50;
+        IntMinPQueue q = new IntMinPQueue(capacity);
+        Random rng = new Random(1);
+        for (int i = 0; i < 200; i += 1) {
+            q.addOrUpdate(rng.nextInt(capacity), rng.nextInt(100));
+        }
+
+        boolean[] removed = new boolean[capacity];
+        double prevPriority = Double.NEGATIVE_INFINITY;
+        while (!q.isEmpty()) {
+            double priority = q.minPriority();
+            assertTrue(priority >= prevPriority);
+            int key = q.remove();
+            assertFalse(removed[key]);
+            assertFalse(q.contains(key));
+            removed[key] = true;
+            prevPriority = priority;
+        }
+    }
+
+    @DisplayName("GIVEN a non-empty IntMinPQueue, WHEN it is cleared, THEN it will be empty AND "
+            + "its former elements may be added again")
+    @Test
+    void testClear() {
+        IntMinPQueue q = new IntMinPQueue(4);
+        q.addOrUpdate(3, 1.0);
+        q.addOrUpdate(1, 2.0);
+
+        q.clear();
+        assertTrue(q.isEmpty());
+        assertFalse(q.contains(3));
+
+        q.addOrUpdate(1, 7.0);
+        assertEquals(1, q.size());
+        assertEquals(1, q.peek());
+    }
+
+    @DisplayName("GIVEN an IntMinPQueue with tied priorities, WHEN another queue copies it, THEN "
+            + "both remove the same elements in the same order AND the original is unchanged")
+    @Test
+    void testCopyFrom() {
+        int capacity = 20;
+        IntMinPQueue q = new IntMinPQueue(capacity);
+        Random rng = new Random(2);
+        for (int i = 0; i < 100; i += 1) {
+            q.addOrUpdate(rng.nextInt(capacity), rng.nextInt(5));
+        }
+        IntMinPQueue copy = new IntMinPQueue(capacity);
+        copy.addOrUpdate(0, -1.0);
+        copy.copyFrom(q);
+        assertEquals(q.size(), copy.size());
+
+        while (!q.isEmpty()) {
+            assertEquals(q.minPriority(), copy.minPriority());
+            int key = q.remove();
+            assertTrue(copy.contains(key));
+            assertEquals(key, copy.remove());
+        }
+        assertTrue(copy.isEmpty());
+    }
+
+    @DisplayName("GIVEN an empty IntMinPQueue, WHEN attempting to query the next element "
+            + "OR query the minimum priority OR remove the next element "
+            + "THEN a NoSuchElementException will be thrown")
+    @Test
+    void testExceptions() {
+        IntMinPQueue q = new IntMinPQueue(2);
+
+        assertThrows(NoSuchElementException.class, q::peek);
+        assertThrows(NoSuchElementException.class, q::minPriority);
+        assertThrows(NoSuchElementException.class, q::remove);
+        assertTrue(q.isEmpty());
+    }
+}
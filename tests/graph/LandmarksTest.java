@@ -0,0 +1,41 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LandmarksTest {
+
+    @DisplayName("WHEN landmarks are selected in a random graph, THEN they are distinct AND their "
+            + "estimates are consistent along every edge AND never exceed the non-backtracking "
+            + "distance given by the distance field.")
+    @Test
+    void testConsistentLowerBound() {
+        Random rng = new Random(2110);
+        CompactGraph graph = BidirectionalSearchTest.randomCompactGraph(60, 4, rng);
+        Landmarks landmarks = new Landmarks(graph, 5);
+        DistanceField field = new DistanceField(graph);
+
+        assertEquals(5, landmarks.landmarkCount());
+        for (int i = 0; i < landmarks.landmarkCount(); i++) {
+            for (int j = 0; j < i; j++) {
+                assertNotEquals(landmarks.landmark(j), landmarks.landmark(i));
+            }
+        }
+
+        for (int w = 0; w < graph.vertexCount(); w++) {
+            assertEquals(0, landmarks.estimate(w, w));
+            field.compute(w);
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                assertTrue(landmarks.estimate(v, w) <= field.distance(v, -1) + 1e-9);
+                for (int k = graph.firstEdge(v); k < graph.endEdge(v); k++) {
+                    assertTrue(landmarks.estimate(v, w)
+                            <= graph.weight(k) + landmarks.estimate(graph.target(k), w) + 1e-9);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MonotonePriorityQueueTest {
+
+    @DisplayName("GIVEN an empty MonotonePriorityQueue, WHEN attempting to query the minimum "
+            + "priority OR remove the next element THEN a NoSuchElementException will be thrown")
+    @Test
+    void testExceptions() {
+        MonotonePriorityQueue q = new MonotonePriorityQueue(4, 0.25, 1.75);
+
+        assertTrue(q.isEmpty());
+        assertThrows(NoSuchElementException.class, q::minPriority);
+        assertThrows(NoSuchElementException.class, q::remove);
+    }
+
+    @DisplayName("GIVEN a MonotonePriorityQueue and an IntMinPQueue receiving the same random "
+            + "operations of a search with bounded positive edge weights (adding and decreasing "
+            + "priorities no lower than the last one removed, sometimes far beyond the ring's "
+            + "initial spread), WHEN elements are successively removed, THEN both queues report "
+            + "the same sizes and minimum priorities AND remove the same elements")
+    @Test
+    void testAgreesWithHeap() {
+        int capacity = 200;
+        double minWeight = 0.25;
+        double maxWeight = 1.75;
+        MonotonePriorityQueue q = new MonotonePriorityQueue(capacity, minWeight, maxWeight);
+        IntMinPQueue heap = new IntMinPQueue(capacity);
+        Random rng = new Random(1);
+
+        for (int trial = 0; trial < 20; trial++) {
+            q.clear();
+            heap.clear();
+            assertTrue(q.isEmpty());
+            boolean[] removed = new boolean[capacity];
+            double[] priorities = new double[capacity];
+
+            // Unconstrained initial priorities, as when seeding a multi-source search
+            double last = 0;
+            for (int i = 0; i < 5; i++) {
+                int key = rng.nextInt(capacity);
+                priorities[key] = 10 * rng.nextDouble();
+                q.addOrUpdate(key, priorities[key]);
+                heap.addOrUpdate(key, priorities[key]);
+            }
+
+            while (!heap.isEmpty()) {
+                assertEquals(heap.size(), q.size());
+                assertEquals(heap.minPriority(), q.minPriority());
+                int key = q.remove();
+                assertEquals(heap.remove(), key);  // random priorities are never tied
+                last = priorities[key];
+                removed[key] = true;
+
+                // Relax a few "edges" leaving the removed element
+                int relaxations = rng.nextInt(4);
+                for (int j = 0; j < relaxations; j++) {
+                    int neighbor = rng.nextInt(capacity);
+                    double weight = rng.nextInt(20) == 0 ? 40 * maxWeight * (1 + rng.nextDouble())
+                            : minWeight + (maxWeight - minWeight) * rng.nextDouble();
+                    double priority = last + weight;
+                    boolean queued = !removed[neighbor] && priorities[neighbor] > 0;
+                    if (!removed[neighbor] && (!queued || priority < priorities[neighbor])) {
+                        priorities[neighbor] = priority;
+                        q.addOrUpdate(neighbor, priority);
+                        heap.addOrUpdate(neighbor, priority);
+                    }
+                }
+            }
+            assertTrue(q.isEmpty());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package graph;
 import graph.Pathfinding.PathEnd;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -316,4 +317,181 @@ public class PathfindingTest {
         }
     }
 
+    @DisplayName("WHEN a `VertexIndex` is supplied, THEN `shortestNonBacktrackingPath` returns "
+            + "the same paths as the map-based search.")
+    @Nested
+    class testIndexedShortestNonBacktrackingPath {
+
+        @DisplayName("When the shortest non-backtracking path consists of multiple edges.")
+        @Test
+        void testLongPath() {
+            SimpleGraph g = SimpleGraph.fromText(graph2);
+            List<SimpleEdge> path = Pathfinding.shortestNonBacktrackingPath(g.getVertex("A"),
+                    g.getVertex("G"), null, g);
+            assertNotNull(path);
+            assertPathVertices(Arrays.asList("A", "C", "E", "F", "G"), path);
+        }
+
+        @DisplayName("Path is empty when `src` and `dst` are the same.")
+        @Test
+        void testEmptyPath() {
+            SimpleGraph g = SimpleGraph.fromText(graph2);
+            List<SimpleEdge> path = Pathfinding.shortestNonBacktrackingPath(g.getVertex("C"),
+                    g.getVertex("C"), null, g);
+            assertNotNull(path);
+            assertTrue(path.isEmpty());
+        }
+
+        @DisplayName("Path is null when there is not a path from `src` to `dst`, or when the "
+                + "non-backtracking condition prevents one.")
+        @Test
+        void testNoPath() {
+            SimpleGraph g = SimpleGraph.fromText("A -- B 2");
+            SimpleVertex va = g.getVertex("A");
+            SimpleVertex vb = g.getVertex("B");
+            g.addVertex("C");
+            assertNull(Pathfinding.shortestNonBacktrackingPath(va, g.getVertex("C"), null, g));
+            assertNull(Pathfinding.shortestNonBacktrackingPath(vb, va, g.getEdge(va, vb), g));
+        }
+
+        @DisplayName("Distances agree with `pathInfo` on every vertex of a random graph.")
+        @Test
+        void testAgreesWithPathInfo() {
+            SimpleGraph g = randomGraph(40, 120, new Random(2110));
+            for (int i = 0; i < g.vertexCount(); i++) {
+                SimpleVertex src = g.getVertex("v" + i);
+                Map<SimpleVertex, PathEnd<SimpleEdge>> paths = Pathfinding.pathInfo(src, null);
+                for (int j = 0; j < g.vertexCount(); j++) {
+                    SimpleVertex dst = g.getVertex("v" + j);
+                    List<SimpleEdge> path = Pathfinding.shortestNonBacktrackingPath(src, dst,
+                            null, g);
+                    if (!paths.containsKey(dst)) {
+                        assertNull(path);
+                        continue;
+                    }
+                    assertNotNull(path);
+                    double length = 0;
+                    for (SimpleEdge e : path) {
+                        length += e.weight();
+                    }
+                    assertEquals(paths.get(dst).distance(), length, 1e-9);
+                }
+            }
+        }
+
+        @DisplayName("A reused `SearchContext` and `EdgePath` give the same results as fresh ones, "
+                + "a failed search leaves the path empty, and clients cannot clear a path.")
+        @Test
+        void testReusedContext() {
+            SimpleGraph g = randomGraph(30, 80, new Random(61));
+            SearchContext<SimpleEdge> context = new SearchContext<>();
+            EdgePath<SimpleEdge> path = new EdgePath<>();
+            for (int i = 0; i < g.vertexCount(); i++) {
+                for (int j = 0; j < g.vertexCount(); j++) {
+                    SimpleVertex src = g.getVertex("v" + i);
+                    SimpleVertex dst = g.getVertex("v" + j);
+                    List<SimpleEdge> expected = Pathfinding.shortestNonBacktrackingPath(src, dst,
+                            null, g);
+                    boolean found = Pathfinding.shortestNonBacktrackingPath(src, dst, null, g,
+                            (v, w) -> 0, context, path);
+                    assertEquals(expected != null, found);
+                    if (found) {
+                        assertIterableEquals(expected, path);
+                        assertTrue(context.settledCount() > 0);
+                        if (!path.isEmpty()) {
+                            assertThrows(UnsupportedOperationException.class, path::clear);
+                        }
+                    } else {
+                        assertTrue(path.isEmpty());
+                    }
+                }
+            }
+        }
+    }
+
+    @DisplayName("WHEN queries are answered as a batch, THEN each gets the same path length as "
+            + "when answered alone.")
+    @Nested
+    class testBatchedShortestNonBacktrackingPaths {
+
+        @DisplayName("Queries sharing sources are answered by one search per source, in parallel, "
+                + "and agree with individual searches.")
+        @Test
+        void testAgreesWithSingleQueries() {
+            SimpleGraph g = randomGraph(40, 120, new Random(2110));
+            Random rng = new Random(17);
+            List<PathQuery<SimpleVertex, SimpleEdge>> queries = new ArrayList<>();
+            for (int q = 0; q < 60; q++) {
+                // Draw sources from a few vertices, so that many queries share them
+                SimpleVertex src = g.getVertex("v" + rng.nextInt(5));
+                SimpleEdge previous = null;
+                Iterator<SimpleEdge> out = src.outgoingEdges().iterator();
+                if (q % 3 == 0 && out.hasNext()) {
+                    previous = out.next();  // then start from its end instead
+                    src = previous.dst();
+                }
+                SimpleVertex dst = g.getVertex("v" + rng.nextInt(g.vertexCount()));
+                queries.add(new PathQuery<>(src, previous, dst));
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(4);
+            try {
+                List<List<SimpleEdge>> paths = Pathfinding.shortestNonBacktrackingPaths(queries,
+                        g, (v, w) -> 0, pool);
+                assertEquals(queries.size(), paths.size());
+                for (int q = 0; q < queries.size(); q++) {
+                    PathQuery<SimpleVertex, SimpleEdge> query = queries.get(q);
+                    List<SimpleEdge> expected = Pathfinding.shortestNonBacktrackingPath(
+                            query.src(), query.dst(), query.previousEdge());
+                    assertEquals(expected != null, paths.get(q) != null);
+                    if (expected != null) {
+                        assertEquals(length(expected), length(paths.get(q)), 1e-9);
+                        SimpleVertex v = query.src();
+                        for (SimpleEdge e : paths.get(q)) {
+                            assertEquals(v, e.src());
+                            v = e.dst();
+                        }
+                        assertEquals(query.dst(), v);
+                    }
+                }
+
+                PathBatch<SimpleVertex, SimpleEdge> batch = new PathBatch<>(g, (v, w) -> 0);
+                for (PathQuery<SimpleVertex, SimpleEdge> query : queries) {
+                    batch.add(query);
+                }
+                batch.solve(pool);
+                assertTrue(batch.searchCount() < queries.size());
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        private static double length(List<SimpleEdge> path) {
+            double length = 0;
+            for (SimpleEdge e : path) {
+                length += e.weight();
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Return a graph with vertices labeled "v0" through "v(n-1)" and `m` random directed edges
+     * with weights in `[1, 10)`.  Real-valued weights make ties between paths unlikely.
+     */
+    static SimpleGraph randomGraph(int n, int m, Random rng) {
+        SimpleGraph g = new SimpleGraph();
+        for (int i = 0; i < n; i++) {
+            g.addVertex("v" + i);
+        }
+        for (int k = 0; k < m; k++) {
+            SimpleVertex v = g.getVertex("v" + rng.nextInt(n));
+            SimpleVertex w = g.getVertex("v" + rng.nextInt(n));
+            if (!v.equals(w)) {
+                g.addEdge(v, w, 1 + 9 * rng.nextDouble());
+            }
+        }
+        return g;
+    }
+
 }
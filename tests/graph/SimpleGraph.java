@@ -9,7 +9,7 @@ package graph;
 
 import java.util.*;
 
-public class SimpleGraph {
+public class SimpleGraph implements VertexIndex<SimpleGraph.SimpleVertex> {
 
     public static class SimpleVertex implements Vertex<SimpleEdge> {
 
@@ -51,13 +51,23 @@ public class SimpleGraph {
 
     private final Map<String, SimpleVertex> vertices = new HashMap<>();
 
+    // Dense ids, assigned in order of vertex creation
+    private final Map<SimpleVertex, Integer> ids = new HashMap<>();
+
+    @Override
     public int vertexCount() {
         return vertices.size();
     }
 
+    @Override
+    public int indexOf(SimpleVertex v) {
+        return ids.get(v);
+    }
+
     public SimpleVertex addVertex(String label) {
         SimpleVertex v = new SimpleVertex(label);
         vertices.put(label, v);
+        ids.put(v, ids.size());
         return v;
     }
 
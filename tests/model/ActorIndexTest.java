@@ -0,0 +1,73 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import model.MazeGraph.MazeEdge;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ActorIndexTest {
+
+    @DisplayName("WHEN actors are repeatedly moved to random edges of a maze, THEN each actor's "
+            + "bucket holds exactly the actors on its undirected edge AND its neighbors are "
+            + "exactly the other actors on edges sharing a vertex with its edge.")
+    @Test
+    void testAgreesWithBruteForce() {
+        MazeGraph graph = MazeGraphTest.randomMazeGraph(6, 5, 2110);
+        int n = 40;
+        ActorIndex index = new ActorIndex(graph, n);
+        MazeEdge[] edges = new MazeEdge[n];
+        Random rng = new Random(1);
+        for (int round = 0; round < 500; round++) {
+            int i = (round < n) ? round : rng.nextInt(n);
+            // Favor the edges near the actor's current one, so that buckets fill up
+            edges[i] = (edges[i] == null || rng.nextInt(4) == 0)
+                    ? graph.edge(rng.nextInt(graph.compact().edgeCount()))
+                    : (rng.nextBoolean() ? edges[i].reverse()
+                            : edges[i].dst().outgoingEdges().iterator().next());
+            index.move(i, edges[i]);
+            if (round < n) {
+                continue;
+            }
+
+            for (int a = 0; a < n; a++) {
+                assertSame(edges[a], index.edge(a));
+                assertEquals(graph.undirectedEdgeId(edges[a]), index.edgeId(a));
+
+                Set<Integer> expectedBucket = new HashSet<>();
+                Set<Integer> expectedNeighbors = new HashSet<>();
+                for (int b = 0; b < n; b++) {
+                    if (index.edgeId(b) == index.edgeId(a)) {
+                        expectedBucket.add(b);
+                    }
+                    if (b != a && sharesVertex(edges[a], edges[b])) {
+                        expectedNeighbors.add(b);
+                    }
+                }
+                Set<Integer> bucket = new HashSet<>();
+                for (int b = index.first(index.edgeId(a)); b >= 0; b = index.next(b)) {
+                    assertTrue(bucket.add(b));
+                }
+                assertEquals(expectedBucket, bucket);
+
+                Set<Integer> neighbors = new HashSet<>();
+                for (int k = 0, count = index.collectNeighbors(a); k < count; k++) {
+                    assertTrue(neighbors.add(index.neighbor(k)));
+                }
+                assertEquals(expectedNeighbors, neighbors);
+            }
+        }
+    }
+
+    /**
+     * Return whether edges `e` and `f` have an endpoint in common.
+     */
+    private static boolean sharesVertex(MazeEdge e, MazeEdge f) {
+        return e.src().equals(f.src()) || e.src().equals(f.dst()) || e.dst().equals(f.src())
+                || e.dst().equals(f.dst());
+    }
+}
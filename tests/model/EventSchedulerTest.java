@@ -0,0 +1,169 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import model.MazeGraph.Direction;
+import model.MazeGraph.MazeEdge;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import util.Randomness;
+
+class EventSchedulerTest {
+
+    /**
+     * The game time (in ms) by which each update of the simulations in these tests advances them,
+     * as with `GameModel.updateActors()`.  Ghosts' timers often expire at whole multiples of it.
+     */
+    private static final double UPDATE_MS = 1000;
+
+    @DisplayName("WHEN actors move through seeded mazes in updates of fixed length, THEN every "
+            + "step the scheduler allows ends at the end of the update or at the earliest vertex "
+            + "arrival, state timer expiry, or collision found by checking every pair of actors "
+            + "AND every pair of actors that came into contact during a step, or is in contact "
+            + "while one of them changed state, is among its collision candidates.")
+    @Test
+    void testAgreesWithAllPairs() {
+        for (long seed = 1; seed <= 24; seed++) {
+            GameModel model = GameModel.newGame(10, 10, true, new Randomness(seed));
+            List<Actor> actors = new ArrayList<>();
+            model.actors().forEach(actors::add);
+            EventScheduler scheduler = new EventScheduler(actors, model.graph());
+
+            // Actors pass through each other rather than colliding, and items are not eaten, so
+            //  that the actors' motion only changes as they choose edges and their timers expire.
+            //  As in `updateActors()`, steps stop short at the end of each update.
+            double now = 0;
+            double t = 0;
+            int meetings = 0;
+            for (int step = 0; step < 2000; step++) {
+                if (t >= UPDATE_MS) {
+                    t = 0;
+                    scheduler.invalidateAll();
+                }
+                for (int i = 0; i < actors.size(); i++) {
+                    Actor a = actors.get(i);
+                    if (a.location().atVertex()) {
+                        MazeEdge e = a.nextEdge();
+                        if (e != null) {
+                            a.traverseEdge(e);
+                            scheduler.invalidate(i);
+                        }
+                    }
+                }
+
+                Set<List<Actor>> contacts = contacts(actors);
+                List<Object> states = states(actors);
+                double dt = scheduler.nextDt(now, UPDATE_MS - t);
+                assertEquals(nextDt(actors, UPDATE_MS - t), dt, "seed " + seed + ", step " + step);
+                dt = Math.max(dt, 1e-7);
+                t += dt;
+                now += dt;
+                for (Actor a : actors) {
+                    a.propagate(dt);
+                }
+                scheduler.advance(now);
+
+                Set<List<Actor>> candidates = new HashSet<>();
+                for (int k = 0, count = scheduler.collisionCandidates(); k < count; k++) {
+                    candidates.add(List.of(scheduler.first(k), scheduler.second(k)));
+                }
+                // Pairs that stayed in contact while neither changed state cannot collide anew
+                List<Object> newStates = states(actors);
+                for (List<Actor> pair : contacts(actors)) {
+                    int i = actors.indexOf(pair.get(0));
+                    int j = actors.indexOf(pair.get(1));
+                    if (!contacts.contains(pair) || !states.get(i).equals(newStates.get(i))
+                            || !states.get(j).equals(newStates.get(j))) {
+                        assertTrue(candidates.contains(pair), "seed " + seed + ", step " + step);
+                        meetings += 1;
+                    }
+                }
+            }
+            assertTrue(meetings > 0, "seed " + seed);
+        }
+    }
+
+    /**
+     * Return every pair of `actors` in contact, found by checking every pair, in the order they
+     * appear in `actors`.
+     */
+    private static Set<List<Actor>> contacts(List<Actor> actors) {
+        Set<List<Actor>> contacts = new HashSet<>();
+        for (int i = 0; i < actors.size(); i++) {
+            for (int j = i + 1; j < actors.size(); j++) {
+                if (actors.get(i).location().collidesWith(actors.get(j).location())) {
+                    contacts.add(List.of(actors.get(i), actors.get(j)));
+                }
+            }
+        }
+        return contacts;
+    }
+
+    /**
+     * Return the state of each of `actors` that decides the outcome of a collision: a ghost's
+     * state, or an empty string for PacMann.
+     */
+    private static List<Object> states(List<Actor> actors) {
+        List<Object> states = new ArrayList<>();
+        for (Actor a : actors) {
+            states.add((a instanceof Ghost g) ? g.state() : "");
+        }
+        return states;
+    }
+
+    /**
+     * Return the time until the earliest event among `actors`, or `maxDt` if that is sooner: an
+     * actor's own event, or two actors on the same undirected edge meeting, found by checking every
+     * pair of actors.
+     */
+    private static double nextDt(List<Actor> actors, double maxDt) {
+        double minDt = maxDt;
+        for (int j = 0; j < actors.size(); j++) {
+            Actor b = actors.get(j);
+            minDt = Math.min(minDt, b.maxPropagationTime());
+            for (int i = 0; i < j; i++) {
+                Actor a = actors.get(i);
+                MazeEdge e = a.location().edge();
+                MazeEdge f = b.location().edge();
+                if (!e.equals(f) && !e.equals(f.reverse())) {
+                    continue;
+                }
+                double s = (position(b) - position(a)) / (velocity(a) - velocity(b));
+                // Note: inequality skips NaNs
+                if (s > 0) {
+                    minDt = Math.min(minDt, s);
+                }
+            }
+        }
+        return minDt;
+    }
+
+    /**
+     * Return the position of `actor` along its undirected edge, with RIGHT and DOWN considered the
+     * "positive" directions.
+     */
+    private static double position(Actor actor) {
+        Actor.Location location = actor.location();
+        return positive(location.edge()) ? location.progress() : 1 - location.progress();
+    }
+
+    /**
+     * Return the velocity of `actor` along its undirected edge, with RIGHT and DOWN considered the
+     * "positive" directions.
+     */
+    private static double velocity(Actor actor) {
+        return positive(actor.location().edge()) ? actor.edgeSpeed() : -actor.edgeSpeed();
+    }
+
+    /**
+     * Return whether `e` points in a "positive" direction (RIGHT or DOWN).
+     */
+    private static boolean positive(MazeEdge e) {
+        return e.direction() == Direction.RIGHT || e.direction() == Direction.DOWN;
+    }
+}
@@ -0,0 +1,201 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import graph.DistanceField;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.GameModel.GameState;
+import model.GameModel.Snapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import util.Randomness;
+
+class GameModelTest {
+
+    /**
+     * The game time (in ms) by which each update advances a game.
+     */
+    private static final double UPDATE_MS = 500;
+
+    @DisplayName("WHEN a game is restored from a snapshot taken partway through its play, THEN "
+            + "its play continues exactly as it did from the time of the snapshot.")
+    @Test
+    void testRestoreReplaysPlay() {
+        for (long seed = 1; seed <= 8; seed++) {
+            GameModel model = GameModel.newGame(12, 9, true, new Randomness(seed));
+            play(model, 20);
+            Snapshot snapshot = model.snapshot();
+            List<String> expected = play(model, 200);
+
+            model.restore(snapshot);
+            assertEquals(expected, play(model, 200), "seed " + seed);
+        }
+    }
+
+    @DisplayName("WHEN a game is forked partway through its play, THEN the fork shares the "
+            + "game's graph AND plays on as the game would have AND playing it leaves the game "
+            + "unchanged.")
+    @Test
+    void testForkPlaysIndependently() {
+        for (long seed = 1; seed <= 8; seed++) {
+            GameModel model = GameModel.newGame(12, 9, true, new Randomness(seed));
+            play(model, 20);
+            String before = describe(model);
+
+            GameModel fork = model.fork();
+            assertSame(model.graph(), fork.graph());
+            assertEquals(before, describe(fork));
+            List<String> forked = play(fork, 200);
+            assertEquals(before, describe(model));
+
+            assertEquals(forked, play(model, 200), "seed " + seed);
+        }
+    }
+
+    @DisplayName("WHEN a game whose ghosts navigate by flow fields is forked, THEN the fork's "
+            + "ghosts navigate the same way AND the fork reuses the game's flow fields AND plays "
+            + "on as the game would have.")
+    @Test
+    void testForkSharesFlowFields() {
+        GameModel model = GameModel.newGame(12, 9, true, new Randomness(2110));
+        for (Actor a : model.actors()) {
+            if (a instanceof Ghost g) {
+                g.setNavigation(Ghost.Navigation.FLOW_FIELD);
+            }
+        }
+        play(model, 20);
+        MazeGraph.MazeVertex target = model.graph().vertex(0);
+        FlowField field = model.flowFieldTo(target);
+
+        GameModel fork = model.fork();
+        assertSame(field, fork.flowFieldTo(target));
+        for (Actor a : fork.actors()) {
+            if (a instanceof Ghost g) {
+                assertEquals(Ghost.Navigation.FLOW_FIELD, g.navigation());
+            }
+        }
+        assertEquals(play(fork, 100), play(model, 100));
+    }
+
+    @DisplayName("WHEN ghosts ask for a distance field toward PacMann, THEN the model returns "
+            + "one measuring distances to his nearest vertex, recomputed in place once he reaches "
+            + "another vertex AND returns none toward any other vertex.")
+    @Test
+    void testDistanceFieldFollowsPacMann() {
+        GameModel model = GameModel.newGame(12, 9, true, new Randomness(2110));
+        MazeGraph.MazeVertex start = model.pacMann().nearestVertex();
+        DistanceField field = model.distanceFieldTo(start);
+        assertNotNull(field);
+        assertEquals(start.id(), field.target());
+        for (MazeGraph.MazeVertex v : model.graph().vertices()) {
+            if (!v.equals(start)) {
+                assertNull(model.distanceFieldTo(v));
+            }
+        }
+
+        for (int k = 0; k < 20 && model.pacMann().nearestVertex().equals(start); k++) {
+            model.updateActors(UPDATE_MS);
+        }
+        MazeGraph.MazeVertex moved = model.pacMann().nearestVertex();
+        assertNotEquals(start, moved);
+        assertNull(model.distanceFieldTo(start));
+        assertSame(field, model.distanceFieldTo(moved));
+        assertEquals(moved.id(), field.target());
+
+        DistanceField expected = new DistanceField(model.graph().compact());
+        expected.compute(moved.id());
+        for (int k = 0; k < model.graph().compact().edgeCount(); k++) {
+            assertEquals(expected.distanceFromState(k), field.distanceFromState(k));
+        }
+    }
+
+    @DisplayName("WHEN seeded games whose ghosts' routes depend on breaking ties between equally "
+            + "short paths are played, THEN they end as they did when ghosts always searched with "
+            + "`Pathfinding`.")
+    @Test
+    void testSeededGamesEnd() {
+        // Seed, score, and time (in ms) at which each game ended in defeat on a 10x10 board
+        long[][] outcomes = {{17, 280, 22153}, {21, 280, 19298}, {89, 280, 26044},
+                {298, 280, 47718}};
+        for (long[] outcome : outcomes) {
+            GameModel model = GameModel.newGame(10, 10, true, new Randomness(outcome[0]));
+            play(model, 200);
+            assertEquals(GameState.DEFEAT, model.state(), "seed " + outcome[0]);
+            assertEquals(outcome[1], model.score(), "seed " + outcome[0]);
+            assertEquals(outcome[2], model.time(), 0.5, "seed " + outcome[0]);
+        }
+    }
+
+    @DisplayName("WHEN games are played, THEN their mazes' routing heuristics remain the "
+            + "Manhattan heuristic, since playing does not start landmark preprocessing.")
+    @Test
+    void testPlayingDoesNotComputeLandmarks() {
+        for (long seed = 1; seed <= 4; seed++) {
+            GameModel model = GameModel.newGame(12, 9, true, new Randomness(seed));
+            play(model, 40);
+            assertSame(model.graph().manhattanHeuristic(), model.graph().routingHeuristic());
+            assertSame(model.graph().compactManhattanHeuristic(),
+                    model.graph().compactRoutingHeuristic());
+        }
+    }
+
+    @DisplayName("WHEN a snapshot is restored into a game whose play has moved on, THEN every "
+            + "observable part of the game's state is as it was when the snapshot was taken.")
+    @Test
+    void testRestoreState() {
+        GameModel model = GameModel.newGame(12, 9, true, new Randomness(2110));
+        play(model, 30);
+        String before = describe(model);
+        Snapshot snapshot = model.snapshot();
+        assertEquals(model.score(), snapshot.score());
+        assertEquals(model.time(), snapshot.time());
+        assertEquals(model.numLives(), snapshot.numLives());
+        assertEquals(model.state(), snapshot.state());
+
+        play(model, 100);
+        assertNotEquals(before, describe(model));
+        model.restore(snapshot);
+        assertEquals(before, describe(model));
+    }
+
+    /**
+     * Advance `model` by `UPDATE_MS` at most `numUpdates` times, stopping early if the game ends,
+     * and return a description of its state after each update.
+     */
+    private static List<String> play(GameModel model, int numUpdates) {
+        List<String> trace = new ArrayList<>();
+        for (int k = 0; k < numUpdates && model.state() != GameState.VICTORY
+                && model.state() != GameState.DEFEAT; k++) {
+            model.updateActors(UPDATE_MS);
+            trace.add(describe(model));
+        }
+        return trace;
+    }
+
+    /**
+     * Return a description of the state of `model`: its state, score, time, lives, event count,
+     * the items on its vertices, and its actors' locations and states.
+     */
+    private static String describe(GameModel model) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(model.state()).append(' ').append(model.score()).append(' ')
+                .append(model.time()).append(' ').append(model.numLives()).append(' ')
+                .append(model.eventCount()).append('\n');
+        for (MazeGraph.MazeVertex v : model.graph().vertices()) {
+            sb.append(model.itemAt(v).ordinal());
+        }
+        for (Actor a : model.actors()) {
+            sb.append('\n').append(a.location().edge().src().loc())
+                    .append(a.location().edge().direction()).append(' ')
+                    .append(a.location().progress());
+            if (a instanceof Ghost g) {
+                sb.append(' ').append(g.state()).append(' ').append(g.waitTimeRemaining())
+                        .append(' ').append(g.fleeTimeRemaining());
+            }
+        }
+        return sb.toString();
+    }
+}
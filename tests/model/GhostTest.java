@@ -0,0 +1,57 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import graph.CompactGraph;
+import graph.DistanceField;
+import graph.Pathfinding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.MazeGraph.MazeEdge;
+import model.MazeGraph.MazeVertex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class GhostTest {
+
+    @DisplayName("WHEN a ghost descends a distance field from every state of a random maze toward "
+            + "every vertex, THEN whenever it reports its first edge as certain, that edge is the "
+            + "one `Pathfinding` begins with AND it is certain in most states.")
+    @Test
+    void testDescentMatchesPathfinding() {
+        MazeGraph graph = MazeGraphTest.randomMazeGraph(10, 8, 2110);
+        CompactGraph compact = graph.compact();
+        DistanceField field = new DistanceField(compact);
+        List<MazeEdge> previousEdges = new ArrayList<>();
+        previousEdges.add(null);
+        for (int k = 0; k < compact.edgeCount(); k++) {
+            previousEdges.add(graph.edge(k));
+        }
+
+        List<MazeEdge> path = new ArrayList<>();
+        int queries = 0;
+        int certain = 0;
+        for (MazeVertex w : graph.vertices()) {
+            field.compute(w.id());
+            for (MazeEdge previous : previousEdges) {
+                Iterable<MazeVertex> sources = (previous == null) ? graph.vertices()
+                        : List.of(previous.dst());
+                for (MazeVertex v : sources) {
+                    queries += 1;
+                    if (!Ghost.descend(graph, field, v, previous, path)) {
+                        continue;
+                    }
+                    certain += 1;
+                    List<MazeEdge> expected = Pathfinding.shortestNonBacktrackingPath(v, w,
+                            previous);
+                    MazeEdge expectedFirst = (expected == null || expected.isEmpty()) ? null
+                            : expected.getFirst();
+                    assertEquals(expectedFirst, path.isEmpty() ? null : path.getFirst());
+                }
+            }
+        }
+        assertTrue(certain > 0.9 * queries);
+    }
+}
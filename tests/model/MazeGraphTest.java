@@ -2,9 +2,17 @@ package model;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import graph.CompactGraph;
+import graph.DistanceField;
+import graph.Heuristic;
+import graph.NextHopOracle;
+import graph.Pathfinding;
+
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Scanner;
 
 import model.MazeGraph.Direction;
@@ -13,7 +21,9 @@ import model.MazeGraph.IPair;
 import model.MazeGraph.MazeVertex;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import util.ElevationGenerator;
 import util.GameMap;
+import util.MazeGenerator;
 import util.MazeGenerator.TileType;
 
 public class MazeGraphTest {
@@ -342,4 +352,340 @@ public class MazeGraphTest {
         assertNotNull(bottomLeft.edgeInDirection(Direction.UP));    // (2,2)
         assertNotNull(bottomLeft.edgeInDirection(Direction.RIGHT)); // (3,3)
     }
+
+    @DisplayName("WHEN a MazeGraph is constructed, THEN its vertices have distinct dense ids AND are "
+            + "listed in order of id by a single unmodifiable view AND its compact view lists "
+            + "exactly the edges of each vertex, in order of direction.")
+    @Test
+    void testCompactView() {
+        GameMap map = createMap("""
+                wwppw
+                wwpww
+                wwpww
+                wwppw""");
+        MazeGraph graph = new MazeGraph(map);
+        CompactGraph compact = graph.compact();
+
+        assertEquals(6, graph.vertexCount());
+        assertEquals(6, compact.vertexCount());
+        boolean[] seen = new boolean[graph.vertexCount()];
+        int edgeCount = 0;
+        int expectedId = 0;
+        for (MazeVertex v : graph.vertices()) {
+            assertEquals(expectedId++, v.id());
+            assertFalse(seen[v.id()]);
+            seen[v.id()] = true;
+            assertSame(v, graph.vertex(v.id()));
+            assertSame(v, graph.vertexAt(v.loc().i(), v.loc().j()));
+
+            int k = compact.firstEdge(v.id());
+            for (MazeEdge e : v.outgoingEdges()) {
+                assertSame(e, graph.edge(k));
+                assertEquals(k, graph.edgeId(e));
+                assertEquals(v.id(), compact.source(k));
+                assertEquals(e.dst().id(), compact.target(k));
+                assertEquals(e.weight(), compact.weight(k));
+                assertEquals(e.direction().ordinal(), compact.label(k));
+                if (k > compact.firstEdge(v.id())) {
+                    assertTrue(compact.label(k - 1) < compact.label(k));
+                }
+                k += 1;
+                edgeCount += 1;
+            }
+            assertEquals(compact.endEdge(v.id()), k);
+        }
+        assertEquals(edgeCount, compact.edgeCount());
+        assertSame(graph.vertices(), graph.vertices());
+        assertThrows(UnsupportedOperationException.class,
+                () -> ((List<MazeVertex>) graph.vertices()).set(0, null));
+        assertNull(graph.vertexAt(0, 0));
+        assertNull(graph.vertexAt(-1, 2));
+    }
+
+    @DisplayName("WHEN a random maze is generated, THEN each edge shares its undirected edge id with "
+            + "its reverse AND with no other edge.")
+    @Test
+    void testUndirectedEdgeIds() {
+        MazeGraph graph = randomMazeGraph(8, 6, 2110);
+        Map<Integer, MazeEdge> owners = new HashMap<>();
+        for (MazeVertex v : graph.vertices()) {
+            for (MazeEdge e : v.outgoingEdges()) {
+                int id = graph.undirectedEdgeId(e);
+                assertEquals(id, graph.undirectedEdgeId(e.reverse()));
+                assertEquals(id, graph.undirectedEdgeId(graph.edgeId(e)));
+                assertTrue(id == graph.edgeId(e) || id == graph.edgeId(e.reverse()));
+                MazeEdge owner = owners.putIfAbsent(id, e);
+                assertTrue(owner == null || owner == e.reverse());
+            }
+        }
+    }
+
+    /**
+     * Create the maze graph of a randomly generated game map with `width * height` maze cells.
+     */
+    static MazeGraph randomMazeGraph(int width, int height, long seed) {
+        Random rng = new Random(seed);
+        TileType[][] types = new MazeGenerator(width, height, rng).generateMaze();
+        double[][] elevations = ElevationGenerator.generateElevations(types.length,
+                types[0].length, rng);
+        return new MazeGraph(new GameMap(types, elevations));
+    }
+
+    @DisplayName("WHEN a random maze is generated, THEN its Manhattan heuristic is consistent AND "
+            + "A* searches guided by it find paths as short as those found by Dijkstra's algorithm.")
+    @Test
+    void testManhattanHeuristic() {
+        MazeGraph graph = randomMazeGraph(12, 10, 2110);
+        Heuristic<MazeVertex> h = graph.manhattanHeuristic();
+        MazeVertex dst = graph.vertex(graph.vertexCount() / 2);
+        for (MazeVertex v : graph.vertices()) {
+            for (MazeEdge e : v.outgoingEdges()) {
+                assertTrue(h.estimate(v, dst) <= e.weight() + h.estimate(e.dst(), dst) + 1e-9);
+            }
+        }
+        assertEquals(0, h.estimate(dst, dst));
+
+        Random rng = new Random(1);
+        for (int trial = 0; trial < 50; trial++) {
+            MazeVertex src = graph.vertex(rng.nextInt(graph.vertexCount()));
+            MazeVertex target = graph.vertex(rng.nextInt(graph.vertexCount()));
+            List<MazeEdge> expected = Pathfinding.shortestNonBacktrackingPath(src, target, null);
+            List<MazeEdge> actual = Pathfinding.shortestNonBacktrackingPath(src, target, null,
+                    graph, h);
+            assertNotNull(actual);
+            assertEquals(expected.stream().mapToDouble(MazeEdge::weight).sum(),
+                    actual.stream().mapToDouble(MazeEdge::weight).sum(), 1e-9);
+        }
+    }
+
+    @DisplayName("WHEN a next-hop oracle is built for a random maze, THEN it agrees with distance "
+            + "fields for every state AND following its next hops yields non-backtracking paths no "
+            + "longer than those found by `Pathfinding`.")
+    @Test
+    void testNextHopOracle() {
+        MazeGraph graph = randomMazeGraph(8, 6, 2110);
+        CompactGraph compact = graph.compact();
+        NextHopOracle oracle = graph.nextHopOracle();
+        DistanceField field = new DistanceField(compact);
+
+        Random rng = new Random(3);
+        for (int trial = 0; trial < 20; trial++) {
+            MazeVertex w = graph.vertex(rng.nextInt(graph.vertexCount()));
+            field.compute(w.id());
+            for (int k = 0; k < compact.edgeCount(); k++) {
+                int v = compact.target(k);
+                assertEquals(field.nextEdge(v, k), oracle.nextEdge(v, k, w.id()));
+            }
+            for (MazeVertex v : graph.vertices()) {
+                assertEquals(field.nextEdge(v.id(), -1), oracle.nextEdge(v.id(), -1, w.id()));
+            }
+
+            // Follow the oracle from a random state
+            MazeEdge previous = graph.edge(rng.nextInt(compact.edgeCount()));
+            MazeVertex v = previous.dst();
+            double expected = field.distance(v.id(), graph.edgeId(previous));
+            List<MazeEdge> reference = Pathfinding.shortestNonBacktrackingPath(v, w, previous);
+            double length = 0;
+            for (MazeEdge e = graph.nextHop(v, previous, w); e != null;
+                    e = graph.nextHop(v, previous, w)) {
+                assertNotEquals(previous.src(), e.dst());
+                length += e.weight();
+                previous = e;
+                v = e.dst();
+            }
+            assertEquals(w, v);
+            assertEquals(expected, length, 1e-9);
+            assertTrue(length <= reference.stream().mapToDouble(MazeEdge::weight).sum() + 1e-9);
+        }
+    }
+
+    @DisplayName("WHEN a random maze is compressed into a junction graph, THEN it has fewer nodes "
+            + "than the maze AND routing over it from every state to every vertex finds a path as "
+            + "short as `Pathfinding`'s with the same first edge, including among equally short "
+            + "paths")
+    @Test
+    void testJunctionGraph() {
+        MazeGraph graph = randomMazeGraph(10, 8, 2110);
+        JunctionGraph junctions = graph.junctionGraph();
+        assertTrue(junctions.junctionCount() < graph.vertexCount());
+        for (int c = 0; c < junctions.corridorCount(); c++) {
+            assertEquals(junctions.junctionVertex(junctions.corridorDst(c)),
+                    junctions.edge(c, junctions.length(c) - 1).dst());
+        }
+
+        JunctionGraph.Router router = junctions.new Router();
+        List<MazeEdge> previousEdges = new ArrayList<>();
+        previousEdges.add(null);
+        for (int k = 0; k < graph.compact().edgeCount(); k++) {
+            previousEdges.add(graph.edge(k));
+        }
+        for (MazeEdge previous : previousEdges) {
+            Iterable<MazeVertex> sources = (previous == null) ? graph.vertices()
+                    : List.of(previous.dst());
+            for (MazeVertex v : sources) {
+                for (MazeVertex w : graph.vertices()) {
+                    assertRoutedLike(Pathfinding.shortestNonBacktrackingPath(v, w, previous),
+                            router.route(v, previous, w), router.path(), v, previous);
+                }
+            }
+        }
+    }
+
+    @DisplayName("WHEN a contraction hierarchy is built over a random maze's corridors, THEN its "
+            + "routes from any state agree with the distance field")
+    @Test
+    void testContractionHierarchy() {
+        MazeGraph graph = randomMazeGraph(16, 12, 2110);
+        JunctionGraph junctions = graph.junctionGraph();
+        JunctionGraph.HierarchyRouter router = junctions.new HierarchyRouter();
+        DistanceField field = new DistanceField(graph.compact());
+        Random rng = new Random(13);
+        for (int trial = 0; trial < 300; trial++) {
+            MazeVertex w = graph.vertex(rng.nextInt(graph.vertexCount()));
+            field.compute(w.id());
+            MazeEdge previous = (trial % 2 == 0) ? null
+                    : graph.edge(rng.nextInt(graph.compact().edgeCount()));
+            MazeVertex v = (previous == null) ? graph.vertex(rng.nextInt(graph.vertexCount()))
+                    : previous.dst();
+            double expected = field.distance(v.id(), (previous == null) ? -1
+                    : graph.edgeId(previous));
+
+            List<MazeEdge> path = router.shortestNonBacktrackingPath(v, w, previous);
+            assertEquals(expected < Double.POSITIVE_INFINITY, path != null);
+            if (path == null) {
+                continue;
+            }
+            double length = 0;
+            for (MazeEdge e : path) {
+                assertEquals(v, e.src());
+                assertTrue(previous == null || !previous.src().equals(e.dst()));
+                length += e.weight();
+                previous = e;
+                v = e.dst();
+            }
+            assertEquals(w, v);
+            assertEquals(expected, length, 1e-9);
+        }
+    }
+
+    @DisplayName("WHEN a flow field is built for a random maze, THEN following it from any state "
+            + "agrees with its distance field")
+    @Test
+    void testFlowField() {
+        MazeGraph graph = randomMazeGraph(10, 8, 2110);
+        CompactGraph compact = graph.compact();
+        DistanceField field = new DistanceField(compact);
+        Random rng = new Random(5);
+        for (int trial = 0; trial < 10; trial++) {
+            MazeVertex w = graph.vertex(rng.nextInt(graph.vertexCount()));
+            FlowField flow = new FlowField(graph, w, new DistanceField(compact));
+            assertEquals(w, flow.target());
+            field.compute(w.id());
+            for (int k = 0; k < compact.edgeCount(); k++) {
+                MazeEdge previous = graph.edge(k);
+                int expected = field.nextEdge(compact.target(k), k);
+                assertEquals((expected < 0) ? null : graph.edge(expected),
+                        flow.nextEdge(previous.dst(), previous));
+            }
+            for (MazeVertex v : graph.vertices()) {
+                int expected = field.nextEdge(v.id(), -1);
+                assertEquals((expected < 0) ? null : graph.edge(expected), flow.nextEdge(v, null));
+            }
+        }
+    }
+
+    @DisplayName("WHEN a random maze's landmarks are ready, THEN its routing heuristic is consistent "
+            + "AND at least as tight as the Manhattan heuristic AND routing over the junction graph "
+            + "still agrees with `Pathfinding`")
+    @Test
+    void testLandmarkHeuristic() {
+        MazeGraph graph = randomMazeGraph(16, 12, 2110);
+        assertEquals(MazeGraph.LANDMARK_COUNT, graph.landmarks().join().landmarkCount());
+        Heuristic<MazeVertex> h = graph.routingHeuristic();
+        Random rng = new Random(11);
+        for (int trial = 0; trial < 20; trial++) {
+            MazeVertex w = graph.vertex(rng.nextInt(graph.vertexCount()));
+            assertEquals(0, h.estimate(w, w));
+            for (MazeVertex v : graph.vertices()) {
+                assertTrue(h.estimate(v, w) >= graph.manhattanHeuristic().estimate(v, w));
+                for (MazeEdge e : v.outgoingEdges()) {
+                    assertTrue(h.estimate(v, w) <= e.weight() + h.estimate(e.dst(), w) + 1e-9);
+                }
+            }
+        }
+
+        JunctionGraph.Router router = graph.junctionGraph().new Router();
+        for (int trial = 0; trial < 100; trial++) {
+            MazeEdge previous = graph.edge(rng.nextInt(graph.compact().edgeCount()));
+            MazeVertex w = graph.vertex(rng.nextInt(graph.vertexCount()));
+            assertRoutedLike(Pathfinding.shortestNonBacktrackingPath(previous.dst(), w, previous),
+                    router.route(previous.dst(), previous, w), router.path(), previous.dst(),
+                    previous);
+        }
+    }
+
+    @DisplayName("WHEN a random maze's landmarks become ready, THEN routing over the junction graph "
+            + "chooses paths with the same first edges and lengths as it did with the Manhattan "
+            + "heuristic")
+    @Test
+    void testRoutesIndependentOfHeuristic() {
+        MazeGraph graph = randomMazeGraph(16, 12, 2110);
+        JunctionGraph.Router router = graph.junctionGraph().new Router();
+        Random rng = new Random(17);
+        List<MazeEdge> previousEdges = new ArrayList<>();
+        List<MazeVertex> dsts = new ArrayList<>();
+        List<List<MazeEdge>> manhattanPaths = new ArrayList<>();
+        for (int trial = 0; trial < 200; trial++) {
+            MazeEdge previous = graph.edge(rng.nextInt(graph.compact().edgeCount()));
+            MazeVertex w = graph.vertex(rng.nextInt(graph.vertexCount()));
+            previousEdges.add(previous);
+            dsts.add(w);
+            router.route(previous.dst(), previous, w);
+            manhattanPaths.add(new ArrayList<>(router.path()));
+        }
+
+        graph.landmarks().join();
+        for (int trial = 0; trial < 200; trial++) {
+            MazeEdge previous = previousEdges.get(trial);
+            router.route(previous.dst(), previous, dsts.get(trial));
+            List<MazeEdge> expected = manhattanPaths.get(trial);
+            List<MazeEdge> actual = router.path();
+            assertEquals(expected.isEmpty() ? null : expected.getFirst(),
+                    actual.isEmpty() ? null : actual.getFirst());
+            assertEquals(length(expected), length(actual), 1e-9);
+        }
+    }
+
+    /**
+     * Assert that a router's answer, whether there is a path (`found`) and the path itself
+     * (`path`) from `src` after `previous`, agrees with `Pathfinding`'s answer `expected`: it is
+     * a non-backtracking path as short as `expected` with the same first edge.
+     */
+    private static void assertRoutedLike(List<MazeEdge> expected, boolean found,
+            List<MazeEdge> path, MazeVertex src, MazeEdge previous) {
+        assertEquals(expected != null, found);
+        if (expected == null) {
+            assertTrue(path.isEmpty());
+            return;
+        }
+        assertEquals(expected.isEmpty(), path.isEmpty());
+        if (!expected.isEmpty()) {
+            assertEquals(expected.getFirst(), path.getFirst());
+        }
+        MazeVertex v = src;
+        for (MazeEdge e : path) {
+            assertEquals(v, e.src());
+            assertTrue(previous == null || !previous.src().equals(e.dst()));
+            previous = e;
+            v = e.dst();
+        }
+        assertEquals(length(expected), length(path), 1e-9);
+    }
+
+    /**
+     * Return the total weight of the edges of `path`.
+     */
+    private static double length(List<MazeEdge> path) {
+        return path.stream().mapToDouble(MazeEdge::weight).sum();
+    }
 }
@@ -0,0 +1,220 @@
+package ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import model.GameModel.GameState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ui.BatchApp.GameResult;
+import ui.BatchApp.Statistics;
+import util.Randomness;
+
+class BatchAppTest {
+
+    /**
+     * The randomness seed of the batches played by these tests.
+     */
+    private static final long SEED = 2110;
+
+    /**
+     * The number of games in the batches played by these tests.
+     */
+    private static final int NUM_GAMES = 12;
+
+    @DisplayName("WHEN a batch is played on one thread, on a pool of threads, and on virtual "
+            + "threads from the same seed, THEN the same results are reported in order of game "
+            + "number AND the same statistics are recorded.")
+    @Test
+    void testDeterministicAcrossExecutors() throws Exception {
+        Statistics sequential = new Statistics();
+        List<GameResult> expected = play(Executors.newFixedThreadPool(1), sequential);
+        for (int k = 0; k < NUM_GAMES; k++) {
+            assertEquals(k, expected.get(k).game());
+        }
+
+        Statistics pooled = new Statistics();
+        List<GameResult> pooledResults = play(Executors.newFixedThreadPool(4), pooled);
+        Statistics virtual = new Statistics();
+        List<GameResult> virtualResults = play(Executors.newVirtualThreadPerTaskExecutor(),
+                virtual);
+
+        assertEquals(outcomes(expected), outcomes(pooledResults));
+        assertEquals(outcomes(expected), outcomes(virtualResults));
+        for (Statistics actual : List.of(pooled, virtual)) {
+            assertEquals(sequential.numGames(), actual.numGames());
+            assertEquals(sequential.numWins(), actual.numWins());
+            assertEquals(sequential.totalScore(), actual.totalScore());
+            assertEquals(sequential.totalEvents(), actual.totalEvents());
+            assertEquals(sequential.totalPathQueries(), actual.totalPathQueries());
+            assertEquals(sequential.best().game(), actual.best().game());
+        }
+    }
+
+    @DisplayName("WHEN results are recorded in different orders, THEN the statistics agree AND "
+            + "the best result is the one with the highest score, the earliest game among ties.")
+    @Test
+    void testStatisticsIndependentOfOrder() {
+        List<GameResult> results = List.of(
+                result(0, 100), result(1, 300), result(2, 200), result(3, 300));
+        Statistics forward = new Statistics();
+        Statistics backward = new Statistics();
+        for (int k = 0; k < results.size(); k++) {
+            forward.record(results.get(k));
+            backward.record(results.get(results.size() - 1 - k));
+        }
+
+        for (Statistics statistics : List.of(forward, backward)) {
+            assertEquals(4, statistics.numGames());
+            assertEquals(2, statistics.numWins());
+            assertEquals(900, statistics.totalScore());
+            assertEquals(4000.0, statistics.totalTime());
+            assertEquals(1, statistics.best().game());
+        }
+        assertNull(new Statistics().best());
+    }
+
+    @DisplayName("WHEN a sweep over several board sizes is run, THEN its table has one row per "
+            + "configuration, in order, with that configuration's size and number of games AND "
+            + "the games written to its results file are, configuration by configuration, those "
+            + "of a batch of that size started from the same seed.")
+    @Test
+    void testSweep(@TempDir Path dir) throws Exception {
+        Path out = dir.resolve("sweep.csv");
+        List<String> table = runMain("sweep=8x6x3,6x5x2", "seed=" + SEED, "threads=2",
+                "out=" + out);
+        int header = 0;
+        while (!table.get(header).trim().startsWith("Width")) {
+            header += 1;
+        }
+        List<List<String>> rows = new ArrayList<>();
+        for (String line : table.subList(header + 1, table.size())) {
+            rows.add(List.of(line.trim().split("\\s+")).subList(0, 3));
+        }
+        assertEquals(List.of(List.of("8", "6", "3"), List.of("6", "5", "2")), rows);
+
+        List<String> expected = new ArrayList<>();
+        expected.addAll(records(8, 6, 3));
+        expected.addAll(records(6, 5, 2));
+        List<String> lines = Files.readAllLines(out);
+        List<String> actual = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            actual.add(withoutCost(line));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @DisplayName("WHEN a batch is run with `w=` and `h=`, THEN its games are played on boards of "
+            + "that size AND a width, height, or sweep configuration too small for a board, a "
+            + "malformed sweep configuration, or a sweep with checkpoints is rejected.")
+    @Test
+    void testArguments(@TempDir Path dir) throws Exception {
+        Path out = dir.resolve("batch.csv");
+        runMain("w=8", "h=6", "n=3", "seed=" + SEED, "out=" + out);
+        List<String> lines = Files.readAllLines(out);
+        List<String> actual = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            actual.add(withoutCost(line));
+        }
+        assertEquals(records(8, 6, 3), actual);
+
+        for (String arg : List.of("w=3", "h=2", "sweep=3x6x2", "sweep=8x2x2", "sweep=8x6",
+                "sweep=8x6x2,6x5")) {
+            assertThrows(IllegalArgumentException.class, () -> runMain(arg, "n=1"), arg);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> runMain("sweep=8x6x2", "checkpoint=" + dir.resolve("sweep.checkpoint")));
+    }
+
+    /**
+     * Run `BatchApp.main()` with `args`, and return the lines it prints.
+     */
+    private static List<String> runMain(String... args) {
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        try {
+            BatchApp.main(args);
+        } finally {
+            System.setOut(stdout);
+        }
+        return printed.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    /**
+     * Return the CSV records, without the cost of simulating them (see `withoutCost()`), of a
+     * batch of `numGames` games on `width`x`height` boards from seed `SEED`.
+     */
+    private static List<String> records(int width, int height, int numGames) throws Exception {
+        List<String> records = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            BatchApp.playGames(executor, width, height, 0, numGames, new Randomness(SEED),
+                    new Statistics(), 4, r -> records.add(String.format(Locale.ROOT,
+                            "%d,%d,%d,%d,%s,%d,%.3f,%d,%d,%d", r.game(), r.seed(), r.width(),
+                            r.height(), r.state(), r.score(), r.time(), r.lives(), r.events(),
+                            r.pathQueries())));
+        } finally {
+            executor.shutdownNow();
+        }
+        return records;
+    }
+
+    /**
+     * Return CSV record `line` without its CPU and wall-clock times, which vary from run to run.
+     */
+    private static String withoutCost(String line) {
+        List<String> fields = new ArrayList<>(List.of(line.split(",", -1)));
+        fields.remove(10);  // wall_ms
+        fields.remove(9);  // cpu_ms
+        return String.join(",", fields);
+    }
+
+    /**
+     * Play a batch of `NUM_GAMES` games on `executor` from seed `SEED`, recording them in
+     * `statistics`, then shut `executor` down.  Return the results in the order they were
+     * reported.
+     */
+    private static List<GameResult> play(ExecutorService executor, Statistics statistics)
+            throws Exception {
+        List<GameResult> results = new ArrayList<>();
+        try {
+            BatchApp.playGames(executor, 8, 6, 0, NUM_GAMES, new Randomness(SEED), statistics, 3,
+                    results::add);
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Return the fields of `results` that do not depend on how fast they were played.
+     */
+    private static List<List<Object>> outcomes(List<GameResult> results) {
+        List<List<Object>> outcomes = new ArrayList<>();
+        for (GameResult r : results) {
+            outcomes.add(List.of(r.game(), r.seed(), r.width(), r.height(), r.state(), r.score(),
+                    r.time(), r.lives(), r.events(), r.pathQueries()));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Return the result of game number `game` with score `score`, won if `game` is odd.
+     */
+    private static GameResult result(int game, int score) {
+        return new GameResult(game, game, 8, 6,
+                (game % 2 == 1) ? GameState.VICTORY : GameState.DEFEAT, score, 1000.0, 1, 10,
+                -1, 100, 10);
+    }
+}
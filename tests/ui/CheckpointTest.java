@@ -0,0 +1,124 @@
+package ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import model.GameModel.GameState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ui.BatchApp.GameResult;
+import ui.BatchApp.Statistics;
+import util.Randomness;
+
+class CheckpointTest {
+
+    /**
+     * The best result of the checkpoints written by these tests.
+     */
+    private static final GameResult BEST = new GameResult(3, -2110, 8, 6, GameState.VICTORY,
+            1234, 5678.9, 2, 1_500_000, -1, 300, 40);
+
+    @DisplayName("WHEN a checkpoint is written and read back, THEN it equals the original, "
+            + "including its best result AND no temporary file is left behind.")
+    @Test
+    void testRoundTrip(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("batch.checkpoint");
+        Checkpoint checkpoint = new Checkpoint(8, 6, 20, 2110, 7, -123456789L, 3, 4567,
+                0.1 + 0.2, 987_654_321L, 2000, 150, BEST, 4096);
+        checkpoint.write(path);
+        assertEquals(checkpoint, Checkpoint.read(path));
+        assertFalse(Files.exists(dir.resolve("batch.checkpoint.tmp")));
+
+        // Writing again replaces the earlier checkpoint
+        Checkpoint empty = new Checkpoint(8, 6, 20, 2110, 0, 2110, 0, 0, 0, 0, 0, 0, null, -1);
+        empty.write(path);
+        assertEquals(empty, Checkpoint.read(path));
+    }
+
+    @DisplayName("WHEN a checkpoint's next game is negative or beyond its number of games, or a "
+            + "property is missing or malformed, THEN reading it throws IOException.")
+    @Test
+    void testRejectsInvalid(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("batch.checkpoint");
+        for (int nextGame : new int[]{-1, 21}) {
+            new Checkpoint(8, 6, 20, 2110, nextGame, 0, 0, 0, 0, 0, 0, 0, null, -1).write(path);
+            assertThrows(IOException.class, () -> Checkpoint.read(path));
+        }
+
+        new Checkpoint(8, 6, 20, 2110, 20, 0, 0, 0, 0, 0, 0, 0, BEST, -1).write(path);
+        List<String> lines = Files.readAllLines(path);
+        Files.write(path, lines.stream().filter(line -> !line.startsWith("seed=")).toList());
+        assertThrows(IOException.class, () -> Checkpoint.read(path));
+
+        Files.write(path, lines.stream()
+                .map(line -> line.startsWith("best.state=") ? "best.state=PAUSED" : line)
+                .toList());
+        assertThrows(IOException.class, () -> Checkpoint.read(path));
+    }
+
+    @DisplayName("WHEN a batch is resumed from a checkpoint taken partway through it, THEN the "
+            + "remaining games have the same results as in an uninterrupted batch AND the "
+            + "statistics of the whole batch agree.")
+    @Test
+    void testResumeMatchesUninterrupted(@TempDir Path dir) throws Exception {
+        int numGames = 10;
+        int interruptedAt = 4;
+        Path path = dir.resolve("batch.checkpoint");
+
+        Statistics uninterrupted = new Statistics();
+        List<GameResult> expected = play(0, numGames, new Randomness(2110), uninterrupted);
+
+        Statistics before = new Statistics();
+        List<GameResult> played = play(0, interruptedAt, new Randomness(2110), before);
+        GameResult last = played.getLast();
+        Checkpoint.of(8, 6, numGames, 2110, last.game() + 1,
+                new Randomness(last.seed()).next().seed(), before, -1).write(path);
+
+        Checkpoint checkpoint = Checkpoint.read(path);
+        Statistics resumed = new Statistics();
+        resumed.add(checkpoint);
+        List<GameResult> rest = play(checkpoint.nextGame(), numGames,
+                new Randomness(checkpoint.nextSeed()), resumed);
+
+        assertEquals(expected.size() - interruptedAt, rest.size());
+        for (int k = 0; k < rest.size(); k++) {
+            GameResult want = expected.get(interruptedAt + k);
+            GameResult got = rest.get(k);
+            assertEquals(want.game(), got.game());
+            assertEquals(want.seed(), got.seed());
+            assertEquals(want.state(), got.state());
+            assertEquals(want.score(), got.score());
+            assertEquals(want.events(), got.events());
+        }
+        assertEquals(uninterrupted.numGames(), resumed.numGames());
+        assertEquals(uninterrupted.numWins(), resumed.numWins());
+        assertEquals(uninterrupted.totalScore(), resumed.totalScore());
+        assertEquals(uninterrupted.totalEvents(), resumed.totalEvents());
+        assertEquals(uninterrupted.totalPathQueries(), resumed.totalPathQueries());
+        assertEquals(uninterrupted.best().game(), resumed.best().game());
+    }
+
+    /**
+     * Play games `[firstGame..numGames)` of a batch on 8x6 boards, the first drawing on
+     * `randomness`, recording them in `statistics`.  Return their results in order of game number.
+     */
+    private static List<GameResult> play(int firstGame, int numGames, Randomness randomness,
+            Statistics statistics) throws Exception {
+        List<GameResult> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            BatchApp.playGames(executor, 8, 6, firstGame, numGames, randomness, statistics, 4,
+                    results::add);
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+}
@@ -0,0 +1,113 @@
+package ui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import model.GameModel.GameState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ui.BatchApp.GameResult;
+import ui.ResultSink.Format;
+
+class ResultSinkTest {
+
+    /**
+     * A result whose CPU time was measured.
+     */
+    private static final GameResult MEASURED = new GameResult(0, 42, 8, 6, GameState.VICTORY,
+            1234, 5678.9, 2, 1_500_000, 2_000_000, 300, 40);
+
+    /**
+     * A result whose CPU time could not be measured.
+     */
+    private static final GameResult UNMEASURED = new GameResult(1, -7, 8, 6, GameState.DEFEAT,
+            0, 250.0, 0, 250_000, -1, 12, 3);
+
+    @DisplayName("WHEN a file name ends in \".jsonl\" or \".json\", THEN its format is JSONL, "
+            + "AND otherwise it is CSV.")
+    @Test
+    void testFormatForPath() {
+        assertEquals(Format.JSONL, Format.forPath(Path.of("out", "results.jsonl")));
+        assertEquals(Format.JSONL, Format.forPath(Path.of("results.json")));
+        assertEquals(Format.CSV, Format.forPath(Path.of("results.csv")));
+        assertEquals(Format.CSV, Format.forPath(Path.of("results")));
+    }
+
+    @DisplayName("WHEN results are written as CSV, THEN the file holds a header row followed by "
+            + "one row per result in order, with an unmeasured CPU time left empty.")
+    @Test
+    void testCsv(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("results.csv");
+        try (ResultSink sink = new ResultSink(path, Format.CSV)) {
+            sink.accept(MEASURED);
+            sink.accept(UNMEASURED);
+        }
+        assertEquals(List.of(
+                "game,seed,width,height,result,score,time_ms,lives,steps,cpu_ms,wall_ms,"
+                        + "path_queries",
+                "0,42,8,6,VICTORY,1234,5678.900,2,300,2.000,1.500,40",
+                "1,-7,8,6,DEFEAT,0,250.000,0,12,,0.250,3"), Files.readAllLines(path));
+    }
+
+    @DisplayName("WHEN results are written as JSON Lines, THEN the file holds one object per "
+            + "result in order, with an unmeasured CPU time written as null.")
+    @Test
+    void testJsonl(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("results.jsonl");
+        try (ResultSink sink = new ResultSink(path, Format.JSONL)) {
+            sink.accept(MEASURED);
+            sink.accept(UNMEASURED);
+        }
+        assertEquals(List.of(
+                "{\"game\":0,\"seed\":42,\"width\":8,\"height\":6,\"result\":\"VICTORY\","
+                        + "\"score\":1234,\"time_ms\":5678.900,\"lives\":2,\"steps\":300,"
+                        + "\"cpu_ms\":2.000,\"wall_ms\":1.500,\"path_queries\":40}",
+                "{\"game\":1,\"seed\":-7,\"width\":8,\"height\":6,\"result\":\"DEFEAT\","
+                        + "\"score\":0,\"time_ms\":250.000,\"lives\":0,\"steps\":12,"
+                        + "\"cpu_ms\":null,\"wall_ms\":0.250,\"path_queries\":3}"),
+                Files.readAllLines(path));
+    }
+
+    @DisplayName("WHEN a sink is resumed at the length its file had when a sync ran, THEN the "
+            + "records written after the sync are discarded AND new records follow those written "
+            + "before it, without another header row.")
+    @Test
+    void testResume(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("results.csv");
+        AtomicLong length = new AtomicLong(-1);
+        try (ResultSink sink = new ResultSink(path, Format.CSV)) {
+            sink.accept(MEASURED);
+            sink.sync(length::set);
+            sink.accept(UNMEASURED);
+        }
+        List<String> lines = Files.readAllLines(path);
+        assertEquals(3, lines.size());
+        assertTrue(length.get() > 0 && length.get() < Files.size(path));
+
+        try (ResultSink sink = ResultSink.resume(path, Format.CSV, length.get())) {
+            sink.accept(MEASURED);
+        }
+        assertEquals(List.of(lines.get(0), lines.get(1), lines.get(1)),
+                Files.readAllLines(path));
+    }
+
+    @DisplayName("WHEN a sink is resumed at a length beyond the end of its file, THEN an "
+            + "IOException is thrown AND the file is left unchanged.")
+    @Test
+    void testResumeShortFile(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("results.jsonl");
+        try (ResultSink sink = new ResultSink(path, Format.JSONL)) {
+            sink.accept(MEASURED);
+        }
+        List<String> lines = Files.readAllLines(path);
+        long size = Files.size(path);
+
+        assertThrows(IOException.class, () -> ResultSink.resume(path, Format.JSONL, size + 1));
+        assertEquals(lines, Files.readAllLines(path));
+    }
+}
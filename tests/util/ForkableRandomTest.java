@@ -0,0 +1,49 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ForkableRandomTest {
+
+    @DisplayName("WHEN a ForkableRandom and a Random are created with the same seed, THEN they "
+            + "produce the same sequence of values.")
+    @Test
+    void testMatchesRandom() {
+        for (long seed : new long[]{0, 1, -7, 2110, Long.MAX_VALUE}) {
+            Random expected = new Random(seed);
+            ForkableRandom actual = new ForkableRandom(seed);
+            for (int k = 0; k < 1000; k++) {
+                assertEquals(expected.nextInt(k + 1), actual.nextInt(k + 1));
+                assertEquals(expected.nextInt(), actual.nextInt());
+                assertEquals(expected.nextLong(), actual.nextLong());
+                assertEquals(expected.nextDouble(), actual.nextDouble());
+                assertEquals(expected.nextBoolean(), actual.nextBoolean());
+            }
+        }
+    }
+
+    @DisplayName("WHEN a ForkableRandom is forked, or its state is restored, THEN it produces the "
+            + "same values as it did after that state, including normally distributed values.")
+    @Test
+    void testForkAndRestore() {
+        ForkableRandom random = new ForkableRandom(2110);
+        random.nextInt();
+        long state = random.state();
+        ForkableRandom fork = random.fork();
+
+        double[] values = new double[100];
+        for (int k = 0; k < values.length; k++) {
+            values[k] = (k % 2 == 0) ? random.nextGaussian() : random.nextInt(10);
+        }
+        for (int k = 0; k < values.length; k++) {
+            assertEquals(values[k], (k % 2 == 0) ? fork.nextGaussian() : fork.nextInt(10));
+        }
+        random.setState(state);
+        for (int k = 0; k < values.length; k++) {
+            assertEquals(values[k], (k % 2 == 0) ? random.nextGaussian() : random.nextInt(10));
+        }
+    }
+}